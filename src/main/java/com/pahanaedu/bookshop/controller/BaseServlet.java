@@ -1,6 +1,9 @@
 package com.pahanaedu.bookshop.controller;
 
+import com.pahanaedu.bookshop.dao.TableVersionDAO;
 import com.pahanaedu.bookshop.model.User;
+import com.pahanaedu.bookshop.service.ServiceException;
+import com.pahanaedu.bookshop.service.TableVersionService;
 import com.pahanaedu.bookshop.util.ResponseUtil;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -11,6 +14,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -229,15 +234,108 @@ public abstract class BaseServlet extends HttpServlet {
         handleCorsPreflightRequest(request, response);
     }
 
+    /**
+     * Set validators for a single entity and answer a matching conditional GET with 304
+     * @param request HTTP request
+     * @param response HTTP response
+     * @param type Entity type, part of the ETag
+     * @param id Entity ID
+     * @param updatedAt Last modification time of the entity (may be null)
+     * @return true if 304 Not Modified was sent and the caller must not write a body
+     */
+    protected boolean checkNotModified(HttpServletRequest request, HttpServletResponse response,
+                                       String type, Object id, LocalDateTime updatedAt) {
+        long lastModified = updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+        String etag = "W/\"" + type + "-" + id + "-" + lastModified + "\"";
+        return checkNotModified(request, response, etag, lastModified);
+    }
+
+    /**
+     * Set an ETag for a list read from the given tables and answer a matching conditional GET
+     * with 304. The table versions are usually cached, so a poll of an unchanged list is
+     * answered without any DAO work.
+     * @param request HTTP request
+     * @param response HTTP response
+     * @param tables Tables the list is read from
+     * @return true if 304 Not Modified was sent and the caller must not write a body
+     * @throws ServiceException if a table version cannot be read
+     */
+    protected boolean checkListNotModified(HttpServletRequest request, HttpServletResponse response,
+                                           TableVersionDAO.Table... tables) throws ServiceException {
+        String version = TableVersionService.getInstance().getVersion(tables);
+        String query = request.getQueryString();
+        String resource = request.getRequestURI() + (query != null ? "?" + query : "");
+        String etag = "W/\"" + version + "-" + Integer.toHexString(resource.hashCode()) + "\"";
+        return checkNotModified(request, response, etag, -1);
+    }
+
+    private boolean checkNotModified(HttpServletRequest request, HttpServletResponse response,
+                                     String etag, long lastModified) {
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", "no-cache");
+        if (lastModified >= 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified;
+        if (ifNoneMatch != null) {
+            notModified = matchesETag(ifNoneMatch, etag);
+        } else {
+            notModified = lastModified >= 0 && !isModifiedSince(request, lastModified);
+        }
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    /**
+     * Weak comparison of an If-None-Match header against the current ETag
+     */
+    private boolean matchesETag(String ifNoneMatch, String etag) {
+        String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isModifiedSince(HttpServletRequest request, long lastModified) {
+        try {
+            long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            // HTTP dates have second precision
+            return ifModifiedSince < 0 || lastModified / 1000 > ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
     /**
      * Handle exceptions and send appropriate error response
      * @param response HTTP response
      * @param e Exception
      * @param defaultMessage Default error message
-     * @throws IOException if response writing fails
+     * @throws IOException if response writing fails, or if part of the response has already been
+     *         sent; the container then aborts the connection so the client sees an incomplete response
      */
     protected void handleException(HttpServletResponse response, Exception e, String defaultMessage) throws IOException {
         logger.error("Error in servlet", e);
+
+        if (response.isCommitted()) {
+            // An error body appended to a partly sent response would look like more content
+            throw (e instanceof IOException) ? (IOException) e : new IOException(defaultMessage, e);
+        }
         
         String message = (e.getMessage() != null && !e.getMessage().isEmpty()) ? 
             e.getMessage() : defaultMessage;
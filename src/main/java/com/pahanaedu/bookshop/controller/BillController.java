@@ -1,10 +1,21 @@
 package com.pahanaedu.bookshop.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pahanaedu.bookshop.dao.TableVersionDAO;
 import com.pahanaedu.bookshop.model.Bill;
 import com.pahanaedu.bookshop.model.BillItem;
+import com.pahanaedu.bookshop.model.CursorPage;
+import com.pahanaedu.bookshop.model.IdempotencyKey;
+import com.pahanaedu.bookshop.model.User;
+import com.pahanaedu.bookshop.service.BillBatchService;
+import com.pahanaedu.bookshop.service.BillExportService;
+import com.pahanaedu.bookshop.service.BillIdempotencyService;
+import com.pahanaedu.bookshop.service.BillPdfArchiveService;
+import com.pahanaedu.bookshop.service.BillPdfCache;
 import com.pahanaedu.bookshop.service.BillService;
 import com.pahanaedu.bookshop.service.PdfBillService;
 import com.pahanaedu.bookshop.service.ServiceException;
+import com.pahanaedu.bookshop.util.AppConfig;
 import com.pahanaedu.bookshop.util.ResponseUtil;
 import com.pahanaedu.bookshop.util.ValidationUtil;
 import javax.servlet.annotation.WebServlet;
@@ -13,12 +24,18 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controller for bill management operations
@@ -26,13 +43,28 @@ import java.util.Optional;
 @WebServlet(name = "BillController", urlPatterns = {"/api/bills/*"})
 public class BillController extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(BillController.class);
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String BILL_CREATED_MESSAGE = "Bill created successfully";
     
     private final BillService billService;
     private final PdfBillService pdfBillService;
+    private final BillPdfCache billPdfCache;
+    private final BillPdfArchiveService billPdfArchiveService;
+    private final BillExportService billExportService;
+    private final BillIdempotencyService billIdempotencyService;
+    private final BillBatchService billBatchService;
+    private final int maxBatchBills;
 
     public BillController() {
         this.billService = new BillService();
         this.pdfBillService = new PdfBillService();
+        this.billPdfCache = BillPdfCache.getInstance();
+        this.billPdfArchiveService = new BillPdfArchiveService();
+        this.billExportService = new BillExportService();
+        this.billIdempotencyService = BillIdempotencyService.getInstance();
+        this.billBatchService = new BillBatchService(billService);
+        this.maxBatchBills = AppConfig.getInt("bills.batch.maxBills", 5000);
     }
 
     @Override
@@ -49,6 +81,12 @@ public class BillController extends BaseServlet {
             } catch (Exception e) {
                 handleException(response, e, "Failed to create bill");
             }
+        } else if (pathInfo.equals("/batch")) {
+            try {
+                handleCreateBillBatch(request, response);
+            } catch (Exception e) {
+                handleException(response, e, "Failed to create bills");
+            }
         } else if (pathInfo.matches("/\\d+/cancel")) {
             try {
                 handleCancelBill(request, response);
@@ -71,8 +109,14 @@ public class BillController extends BaseServlet {
         try {
             if (pathInfo == null || pathInfo.equals("/")) {
                 handleGetBills(request, response);
+            } else if (pathInfo.equals("/pdf-archive")) {
+                handleGetBillPdfArchive(request, response);
+            } else if (pathInfo.equals("/export")) {
+                handleExportBills(request, response);
             } else if (pathInfo.equals("/generate-number")) {
                 handleGenerateBillNumber(request, response);
+            } else if (pathInfo.matches("/customer/\\d+/counts")) {
+                handleGetBillCountsByCustomer(request, response);
             } else if (pathInfo.startsWith("/customer/")) {
                 handleGetBillsByCustomer(request, response);
             } else if (pathInfo.startsWith("/date-range")) {
@@ -99,11 +143,34 @@ public class BillController extends BaseServlet {
      * Handle get bills with pagination
      */
     private void handleGetBills(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (checkListNotModified(request, response, billListTables(request))) {
+            return;
+        }
+
         Map<String, Integer> paginationParams = getPaginationParams(request);
         int page = paginationParams.get("page");
         int pageSize = paginationParams.get("pageSize");
 
+        String cursor = request.getParameter("cursor");
+        if (cursor != null) {
+            CursorPage<Bill> billPage;
+            try {
+                billPage = billService.getBillsAfter(cursor, pageSize);
+            } catch (ServiceException e) {
+                sendCursorError(response, e);
+                return;
+            }
+            if (includeItems(request)) {
+                billService.loadBillItems(billPage.getItems());
+            }
+            ResponseUtil.sendCursorPaginatedResponse(response, billPage.getItems(), pageSize, billPage.getNextCursor());
+            return;
+        }
+
         List<Bill> bills = billService.getBills(page, pageSize);
+        if (includeItems(request)) {
+            billService.loadBillItems(bills);
+        }
         long totalCount = billService.getBillCount();
 
         ResponseUtil.sendPaginatedResponse(response, bills, page, pageSize, totalCount);
@@ -118,7 +185,11 @@ public class BillController extends BaseServlet {
 
         Optional<Bill> billOpt = billService.getBillById(billId);
         if (billOpt.isPresent()) {
-            ResponseUtil.sendSuccessResponse(response, billOpt.get());
+            Bill bill = billOpt.get();
+            if (checkNotModified(request, response, "bill", bill.getBillId(), bill.getUpdatedAt())) {
+                return;
+            }
+            ResponseUtil.sendSuccessResponse(response, bill);
         } else {
             ResponseUtil.sendNotFoundResponse(response, "Bill not found");
         }
@@ -133,7 +204,11 @@ public class BillController extends BaseServlet {
 
         Optional<Bill> billOpt = billService.getBillByNumber(billNumber);
         if (billOpt.isPresent()) {
-            ResponseUtil.sendSuccessResponse(response, billOpt.get());
+            Bill bill = billOpt.get();
+            if (checkNotModified(request, response, "bill", bill.getBillId(), bill.getUpdatedAt())) {
+                return;
+            }
+            ResponseUtil.sendSuccessResponse(response, bill);
         } else {
             ResponseUtil.sendNotFoundResponse(response, "Bill not found");
         }
@@ -146,12 +221,51 @@ public class BillController extends BaseServlet {
         String pathInfo = request.getPathInfo();
         Integer customerId = Integer.parseInt(pathInfo.substring("/customer/".length()));
 
+        if (checkListNotModified(request, response, billListTables(request))) {
+            return;
+        }
+
         Map<String, Integer> paginationParams = getPaginationParams(request);
         int page = paginationParams.get("page");
         int pageSize = paginationParams.get("pageSize");
 
+        String cursor = request.getParameter("cursor");
+        if (cursor != null) {
+            CursorPage<Bill> billPage;
+            try {
+                billPage = billService.getBillsByCustomerAfter(customerId, cursor, pageSize);
+            } catch (ServiceException e) {
+                sendCursorError(response, e);
+                return;
+            }
+            if (includeItems(request)) {
+                billService.loadBillItems(billPage.getItems());
+            }
+            ResponseUtil.sendCursorPaginatedResponse(response, billPage.getItems(), pageSize, billPage.getNextCursor());
+            return;
+        }
+
         List<Bill> bills = billService.getBillsByCustomer(customerId, page, pageSize);
-        ResponseUtil.sendSuccessResponse(response, bills);
+        if (includeItems(request)) {
+            billService.loadBillItems(bills);
+        }
+        long totalCount = billService.getBillCountByCustomer(customerId);
+
+        ResponseUtil.sendPaginatedResponse(response, bills, page, pageSize, totalCount);
+    }
+
+    /**
+     * Handle get bill counts of a customer per status
+     */
+    private void handleGetBillCountsByCustomer(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        String pathInfo = request.getPathInfo();
+        Integer customerId = Integer.parseInt(pathInfo.substring("/customer/".length(), pathInfo.indexOf("/counts")));
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Bill.BillStatus status : Bill.BillStatus.values()) {
+            counts.put(status.getValue(), billService.getBillCountByCustomer(customerId, status));
+        }
+        ResponseUtil.sendSuccessResponse(response, counts);
     }
 
     /**
@@ -179,11 +293,42 @@ public class BillController extends BaseServlet {
             return;
         }
 
+        if (checkListNotModified(request, response, billListTables(request))) {
+            return;
+        }
+
         Map<String, Integer> paginationParams = getPaginationParams(request);
         int page = paginationParams.get("page");
         int pageSize = paginationParams.get("pageSize");
 
+        String cursor = request.getParameter("cursor");
+        if (cursor != null) {
+            CursorPage<Bill> billPage;
+            try {
+                billPage = billService.getBillsByDateRangeAfter(startDate, endDate, cursor, pageSize);
+            } catch (ServiceException e) {
+                sendCursorError(response, e);
+                return;
+            }
+            if (includeItems(request)) {
+                billService.loadBillItems(billPage.getItems());
+            }
+
+            Map<String, Object> responseData = new HashMap<>();
+            responseData.put("bills", billPage.getItems());
+            responseData.put("startDate", startDate);
+            responseData.put("endDate", endDate);
+            responseData.put("nextCursor", billPage.getNextCursor());
+            responseData.put("hasNext", billPage.hasNext());
+
+            ResponseUtil.sendSuccessResponse(response, responseData);
+            return;
+        }
+
         List<Bill> bills = billService.getBillsByDateRange(startDate, endDate, page, pageSize);
+        if (includeItems(request)) {
+            billService.loadBillItems(bills);
+        }
         
         Map<String, Object> responseData = new HashMap<>();
         responseData.put("bills", bills);
@@ -210,6 +355,24 @@ public class BillController extends BaseServlet {
      */
     private void handleCreateBill(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
         String requestBody = readRequestBody(request);
+        Integer createdBy = getCurrentUserId(request);
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        String requestHash = null;
+        if (idempotencyKey != null) {
+            idempotencyKey = idempotencyKey.trim();
+            if (idempotencyKey.isEmpty() || idempotencyKey.length() > BillIdempotencyService.MAX_KEY_LENGTH) {
+                ResponseUtil.sendBadRequestResponse(response, IDEMPOTENCY_KEY_HEADER + " must be 1-" +
+                    BillIdempotencyService.MAX_KEY_LENGTH + " characters");
+                return;
+            }
+
+            // A retry of a request that already created a bill gets the original response
+            requestHash = BillIdempotencyService.hashRequest(requestBody);
+            if (replayCreatedBill(response, createdBy, idempotencyKey, requestHash)) {
+                return;
+            }
+        }
         
         try {
             Map<String, Object> billData = ResponseUtil.parseJsonRequest(requestBody, Map.class);
@@ -223,16 +386,29 @@ public class BillController extends BaseServlet {
             List<BillItem> billItems = itemsData.stream()
                 .map(itemData -> ResponseUtil.getObjectMapper().convertValue(itemData, BillItem.class))
                 .toList();
-            
-            Integer createdBy = getCurrentUserId(request);
-            
-            Bill createdBill = billService.createBill(bill, billItems, createdBy);
-            ResponseUtil.sendSuccessResponse(response, createdBill, "Bill created successfully");
+
+            if (idempotencyKey == null) {
+                Bill createdBill = billService.createBill(bill, billItems, createdBy);
+                ResponseUtil.sendSuccessResponse(response, createdBill, BILL_CREATED_MESSAGE);
+                return;
+            }
+
+            Bill createdBill = billService.createBill(bill, billItems, createdBy,
+                new IdempotencyKey(idempotencyKey, requestHash, createdBy));
+            byte[] responseBody = ResponseUtil.toSuccessResponseBytes(createdBill, BILL_CREATED_MESSAGE);
+            billIdempotencyService.rememberResponse(createdBy, idempotencyKey, requestHash, responseBody);
+            ResponseUtil.sendJsonBytes(response, HttpServletResponse.SC_OK, responseBody);
             
         } catch (IOException e) {
             ResponseUtil.sendBadRequestResponse(response, "Invalid JSON format");
         } catch (ServiceException e) {
-            if (e.getMessage().contains("Validation failed") || e.getMessage().contains("not found") ||
+            if (e.getMessage().startsWith("Duplicate idempotency key")) {
+                // A concurrent request with the same key committed first
+                if (!replayCreatedBill(response, createdBy, idempotencyKey, requestHash)) {
+                    ResponseUtil.sendErrorResponse(response, HttpServletResponse.SC_CONFLICT,
+                        "Request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+                }
+            } else if (e.getMessage().contains("Validation failed") || e.getMessage().contains("not found") ||
                 e.getMessage().contains("Insufficient stock")) {
                 ResponseUtil.sendBadRequestResponse(response, e.getMessage());
             } else {
@@ -241,6 +417,189 @@ public class BillController extends BaseServlet {
         }
     }
 
+    /**
+     * Handle bulk bill creation from NDJSON: one {"bill":..., "billItems":[...], "idempotencyKey":...}
+     * object per line. Lines are parsed as they arrive and created in chunked transactions,
+     * so the body is never held in memory as a whole.
+     */
+    private void handleCreateBillBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Integer createdBy = getCurrentUserId(request);
+        int chunkSize = billBatchService.getChunkSize();
+
+        List<BillBatchService.Result> results = new ArrayList<>();
+        List<BillBatchService.Entry> chunk = new ArrayList<>(chunkSize);
+        int lineNumber = 0;
+        int billCount = 0;
+
+        try (BufferedReader reader = request.getReader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (++billCount > maxBatchBills) {
+                    // Bills before the limit may already be committed, so report them rather than reject the batch
+                    results.add(BillBatchService.Result.failed(lineNumber,
+                        "Batch limit of " + maxBatchBills + " bills exceeded, bill not processed"));
+                    continue;
+                }
+
+                try {
+                    chunk.add(parseBatchLine(lineNumber, line, createdBy));
+                } catch (IOException e) {
+                    results.add(BillBatchService.Result.failed(lineNumber, "Invalid JSON format"));
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    results.add(BillBatchService.Result.failed(lineNumber, "Invalid bill: " + e.getMessage()));
+                    continue;
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    results.addAll(billBatchService.createChunk(chunk, createdBy));
+                    chunk.clear();
+                }
+            }
+        }
+        results.addAll(billBatchService.createChunk(chunk, createdBy));
+        results.sort(Comparator.comparingInt(BillBatchService.Result::getLine));
+
+        long created = results.stream().filter(r -> BillBatchService.Result.CREATED.equals(r.getStatus())).count();
+        long duplicates = results.stream().filter(r -> BillBatchService.Result.DUPLICATE.equals(r.getStatus())).count();
+
+        Map<String, Object> responseData = new LinkedHashMap<>();
+        responseData.put("total", results.size());
+        responseData.put("created", created);
+        responseData.put("duplicates", duplicates);
+        responseData.put("failed", results.size() - created - duplicates);
+        responseData.put("limitExceeded", billCount > maxBatchBills);
+        responseData.put("results", results);
+
+        logger.info("Bill batch processed: {} bills, {} created, {} duplicates", results.size(), created, duplicates);
+        ResponseUtil.sendSuccessResponse(response, responseData, "Bill batch processed");
+    }
+
+    private BillBatchService.Entry parseBatchLine(int lineNumber, String line, Integer createdBy) throws IOException {
+        JsonNode node = ResponseUtil.getObjectMapper().readTree(line);
+
+        IdempotencyKey idempotencyKey = null;
+        JsonNode keyNode = node.get("idempotencyKey");
+        if (keyNode != null && !keyNode.isNull()) {
+            String key = keyNode.asText().trim();
+            if (key.isEmpty() || key.length() > BillIdempotencyService.MAX_KEY_LENGTH) {
+                throw new IllegalArgumentException("Invalid idempotency key");
+            }
+            idempotencyKey = new IdempotencyKey(key, BillIdempotencyService.hashRequest(line), createdBy);
+        }
+
+        return new BillBatchService.Entry(lineNumber, () -> toBill(node), idempotencyKey);
+    }
+
+    /**
+     * Build a new bill with its items from a batch line
+     */
+    private Bill toBill(JsonNode node) {
+        Bill bill = ResponseUtil.getObjectMapper().convertValue(node.get("bill"), Bill.class);
+        if (bill == null) {
+            throw new IllegalArgumentException("Missing bill");
+        }
+        List<BillItem> billItems = new ArrayList<>();
+        JsonNode itemsNode = node.get("billItems");
+        if (itemsNode != null) {
+            for (JsonNode itemNode : itemsNode) {
+                billItems.add(ResponseUtil.getObjectMapper().convertValue(itemNode, BillItem.class));
+            }
+        }
+        bill.setBillItems(billItems);
+        return bill;
+    }
+
+    /**
+     * Report an invalid cursor as a bad request; other failures are rethrown
+     */
+    private void sendCursorError(HttpServletResponse response, ServiceException e) throws IOException, ServiceException {
+        if (e.getMessage().contains("Validation failed")) {
+            ResponseUtil.sendBadRequestResponse(response, "Invalid cursor");
+        } else {
+            throw e;
+        }
+    }
+
+    /**
+     * Check for ?include=items (comma-separated include list) on list endpoints
+     */
+    private boolean includeItems(HttpServletRequest request) {
+        String include = request.getParameter("include");
+        if (include == null) {
+            return false;
+        }
+        for (String part : include.split(",")) {
+            if (part.trim().equalsIgnoreCase("items")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tables a bill listing is read from: bills with customer names, plus item names when
+     * items are included
+     */
+    private TableVersionDAO.Table[] billListTables(HttpServletRequest request) {
+        if (includeItems(request)) {
+            return new TableVersionDAO.Table[] {TableVersionDAO.Table.BILLS, TableVersionDAO.Table.CUSTOMERS,
+                TableVersionDAO.Table.ITEMS};
+        }
+        return new TableVersionDAO.Table[] {TableVersionDAO.Table.BILLS, TableVersionDAO.Table.CUSTOMERS};
+    }
+
+    /**
+     * Replay the response of a bill the same user already created under an idempotency key.
+     * Recent keys are answered from memory; older ones fall back to the dedupe table.
+     * @return true if a response was sent
+     */
+    private boolean replayCreatedBill(HttpServletResponse response, Integer createdBy, String idempotencyKey,
+                                      String requestHash) throws IOException, ServiceException {
+        Optional<BillIdempotencyService.StoredResponse> cached =
+            billIdempotencyService.getCachedResponse(createdBy, idempotencyKey);
+        if (cached.isPresent()) {
+            return sendReplay(response, idempotencyKey, requestHash, cached.get().getRequestHash(), cached.get().getBody());
+        }
+
+        Optional<IdempotencyKey> keyOpt = billIdempotencyService.findKey(createdBy, idempotencyKey);
+        if (keyOpt.isEmpty() || keyOpt.get().getBillId() == null) {
+            return false;
+        }
+
+        IdempotencyKey key = keyOpt.get();
+        if (!key.getRequestHash().equals(requestHash)) {
+            return sendReplay(response, idempotencyKey, requestHash, key.getRequestHash(), null);
+        }
+
+        Optional<Bill> billOpt = billService.getBillById(key.getBillId());
+        if (billOpt.isEmpty()) {
+            return false;
+        }
+
+        byte[] responseBody = ResponseUtil.toSuccessResponseBytes(billOpt.get(), BILL_CREATED_MESSAGE);
+        billIdempotencyService.rememberResponse(createdBy, idempotencyKey, requestHash, responseBody);
+        return sendReplay(response, idempotencyKey, requestHash, requestHash, responseBody);
+    }
+
+    private boolean sendReplay(HttpServletResponse response, String idempotencyKey, String requestHash,
+                               String storedHash, byte[] responseBody) throws IOException {
+        if (!storedHash.equals(requestHash)) {
+            ResponseUtil.sendErrorResponse(response, HttpServletResponse.SC_CONFLICT,
+                IDEMPOTENCY_KEY_HEADER + " has already been used with a different request");
+            return true;
+        }
+
+        logger.debug("Replaying bill response for idempotency key: {}", idempotencyKey);
+        response.setHeader("Idempotent-Replayed", "true");
+        ResponseUtil.sendJsonBytes(response, HttpServletResponse.SC_OK, responseBody);
+        return true;
+    }
+
     /**
      * Handle cancel bill
      */
@@ -277,18 +636,7 @@ public class BillController extends BaseServlet {
         }
 
         try {
-            Bill bill = billOpt.get();
-            byte[] pdfBytes = pdfBillService.generateBillPdf(bill);
-
-            // Set response headers for PDF
-            response.setContentType("application/pdf");
-            response.setHeader("Content-Disposition", "inline; filename=\"bill-" + bill.getBillNumber() + ".pdf\"");
-            response.setContentLength(pdfBytes.length);
-
-            // Write PDF to response
-            response.getOutputStream().write(pdfBytes);
-            response.getOutputStream().flush();
-
+            sendBillPdf(response, billOpt.get());
         } catch (ServiceException e) {
             logger.error("Error generating PDF for bill: {}", billId, e);
             ResponseUtil.sendInternalServerErrorResponse(response, "Failed to generate PDF: " + e.getMessage());
@@ -309,21 +657,150 @@ public class BillController extends BaseServlet {
         }
 
         try {
-            Bill bill = billOpt.get();
-            byte[] pdfBytes = pdfBillService.generateBillPdf(bill);
+            sendBillPdf(response, billOpt.get());
+        } catch (ServiceException e) {
+            logger.error("Error generating PDF for bill number: {}", billNumber, e);
+            ResponseUtil.sendInternalServerErrorResponse(response, "Failed to generate PDF: " + e.getMessage());
+        }
+    }
 
+    /**
+     * Handle get ZIP archive of bill PDFs for a date range
+     */
+    private void handleGetBillPdfArchive(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (!requireAnyRole(request, response, User.UserRole.ADMIN, User.UserRole.MANAGER)) {
+            return;
+        }
+
+        String startDateStr = request.getParameter("start");
+        String endDateStr = request.getParameter("end");
+
+        if (startDateStr == null || endDateStr == null) {
+            ResponseUtil.sendBadRequestResponse(response, "Start date and end date are required");
+            return;
+        }
+
+        LocalDate startDate = ValidationUtil.parseDate(startDateStr);
+        LocalDate endDate = ValidationUtil.parseDate(endDateStr);
+
+        if (startDate == null || endDate == null) {
+            ResponseUtil.sendBadRequestResponse(response, "Invalid date format. Use yyyy-MM-dd");
+            return;
+        }
+
+        if (startDate.isAfter(endDate)) {
+            ResponseUtil.sendBadRequestResponse(response, "Start date cannot be after end date");
+            return;
+        }
+
+        response.setContentType("application/zip");
+        response.setHeader("Content-Disposition",
+            "attachment; filename=\"bills-" + startDate + "-to-" + endDate + ".zip\"");
+
+        try {
+            billPdfArchiveService.writeArchive(startDate, endDate, response.getOutputStream());
+            response.getOutputStream().flush();
+        } catch (ServiceException | IOException e) {
+            logger.error("Error writing bill PDF archive: {} to {}", startDate, endDate, e);
+            if (response.isCommitted()) {
+                // Part of the archive has been sent, so no error body can follow; abort the
+                // connection as for exports
+                throw new IOException("Bill PDF archive aborted after the response was committed", e);
+            }
+            response.reset();
+            ResponseUtil.sendInternalServerErrorResponse(response, "Failed to create bill PDF archive");
+        }
+    }
+
+    /**
+     * Handle streamed CSV/NDJSON export of bills for a date range
+     */
+    private void handleExportBills(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (!requireAnyRole(request, response, User.UserRole.ADMIN, User.UserRole.MANAGER)) {
+            return;
+        }
+
+        String startDateStr = request.getParameter("start");
+        String endDateStr = request.getParameter("end");
+
+        if (startDateStr == null || endDateStr == null) {
+            ResponseUtil.sendBadRequestResponse(response, "Start date and end date are required");
+            return;
+        }
+
+        LocalDate startDate = ValidationUtil.parseDate(startDateStr);
+        LocalDate endDate = ValidationUtil.parseDate(endDateStr);
+
+        if (startDate == null || endDate == null) {
+            ResponseUtil.sendBadRequestResponse(response, "Invalid date format. Use yyyy-MM-dd");
+            return;
+        }
+
+        if (startDate.isAfter(endDate)) {
+            ResponseUtil.sendBadRequestResponse(response, "Start date cannot be after end date");
+            return;
+        }
+
+        BillExportService.Format format;
+        List<String> columns;
+        try {
+            format = BillExportService.Format.fromString(request.getParameter("format"));
+            columns = BillExportService.parseColumns(request.getParameter("columns"));
+        } catch (IllegalArgumentException e) {
+            ResponseUtil.sendBadRequestResponse(response, e.getMessage());
+            return;
+        }
+        boolean gzip = "true".equalsIgnoreCase(request.getParameter("gzip"));
+
+        String fileName = "bills-" + startDate + "-to-" + endDate + "." + format.getExtension();
+        if (gzip) {
+            response.setContentType("application/gzip");
+            fileName += ".gz";
+        } else {
+            response.setContentType(format.getContentType());
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+
+        try {
+            OutputStream out = response.getOutputStream();
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                billExportService.writeExport(startDate, endDate, format, columns, gzipOut);
+                gzipOut.finish();
+            } else {
+                billExportService.writeExport(startDate, endDate, format, columns, out);
+            }
+            out.flush();
+        } catch (ServiceException | IOException e) {
+            logger.error("Error writing bill export: {} to {}", startDate, endDate, e);
+            if (response.isCommitted()) {
+                // Rows have already been sent, so no error body can follow. Failing the request
+                // makes the container abort the connection instead of ending the response
+                // normally, so the client sees a failed download rather than a short file.
+                throw new IOException("Bill export aborted after the response was committed", e);
+            }
+            response.reset();
+            ResponseUtil.sendInternalServerErrorResponse(response, "Failed to export bills");
+        }
+    }
+
+    /**
+     * Write a bill PDF to the response. The PDF is resolved (rendered if needed) before any
+     * output is committed, so a render failure can still be reported as a JSON error; spilled
+     * PDFs are then copied from disk through a small buffer instead of being read into memory.
+     */
+    private void sendBillPdf(HttpServletResponse response, Bill bill) throws IOException, ServiceException {
+        try (BillPdfCache.PdfSource pdf = billPdfCache.open(bill, pdfBillService)) {
             // Set response headers for PDF
             response.setContentType("application/pdf");
             response.setHeader("Content-Disposition", "inline; filename=\"bill-" + bill.getBillNumber() + ".pdf\"");
-            response.setContentLength(pdfBytes.length);
+            response.setContentLengthLong(pdf.getSize());
 
             // Write PDF to response
-            response.getOutputStream().write(pdfBytes);
-            response.getOutputStream().flush();
-
-        } catch (ServiceException e) {
-            logger.error("Error generating PDF for bill number: {}", billNumber, e);
-            ResponseUtil.sendInternalServerErrorResponse(response, "Failed to generate PDF: " + e.getMessage());
+            OutputStream out = response.getOutputStream();
+            pdf.writeTo(out);
+            out.flush();
         }
     }
 }
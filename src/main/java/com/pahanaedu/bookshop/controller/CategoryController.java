@@ -1,5 +1,6 @@
 package com.pahanaedu.bookshop.controller;
 
+import com.pahanaedu.bookshop.dao.TableVersionDAO;
 import com.pahanaedu.bookshop.model.Category;
 import com.pahanaedu.bookshop.model.User;
 import com.pahanaedu.bookshop.service.CategoryService;
@@ -113,6 +114,10 @@ public class CategoryController extends BaseServlet {
      * Handle get categories with pagination
      */
     private void handleGetCategories(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (checkListNotModified(request, response, TableVersionDAO.Table.CATEGORIES)) {
+            return;
+        }
+
         Map<String, Integer> paginationParams = getPaginationParams(request);
         int page = paginationParams.get("page");
         int pageSize = paginationParams.get("pageSize");
@@ -127,6 +132,10 @@ public class CategoryController extends BaseServlet {
      * Handle get active categories
      */
     private void handleGetActiveCategories(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (checkListNotModified(request, response, TableVersionDAO.Table.CATEGORIES)) {
+            return;
+        }
+
         List<Category> categories = categoryService.getActiveCategories();
         ResponseUtil.sendSuccessResponse(response, categories);
     }
@@ -140,7 +149,11 @@ public class CategoryController extends BaseServlet {
 
         Optional<Category> categoryOpt = categoryService.getCategoryById(categoryId);
         if (categoryOpt.isPresent()) {
-            ResponseUtil.sendSuccessResponse(response, categoryOpt.get());
+            Category category = categoryOpt.get();
+            if (checkNotModified(request, response, "category", category.getCategoryId(), category.getUpdatedAt())) {
+                return;
+            }
+            ResponseUtil.sendSuccessResponse(response, category);
         } else {
             ResponseUtil.sendNotFoundResponse(response, "Category not found");
         }
@@ -1,5 +1,6 @@
 package com.pahanaedu.bookshop.controller;
 
+import com.pahanaedu.bookshop.dao.TableVersionDAO;
 import com.pahanaedu.bookshop.model.Customer;
 import com.pahanaedu.bookshop.model.User;
 import com.pahanaedu.bookshop.service.CustomerService;
@@ -118,6 +119,10 @@ public class CustomerController extends BaseServlet {
      * Handle get customers with pagination
      */
     private void handleGetCustomers(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (checkListNotModified(request, response, TableVersionDAO.Table.CUSTOMERS)) {
+            return;
+        }
+
         Map<String, Integer> paginationParams = getPaginationParams(request);
         int page = paginationParams.get("page");
         int pageSize = paginationParams.get("pageSize");
@@ -138,6 +143,10 @@ public class CustomerController extends BaseServlet {
             return;
         }
 
+        if (checkListNotModified(request, response, TableVersionDAO.Table.CUSTOMERS)) {
+            return;
+        }
+
         Map<String, Integer> paginationParams = getPaginationParams(request);
         int page = paginationParams.get("page");
         int pageSize = paginationParams.get("pageSize");
@@ -160,7 +169,11 @@ public class CustomerController extends BaseServlet {
 
         Optional<Customer> customerOpt = customerService.getCustomerById(customerId);
         if (customerOpt.isPresent()) {
-            ResponseUtil.sendSuccessResponse(response, customerOpt.get());
+            Customer customer = customerOpt.get();
+            if (checkNotModified(request, response, "customer", customer.getCustomerId(), customer.getUpdatedAt())) {
+                return;
+            }
+            ResponseUtil.sendSuccessResponse(response, customer);
         } else {
             ResponseUtil.sendNotFoundResponse(response, "Customer not found");
         }
@@ -175,7 +188,11 @@ public class CustomerController extends BaseServlet {
 
         Optional<Customer> customerOpt = customerService.getCustomerByAccountNo(accountNo);
         if (customerOpt.isPresent()) {
-            ResponseUtil.sendSuccessResponse(response, customerOpt.get());
+            Customer customer = customerOpt.get();
+            if (checkNotModified(request, response, "customer", customer.getCustomerId(), customer.getUpdatedAt())) {
+                return;
+            }
+            ResponseUtil.sendSuccessResponse(response, customer);
         } else {
             ResponseUtil.sendNotFoundResponse(response, "Customer not found");
         }
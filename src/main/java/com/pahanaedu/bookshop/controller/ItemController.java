@@ -1,5 +1,7 @@
 package com.pahanaedu.bookshop.controller;
 
+import com.pahanaedu.bookshop.dao.TableVersionDAO;
+import com.pahanaedu.bookshop.model.CursorPage;
 import com.pahanaedu.bookshop.model.Item;
 import com.pahanaedu.bookshop.model.User;
 import com.pahanaedu.bookshop.service.ItemService;
@@ -12,7 +14,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -43,16 +47,22 @@ public class ItemController extends BaseServlet {
                 handleGetItems(request, response);
             } else if (pathInfo.equals("/search")) {
                 handleSearchItems(request, response);
+            } else if (pathInfo.equals("/suggest")) {
+                handleSuggestItems(request, response);
             } else if (pathInfo.equals("/low-stock")) {
                 handleGetLowStockItems(request, response);
             } else if (pathInfo.startsWith("/generate-code/")) {
                 handleGenerateItemCode(request, response);
+            } else if (pathInfo.equals("/category-counts")) {
+                handleGetCategoryCounts(request, response);
             } else if (pathInfo.startsWith("/category/")) {
                 handleGetItemsByCategory(request, response);
             } else if (pathInfo.startsWith("/code/")) {
                 handleGetItemByCode(request, response);
             } else if (pathInfo.startsWith("/barcode/")) {
                 handleGetItemByBarcode(request, response);
+            } else if (pathInfo.startsWith("/scan/")) {
+                handleScanItem(request, response);
             } else if (pathInfo.matches("/\\d+")) {
                 handleGetItem(request, response);
             } else {
@@ -83,6 +93,12 @@ public class ItemController extends BaseServlet {
             } catch (Exception e) {
                 handleException(response, e, "Failed to adjust stock");
             }
+        } else if (pathInfo.equals("/stocktake")) {
+            try {
+                handleStocktake(request, response);
+            } catch (Exception e) {
+                handleException(response, e, "Failed to apply stocktake");
+            }
         } else {
             ResponseUtil.sendNotFoundResponse(response, "Endpoint not found");
         }
@@ -130,6 +146,10 @@ public class ItemController extends BaseServlet {
      * Handle get items with pagination
      */
     private void handleGetItems(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (checkListNotModified(request, response, TableVersionDAO.Table.ITEMS, TableVersionDAO.Table.CATEGORIES)) {
+            return;
+        }
+
         Map<String, Integer> paginationParams = getPaginationParams(request);
         int page = paginationParams.get("page");
         int pageSize = paginationParams.get("pageSize");
@@ -150,6 +170,10 @@ public class ItemController extends BaseServlet {
             return;
         }
 
+        if (checkListNotModified(request, response, TableVersionDAO.Table.ITEMS, TableVersionDAO.Table.CATEGORIES)) {
+            return;
+        }
+
         Map<String, Integer> paginationParams = getPaginationParams(request);
         int page = paginationParams.get("page");
         int pageSize = paginationParams.get("pageSize");
@@ -163,10 +187,39 @@ public class ItemController extends BaseServlet {
         ResponseUtil.sendSuccessResponse(response, responseData);
     }
 
+    /**
+     * Handle typeahead suggestions for the POS search box
+     */
+    private void handleSuggestItems(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        String prefix = request.getParameter("prefix");
+        if (prefix == null || prefix.trim().isEmpty()) {
+            ResponseUtil.sendBadRequestResponse(response, "Prefix is required");
+            return;
+        }
+        int limit = Math.max(1, Math.min(parseIntParam(request, "limit", 10), 50));
+
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (Item item : itemService.suggestItems(prefix, limit)) {
+            Map<String, Object> suggestion = new LinkedHashMap<>();
+            suggestion.put("itemId", item.getItemId());
+            suggestion.put("itemCode", item.getItemCode());
+            suggestion.put("itemName", item.getItemName());
+            suggestion.put("author", item.getAuthor());
+            suggestion.put("isbn", item.getIsbn());
+            suggestion.put("price", item.getPrice());
+            suggestions.add(suggestion);
+        }
+        ResponseUtil.sendSuccessResponse(response, suggestions);
+    }
+
     /**
      * Handle get low stock items
      */
     private void handleGetLowStockItems(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (checkListNotModified(request, response, TableVersionDAO.Table.ITEMS, TableVersionDAO.Table.CATEGORIES)) {
+            return;
+        }
+
         List<Item> items = itemService.getLowStockItems();
         ResponseUtil.sendSuccessResponse(response, items);
     }
@@ -180,7 +233,11 @@ public class ItemController extends BaseServlet {
 
         Optional<Item> itemOpt = itemService.getItemById(itemId);
         if (itemOpt.isPresent()) {
-            ResponseUtil.sendSuccessResponse(response, itemOpt.get());
+            Item item = itemOpt.get();
+            if (checkNotModified(request, response, "item", item.getItemId(), item.getUpdatedAt())) {
+                return;
+            }
+            ResponseUtil.sendSuccessResponse(response, item);
         } else {
             ResponseUtil.sendNotFoundResponse(response, "Item not found");
         }
@@ -195,7 +252,11 @@ public class ItemController extends BaseServlet {
 
         Optional<Item> itemOpt = itemService.getItemByCode(itemCode);
         if (itemOpt.isPresent()) {
-            ResponseUtil.sendSuccessResponse(response, itemOpt.get());
+            Item item = itemOpt.get();
+            if (checkNotModified(request, response, "item", item.getItemId(), item.getUpdatedAt())) {
+                return;
+            }
+            ResponseUtil.sendSuccessResponse(response, item);
         } else {
             ResponseUtil.sendNotFoundResponse(response, "Item not found");
         }
@@ -210,7 +271,25 @@ public class ItemController extends BaseServlet {
 
         Optional<Item> itemOpt = itemService.getItemByBarcode(barcode);
         if (itemOpt.isPresent()) {
-            ResponseUtil.sendSuccessResponse(response, itemOpt.get());
+            Item item = itemOpt.get();
+            if (checkNotModified(request, response, "item", item.getItemId(), item.getUpdatedAt())) {
+                return;
+            }
+            ResponseUtil.sendSuccessResponse(response, item);
+        } else {
+            ResponseUtil.sendNotFoundResponse(response, "Item not found");
+        }
+    }
+
+    /**
+     * Handle POS barcode scan, returning only the fields a till needs
+     */
+    private void handleScanItem(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        String barcode = request.getPathInfo().substring("/scan/".length());
+
+        Optional<byte[]> scanJson = itemService.getItemScanJson(barcode);
+        if (scanJson.isPresent()) {
+            ResponseUtil.sendSuccessJsonBytes(response, scanJson.get());
         } else {
             ResponseUtil.sendNotFoundResponse(response, "Item not found");
         }
@@ -220,13 +299,50 @@ public class ItemController extends BaseServlet {
      * Handle get items by category
      */
     private void handleGetItemsByCategory(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (checkListNotModified(request, response, TableVersionDAO.Table.ITEMS, TableVersionDAO.Table.CATEGORIES)) {
+            return;
+        }
+
         String pathInfo = request.getPathInfo();
         Integer categoryId = Integer.parseInt(pathInfo.substring("/category/".length()));
 
+        // ?sort= or ?cursor= selects the paginated browse; otherwise the full list as before
+        String sort = request.getParameter("sort");
+        String cursor = request.getParameter("cursor");
+        if (sort != null || cursor != null) {
+            int pageSize = getPaginationParams(request).get("pageSize");
+            CursorPage<Item> itemPage;
+            try {
+                itemPage = itemService.browseCategory(categoryId, sort, cursor, pageSize);
+            } catch (ServiceException e) {
+                if (e.getMessage().contains("Validation failed")) {
+                    ResponseUtil.sendBadRequestResponse(response, e.getMessage().contains("sort")
+                        ? "Invalid sort, expected name, price, newest or bestselling" : "Invalid cursor");
+                    return;
+                }
+                throw e;
+            }
+            long totalItems = itemService.getItemCountByCategory(categoryId);
+            ResponseUtil.sendCursorPaginatedResponse(response, itemPage.getItems(), pageSize,
+                                                     itemPage.getNextCursor(), totalItems);
+            return;
+        }
+
         List<Item> items = itemService.getItemsByCategory(categoryId);
         ResponseUtil.sendSuccessResponse(response, items);
     }
 
+    /**
+     * Handle get active item counts per category
+     */
+    private void handleGetCategoryCounts(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        if (checkListNotModified(request, response, TableVersionDAO.Table.ITEMS)) {
+            return;
+        }
+
+        ResponseUtil.sendSuccessResponse(response, itemService.getItemCountsByCategory());
+    }
+
     /**
      * Handle generate item code
      */
@@ -334,6 +450,59 @@ public class ItemController extends BaseServlet {
         }
     }
 
+    /**
+     * Handle stocktake (bulk stock count)
+     */
+    private void handleStocktake(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        String requestBody = readRequestBody(request);
+        
+        try {
+            Map<String, Object> stocktakeData = ResponseUtil.parseJsonRequest(requestBody, Map.class);
+            
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> counts = (List<Map<String, Object>>) stocktakeData.get("counts");
+            if (counts == null || counts.isEmpty()) {
+                ResponseUtil.sendBadRequestResponse(response, "At least one item count is required");
+                return;
+            }
+            
+            Map<Integer, Integer> countedQuantities = new LinkedHashMap<>();
+            for (Map<String, Object> count : counts) {
+                Object itemId = count.get("itemId");
+                Object newQuantity = count.get("newQuantity");
+                if (!(itemId instanceof Number) || !(newQuantity instanceof Number) ||
+                    ((Number) newQuantity).intValue() < 0) {
+                    ResponseUtil.sendBadRequestResponse(response, "Each count needs a valid itemId and newQuantity");
+                    return;
+                }
+                countedQuantities.put(((Number) itemId).intValue(), ((Number) newQuantity).intValue());
+            }
+            
+            String reason = (String) stocktakeData.get("reason");
+            if (reason == null || reason.trim().isEmpty()) {
+                reason = "Stocktake";
+            }
+            
+            Integer adjustedBy = getCurrentUserId(request);
+            int changed = itemService.applyStocktake(countedQuantities, reason, adjustedBy);
+            
+            Map<String, Object> responseData = new HashMap<>();
+            responseData.put("itemsCounted", countedQuantities.size());
+            responseData.put("itemsAdjusted", changed);
+            
+            ResponseUtil.sendSuccessResponse(response, responseData, "Stocktake applied successfully");
+            
+        } catch (IOException e) {
+            ResponseUtil.sendBadRequestResponse(response, "Invalid JSON format");
+        } catch (ServiceException e) {
+            if (e.getMessage().contains("not found")) {
+                ResponseUtil.sendBadRequestResponse(response, e.getMessage());
+            } else {
+                throw e;
+            }
+        }
+    }
+
     /**
      * Handle delete item
      */
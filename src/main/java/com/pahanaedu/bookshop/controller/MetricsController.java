@@ -0,0 +1,64 @@
+package com.pahanaedu.bookshop.controller;
+
+import com.pahanaedu.bookshop.event.BillEventBus;
+import com.pahanaedu.bookshop.model.User;
+import com.pahanaedu.bookshop.service.BillCountService;
+import com.pahanaedu.bookshop.service.BillIdempotencyService;
+import com.pahanaedu.bookshop.service.BillLookupCache;
+import com.pahanaedu.bookshop.service.BillPdfCache;
+import com.pahanaedu.bookshop.service.ItemCatalog;
+import com.pahanaedu.bookshop.util.DatabaseUtil;
+import com.pahanaedu.bookshop.util.ResponseUtil;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controller exposing runtime metrics to administrators
+ */
+@WebServlet(name = "MetricsController", urlPatterns = {"/api/metrics/*"})
+public class MetricsController extends BaseServlet {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsController.class);
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!requireRole(request, response, User.UserRole.ADMIN)) {
+            return;
+        }
+
+        String pathInfo = request.getPathInfo();
+
+        try {
+            if (pathInfo == null || pathInfo.equals("/")) {
+                handleGetMetrics(response);
+            } else {
+                ResponseUtil.sendNotFoundResponse(response, "Endpoint not found");
+            }
+        } catch (Exception e) {
+            handleException(response, e, "Failed to retrieve metrics");
+        }
+    }
+
+    /**
+     * Handle get metrics
+     */
+    private void handleGetMetrics(HttpServletResponse response) throws IOException {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("billEvents", BillEventBus.getInstance().getMetrics());
+        metrics.put("idempotencyCache", BillIdempotencyService.getInstance().getCacheStats());
+        metrics.put("pdfCache", BillPdfCache.getInstance().getStats());
+        metrics.put("billCounts", BillCountService.getInstance().getStats());
+        metrics.put("billLookupCache", BillLookupCache.getInstance().getStats());
+        metrics.put("itemCatalog", ItemCatalog.getInstance().getStats());
+        metrics.put("connectionPool", DatabaseUtil.getPoolStats());
+
+        logger.debug("Metrics requested");
+        ResponseUtil.sendSuccessResponse(response, metrics);
+    }
+}
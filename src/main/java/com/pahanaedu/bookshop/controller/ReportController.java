@@ -0,0 +1,150 @@
+package com.pahanaedu.bookshop.controller;
+
+import com.pahanaedu.bookshop.dao.DailySalesDAO;
+import com.pahanaedu.bookshop.model.SalesSummary;
+import com.pahanaedu.bookshop.model.User;
+import com.pahanaedu.bookshop.service.SalesReportService;
+import com.pahanaedu.bookshop.service.ServiceException;
+import com.pahanaedu.bookshop.util.ResponseUtil;
+import com.pahanaedu.bookshop.util.ValidationUtil;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for sales reports, served from pre-aggregated rollups
+ */
+@WebServlet(name = "ReportController", urlPatterns = {"/api/reports/*"})
+public class ReportController extends BaseServlet {
+    private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
+
+    private final SalesReportService salesReportService;
+
+    public ReportController() {
+        this.salesReportService = SalesReportService.getInstance();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!requireAnyRole(request, response, User.UserRole.ADMIN, User.UserRole.MANAGER)) {
+            return;
+        }
+
+        String pathInfo = request.getPathInfo();
+
+        try {
+            if ("/sales".equals(pathInfo)) {
+                handleGetSales(request, response);
+            } else if ("/sales/rebuild".equals(pathInfo)) {
+                ResponseUtil.sendSuccessResponse(response, salesReportService.getRebuildStatus());
+            } else {
+                ResponseUtil.sendNotFoundResponse(response, "Endpoint not found");
+            }
+        } catch (Exception e) {
+            handleException(response, e, "Failed to retrieve report");
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!requireRole(request, response, User.UserRole.ADMIN)) {
+            return;
+        }
+
+        String pathInfo = request.getPathInfo();
+
+        if ("/sales/rebuild".equals(pathInfo)) {
+            try {
+                handleRebuildSales(request, response);
+            } catch (Exception e) {
+                handleException(response, e, "Failed to start sales rebuild");
+            }
+        } else {
+            ResponseUtil.sendNotFoundResponse(response, "Endpoint not found");
+        }
+    }
+
+    /**
+     * Handle get sales totals per day or month
+     */
+    private void handleGetSales(HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+        DailySalesDAO.Granularity granularity;
+        String granularityStr = request.getParameter("granularity");
+        if (granularityStr == null || granularityStr.equalsIgnoreCase("day")) {
+            granularity = DailySalesDAO.Granularity.DAY;
+        } else if (granularityStr.equalsIgnoreCase("month")) {
+            granularity = DailySalesDAO.Granularity.MONTH;
+        } else {
+            ResponseUtil.sendBadRequestResponse(response, "Granularity must be day or month");
+            return;
+        }
+
+        String startDateStr = request.getParameter("start");
+        String endDateStr = request.getParameter("end");
+
+        if (startDateStr == null || endDateStr == null) {
+            ResponseUtil.sendBadRequestResponse(response, "Start date and end date are required");
+            return;
+        }
+
+        LocalDate startDate = ValidationUtil.parseDate(startDateStr);
+        LocalDate endDate = ValidationUtil.parseDate(endDateStr);
+
+        if (startDate == null || endDate == null) {
+            ResponseUtil.sendBadRequestResponse(response, "Invalid date format. Use yyyy-MM-dd");
+            return;
+        }
+
+        if (startDate.isAfter(endDate)) {
+            ResponseUtil.sendBadRequestResponse(response, "Start date cannot be after end date");
+            return;
+        }
+
+        boolean byCategory = "category".equalsIgnoreCase(request.getParameter("groupBy"));
+        List<SalesSummary> sales = salesReportService.getSales(granularity, byCategory, startDate, endDate);
+
+        Map<String, Object> responseData = new HashMap<>();
+        responseData.put("sales", sales);
+        responseData.put("granularity", granularity.name().toLowerCase());
+        responseData.put("startDate", startDate);
+        responseData.put("endDate", endDate);
+
+        ResponseUtil.sendSuccessResponse(response, responseData);
+    }
+
+    /**
+     * Handle start of a background rebuild of the sales rollup
+     */
+    private void handleRebuildSales(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String startDateStr = request.getParameter("start");
+        String endDateStr = request.getParameter("end");
+        LocalDate startDate = startDateStr != null ? ValidationUtil.parseDate(startDateStr) : null;
+        LocalDate endDate = endDateStr != null ? ValidationUtil.parseDate(endDateStr) : null;
+
+        if ((startDateStr != null && startDate == null) || (endDateStr != null && endDate == null)) {
+            ResponseUtil.sendBadRequestResponse(response, "Invalid date format. Use yyyy-MM-dd");
+            return;
+        }
+
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            ResponseUtil.sendBadRequestResponse(response, "Start date cannot be after end date");
+            return;
+        }
+
+        if (!salesReportService.startRebuild(startDate, endDate)) {
+            ResponseUtil.sendErrorResponse(response, HttpServletResponse.SC_CONFLICT, "A sales rebuild is already running");
+            return;
+        }
+
+        logger.info("Sales rollup rebuild started by user {}: {} to {}", getCurrentUserId(request), startDate, endDate);
+        ResponseUtil.sendSuccessResponse(response, salesReportService.getRebuildStatus(), "Sales rebuild started");
+    }
+}
@@ -0,0 +1,68 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.model.Bill;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in bill listings ordered by (created_at DESC, bill_id DESC).
+ * Clients see it only as an opaque continuation token.
+ */
+public final class BillCursor {
+    private final LocalDateTime createdAt;
+    private final int billId;
+
+    private BillCursor(LocalDateTime createdAt, int billId) {
+        this.createdAt = createdAt;
+        this.billId = billId;
+    }
+
+    /**
+     * Create the cursor positioned after a bill
+     * @param bill Last bill of a page
+     * @return Cursor for the next page
+     */
+    public static BillCursor after(Bill bill) {
+        return new BillCursor(bill.getCreatedAt(), bill.getBillId());
+    }
+
+    /**
+     * Decode a continuation token
+     * @param token Token from a previous response
+     * @return Cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static BillCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new BillCursor(LocalDateTime.parse(value.substring(0, separator)),
+                                  Integer.parseInt(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Encode as an opaque, URL-safe continuation token
+     * @return Token
+     */
+    public String encode() {
+        String value = createdAt + "|" + billId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getBillId() {
+        return billId;
+    }
+}
@@ -1,6 +1,7 @@
 package com.pahanaedu.bookshop.dao;
 
 import com.pahanaedu.bookshop.model.Bill;
+import com.pahanaedu.bookshop.model.BillItem;
 import com.pahanaedu.bookshop.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,7 +10,9 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -35,6 +38,9 @@ public class BillDAO implements BaseDAO<Bill, Integer> {
         WHERE bill_id = ?
         """;
 
+    private static final String CANCEL_SQL =
+        "UPDATE bills SET status = 'cancelled', updated_at = ? WHERE bill_id = ? AND status = 'active'";
+
     private static final String DELETE_SQL = "DELETE FROM bills WHERE bill_id = ?";
 
     private static final String FIND_BY_ID_SQL = """
@@ -63,6 +69,11 @@ public class BillDAO implements BaseDAO<Bill, Integer> {
 
     private static final String COUNT_SQL = "SELECT COUNT(*) FROM bills";
 
+    private static final String COUNT_BY_STATUS_SQL = "SELECT status, COUNT(*) FROM bills GROUP BY status";
+
+    private static final String COUNT_BY_CUSTOMER_SQL =
+        "SELECT status, COUNT(*) FROM bills WHERE customer_id = ? GROUP BY status";
+
     private static final String EXISTS_SQL = "SELECT 1 FROM bills WHERE bill_id = ?";
 
     private static final String FIND_BY_NUMBER_SQL = FIND_BY_ID_SQL.replace("b.bill_id = ?", "b.bill_number = ?");
@@ -93,6 +104,53 @@ public class BillDAO implements BaseDAO<Bill, Integer> {
         LIMIT ? OFFSET ?
         """;
 
+    // Keyset paging on (created_at, bill_id); constant cost per page however deep
+    private static final String KEYSET_ORDER = "ORDER BY b.created_at DESC, b.bill_id DESC LIMIT ?";
+
+    private static final String KEYSET_AFTER = "(b.created_at < ? OR (b.created_at = ? AND b.bill_id < ?))";
+
+    private static final String FIND_ALL_KEYSET_FIRST_SQL = FIND_ALL_SQL
+        .replace("ORDER BY b.created_at DESC", KEYSET_ORDER);
+
+    private static final String FIND_ALL_KEYSET_SQL = FIND_ALL_SQL
+        .replace("ORDER BY b.created_at DESC", "WHERE " + KEYSET_AFTER + "\n" + KEYSET_ORDER);
+
+    private static final String FIND_BY_CUSTOMER_KEYSET_FIRST_SQL = FIND_BY_CUSTOMER_SQL
+        .replace("LIMIT ? OFFSET ?", "")
+        .replace("ORDER BY b.created_at DESC", KEYSET_ORDER);
+
+    private static final String FIND_BY_CUSTOMER_KEYSET_SQL = FIND_BY_CUSTOMER_SQL
+        .replace("LIMIT ? OFFSET ?", "")
+        .replace("ORDER BY b.created_at DESC", "AND " + KEYSET_AFTER + "\n" + KEYSET_ORDER);
+
+    private static final String FIND_BY_DATE_RANGE_KEYSET_FIRST_SQL = FIND_BY_DATE_RANGE_SQL
+        .replace("LIMIT ? OFFSET ?", "")
+        .replace("ORDER BY b.bill_date DESC, b.bill_time DESC", KEYSET_ORDER);
+
+    private static final String FIND_BY_DATE_RANGE_KEYSET_SQL = FIND_BY_DATE_RANGE_SQL
+        .replace("LIMIT ? OFFSET ?", "")
+        .replace("ORDER BY b.bill_date DESC, b.bill_time DESC", "AND " + KEYSET_AFTER + "\n" + KEYSET_ORDER);
+
+    private static final String FIND_WITH_ITEMS_BY_ID_SQL = """
+        SELECT b.bill_id, b.bill_number, b.customer_id, c.full_name as customer_name, 
+               c.account_no as customer_account_no, b.bill_date, b.bill_time, b.subtotal, 
+               b.discount_percentage, b.discount_amount, b.tax_percentage, b.tax_amount, 
+               b.total_amount, b.payment_method, b.payment_status, b.notes, b.status, 
+               b.created_at, b.updated_at, b.created_by,
+               bi.bill_item_id, bi.item_id, bi.category_id as item_category_id, i.item_code, i.item_name, bi.quantity, bi.unit_price,
+               bi.discount_percentage as item_discount_percentage,
+               bi.discount_amount as item_discount_amount, bi.line_total,
+               bi.created_at as item_created_at
+        FROM bills b
+        LEFT JOIN customers c ON b.customer_id = c.customer_id
+        LEFT JOIN bill_items bi ON bi.bill_id = b.bill_id
+        LEFT JOIN items i ON bi.item_id = i.item_id
+        WHERE b.bill_id = ?
+        ORDER BY bi.bill_item_id
+        """;
+
+    private static final String FIND_WITH_ITEMS_BY_NUMBER_SQL = FIND_WITH_ITEMS_BY_ID_SQL.replace("b.bill_id = ?", "b.bill_number = ?");
+
     @Override
     public Bill save(Bill bill) throws DAOException {
         try (Connection conn = DatabaseUtil.getConnection();
@@ -101,24 +159,7 @@ public class BillDAO implements BaseDAO<Bill, Integer> {
             LocalDateTime now = LocalDateTime.now();
             bill.setCreatedAt(now);
             bill.setUpdatedAt(now);
-
-            stmt.setString(1, bill.getBillNumber());
-            stmt.setInt(2, bill.getCustomerId());
-            stmt.setDate(3, Date.valueOf(bill.getBillDate()));
-            stmt.setTime(4, Time.valueOf(bill.getBillTime()));
-            stmt.setBigDecimal(5, bill.getSubtotal());
-            stmt.setBigDecimal(6, bill.getDiscountPercentage());
-            stmt.setBigDecimal(7, bill.getDiscountAmount());
-            stmt.setBigDecimal(8, bill.getTaxPercentage());
-            stmt.setBigDecimal(9, bill.getTaxAmount());
-            stmt.setBigDecimal(10, bill.getTotalAmount());
-            stmt.setString(11, bill.getPaymentMethod().getValue());
-            stmt.setString(12, bill.getPaymentStatus().getValue());
-            stmt.setString(13, bill.getNotes());
-            stmt.setString(14, bill.getStatus().getValue());
-            stmt.setObject(15, bill.getCreatedBy());
-            stmt.setTimestamp(16, Timestamp.valueOf(bill.getCreatedAt()));
-            stmt.setTimestamp(17, Timestamp.valueOf(bill.getUpdatedAt()));
+            setInsertParameters(stmt, bill);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -142,6 +183,69 @@ public class BillDAO implements BaseDAO<Bill, Integer> {
         }
     }
 
+    /**
+     * Save multiple bills in one batch (sent as a multi-row insert by the driver).
+     * Generated IDs are set on the bills in order.
+     * @param bills Bills to save
+     * @throws DAOException if database operation fails
+     */
+    public void saveBatch(List<Bill> bills) throws DAOException {
+        if (bills == null || bills.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            LocalDateTime now = LocalDateTime.now();
+            for (Bill bill : bills) {
+                bill.setCreatedAt(now);
+                bill.setUpdatedAt(now);
+                setInsertParameters(stmt, bill);
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                int index = 0;
+                while (generatedKeys.next() && index < bills.size()) {
+                    bills.get(index).setBillId(generatedKeys.getInt(1));
+                    index++;
+                }
+                if (index < bills.size()) {
+                    throw new DAOException("Creating bills failed, only " + index + " of " + bills.size() + " IDs obtained");
+                }
+            }
+
+            logger.info("Batch saved {} bills", bills.size());
+
+        } catch (SQLException e) {
+            logger.error("Error batch saving {} bills", bills.size(), e);
+            throw new DAOException("Failed to batch save bills", e);
+        }
+    }
+
+    private void setInsertParameters(PreparedStatement stmt, Bill bill) throws SQLException {
+        stmt.setString(1, bill.getBillNumber());
+        stmt.setInt(2, bill.getCustomerId());
+        stmt.setDate(3, Date.valueOf(bill.getBillDate()));
+        stmt.setTime(4, Time.valueOf(bill.getBillTime()));
+        stmt.setBigDecimal(5, bill.getSubtotal());
+        stmt.setBigDecimal(6, bill.getDiscountPercentage());
+        stmt.setBigDecimal(7, bill.getDiscountAmount());
+        stmt.setBigDecimal(8, bill.getTaxPercentage());
+        stmt.setBigDecimal(9, bill.getTaxAmount());
+        stmt.setBigDecimal(10, bill.getTotalAmount());
+        stmt.setString(11, bill.getPaymentMethod().getValue());
+        stmt.setString(12, bill.getPaymentStatus().getValue());
+        stmt.setString(13, bill.getNotes());
+        stmt.setString(14, bill.getStatus().getValue());
+        stmt.setObject(15, bill.getCreatedBy());
+        stmt.setTimestamp(16, Timestamp.valueOf(bill.getCreatedAt()));
+        stmt.setTimestamp(17, Timestamp.valueOf(bill.getUpdatedAt()));
+    }
+
     @Override
     public Bill update(Bill bill) throws DAOException {
         try (Connection conn = DatabaseUtil.getConnection();
@@ -180,6 +284,27 @@ public class BillDAO implements BaseDAO<Bill, Integer> {
         }
     }
 
+    /**
+     * Cancel a bill if it is still active. The conditional update locks the bill row, so of two
+     * concurrent cancellations only one sees the bill change.
+     * @param billId Bill ID
+     * @return true if the bill was active and is now cancelled
+     * @throws DAOException if update operation fails
+     */
+    public boolean cancel(Integer billId) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(CANCEL_SQL)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(2, billId);
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            logger.error("Error cancelling bill: {}", billId, e);
+            throw new DAOException("Failed to cancel bill", e);
+        }
+    }
+
     @Override
     public boolean delete(Integer id) throws DAOException {
         try (Connection conn = DatabaseUtil.getConnection();
@@ -378,6 +503,226 @@ public class BillDAO implements BaseDAO<Bill, Integer> {
         }
     }
 
+    /**
+     * Count bills per status
+     * @return Bill count for each status present
+     * @throws DAOException if count operation fails
+     */
+    public Map<Bill.BillStatus, Long> countByStatus() throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_BY_STATUS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            Map<Bill.BillStatus, Long> counts = new EnumMap<>(Bill.BillStatus.class);
+            while (rs.next()) {
+                counts.put(Bill.BillStatus.fromString(rs.getString(1)), rs.getLong(2));
+            }
+            return counts;
+
+        } catch (SQLException e) {
+            logger.error("Error counting bills by status", e);
+            throw new DAOException("Failed to count bills by status", e);
+        }
+    }
+
+    /**
+     * Count bills of a customer per status
+     * @param customerId Customer ID
+     * @return Bill count per status (statuses without bills are absent)
+     * @throws DAOException if count operation fails
+     */
+    public Map<Bill.BillStatus, Long> countByCustomer(Integer customerId) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_BY_CUSTOMER_SQL)) {
+
+            stmt.setInt(1, customerId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                Map<Bill.BillStatus, Long> counts = new EnumMap<>(Bill.BillStatus.class);
+                while (rs.next()) {
+                    counts.put(Bill.BillStatus.fromString(rs.getString(1)), rs.getLong(2));
+                }
+                return counts;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error counting bills for customer: {}", customerId, e);
+            throw new DAOException("Failed to count bills by customer", e);
+        }
+    }
+
+    /**
+     * Find bills page by page using a keyset cursor
+     * @param cursor Position after the previous page, or null for the first page
+     * @param limit Maximum number of records
+     * @return Bills ordered by created_at, bill_id descending
+     * @throws DAOException if find operation fails
+     */
+    public List<Bill> findAllAfter(BillCursor cursor, int limit) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(cursor == null ? FIND_ALL_KEYSET_FIRST_SQL : FIND_ALL_KEYSET_SQL)) {
+
+            int index = setCursorParameters(stmt, 1, cursor);
+            stmt.setInt(index, limit);
+            return mapBills(stmt);
+
+        } catch (SQLException e) {
+            logger.error("Error finding bills after cursor", e);
+            throw new DAOException("Failed to find bills", e);
+        }
+    }
+
+    /**
+     * Find active bills of a customer page by page using a keyset cursor
+     * @param customerId Customer ID
+     * @param cursor Position after the previous page, or null for the first page
+     * @param limit Maximum number of records
+     * @return Bills ordered by created_at, bill_id descending
+     * @throws DAOException if find operation fails
+     */
+    public List<Bill> findByCustomerAfter(Integer customerId, BillCursor cursor, int limit) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(cursor == null ? FIND_BY_CUSTOMER_KEYSET_FIRST_SQL : FIND_BY_CUSTOMER_KEYSET_SQL)) {
+
+            stmt.setInt(1, customerId);
+            int index = setCursorParameters(stmt, 2, cursor);
+            stmt.setInt(index, limit);
+            return mapBills(stmt);
+
+        } catch (SQLException e) {
+            logger.error("Error finding bills by customer after cursor: {}", customerId, e);
+            throw new DAOException("Failed to find bills by customer", e);
+        }
+    }
+
+    /**
+     * Find active bills in a date range page by page using a keyset cursor
+     * @param startDate Start date
+     * @param endDate End date
+     * @param cursor Position after the previous page, or null for the first page
+     * @param limit Maximum number of records
+     * @return Bills ordered by created_at, bill_id descending
+     * @throws DAOException if find operation fails
+     */
+    public List<Bill> findByDateRangeAfter(LocalDate startDate, LocalDate endDate, BillCursor cursor, int limit) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(cursor == null ? FIND_BY_DATE_RANGE_KEYSET_FIRST_SQL : FIND_BY_DATE_RANGE_KEYSET_SQL)) {
+
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate));
+            int index = setCursorParameters(stmt, 3, cursor);
+            stmt.setInt(index, limit);
+            return mapBills(stmt);
+
+        } catch (SQLException e) {
+            logger.error("Error finding bills by date range after cursor: {} to {}", startDate, endDate, e);
+            throw new DAOException("Failed to find bills by date range", e);
+        }
+    }
+
+    /**
+     * Find a bill together with its items in a single query
+     * @param id Bill ID
+     * @return Optional containing the bill with items if found
+     * @throws DAOException if find operation fails
+     */
+    public Optional<Bill> findByIdWithItems(Integer id) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_WITH_ITEMS_BY_ID_SQL)) {
+
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return mapBillWithItems(rs);
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error finding bill with items by ID: {}", id, e);
+            throw new DAOException("Failed to find bill by ID", e);
+        }
+    }
+
+    /**
+     * Find a bill by number together with its items in a single query
+     * @param billNumber Bill number
+     * @return Optional containing the bill with items if found
+     * @throws DAOException if find operation fails
+     */
+    public Optional<Bill> findByNumberWithItems(String billNumber) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_WITH_ITEMS_BY_NUMBER_SQL)) {
+
+            stmt.setString(1, billNumber);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return mapBillWithItems(rs);
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error finding bill with items by number: {}", billNumber, e);
+            throw new DAOException("Failed to find bill by number", e);
+        }
+    }
+
+    /**
+     * Bind the keyset condition parameters, if there is a cursor
+     * @return Index of the next parameter
+     */
+    private int setCursorParameters(PreparedStatement stmt, int index, BillCursor cursor) throws SQLException {
+        if (cursor == null) {
+            return index;
+        }
+        Timestamp createdAt = Timestamp.valueOf(cursor.getCreatedAt());
+        stmt.setTimestamp(index, createdAt);
+        stmt.setTimestamp(index + 1, createdAt);
+        stmt.setInt(index + 2, cursor.getBillId());
+        return index + 3;
+    }
+
+    private List<Bill> mapBills(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            List<Bill> bills = new ArrayList<>();
+            while (rs.next()) {
+                bills.add(mapResultSetToBill(rs));
+            }
+            return bills;
+        }
+    }
+
+    /**
+     * Map the rows of a bill joined with its items: bill columns repeat on every row,
+     * item columns are null when the bill has no items
+     */
+    private Optional<Bill> mapBillWithItems(ResultSet rs) throws SQLException {
+        Bill bill = null;
+        List<BillItem> billItems = new ArrayList<>();
+
+        while (rs.next()) {
+            if (bill == null) {
+                bill = mapResultSetToBill(rs);
+            }
+            if (rs.getObject("bill_item_id") != null) {
+                BillItem billItem = new BillItem();
+                billItem.setBillItemId(rs.getInt("bill_item_id"));
+                billItem.setBillId(bill.getBillId());
+                billItem.setItemId(rs.getInt("item_id"));
+                billItem.setCategoryId((Integer) rs.getObject("item_category_id"));
+                billItem.setItemCode(rs.getString("item_code"));
+                billItem.setItemName(rs.getString("item_name"));
+                billItem.setQuantity(rs.getInt("quantity"));
+                billItem.setUnitPrice(rs.getBigDecimal("unit_price"));
+                billItem.setDiscountPercentage(rs.getBigDecimal("item_discount_percentage"));
+                billItem.setDiscountAmount(rs.getBigDecimal("item_discount_amount"));
+                billItem.setLineTotal(rs.getBigDecimal("line_total"));
+                billItem.setCreatedAt(rs.getTimestamp("item_created_at").toLocalDateTime());
+                billItems.add(billItem);
+            }
+        }
+
+        if (bill == null) {
+            return Optional.empty();
+        }
+        bill.setBillItems(billItems);
+        return Optional.of(bill);
+    }
+
     private Bill mapResultSetToBill(ResultSet rs) throws SQLException {
         Bill bill = new Bill();
         bill.setBillId(rs.getInt("bill_id"));
@@ -8,19 +8,28 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
- * DAO implementation for BillItem entity
+ * DAO implementation for BillItem entity.
+ * bill_items.category_id (INT NULL) holds the item's category at the time of sale; lines saved
+ * before the column existed can be backfilled once with
+ * {@code UPDATE bill_items bi JOIN items i ON i.item_id = bi.item_id SET bi.category_id = i.category_id}.
  */
 public class BillItemDAO implements BaseDAO<BillItem, Integer> {
     private static final Logger logger = LoggerFactory.getLogger(BillItemDAO.class);
 
     private static final String INSERT_SQL = """
-        INSERT INTO bill_items (bill_id, item_id, quantity, unit_price, discount_percentage, 
+        INSERT INTO bill_items (bill_id, item_id, category_id, quantity, unit_price, discount_percentage, 
                                discount_amount, line_total, created_at)
-        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
         """;
 
     private static final String UPDATE_SQL = """
@@ -32,7 +41,7 @@ public class BillItemDAO implements BaseDAO<BillItem, Integer> {
     private static final String DELETE_SQL = "DELETE FROM bill_items WHERE bill_item_id = ?";
 
     private static final String FIND_BY_ID_SQL = """
-        SELECT bi.bill_item_id, bi.bill_id, bi.item_id, i.item_code, i.item_name, 
+        SELECT bi.bill_item_id, bi.bill_id, bi.item_id, bi.category_id, i.item_code, i.item_name, 
                bi.quantity, bi.unit_price, bi.discount_percentage, bi.discount_amount, 
                bi.line_total, bi.created_at
         FROM bill_items bi
@@ -41,7 +50,7 @@ public class BillItemDAO implements BaseDAO<BillItem, Integer> {
         """;
 
     private static final String FIND_ALL_SQL = """
-        SELECT bi.bill_item_id, bi.bill_id, bi.item_id, i.item_code, i.item_name, 
+        SELECT bi.bill_item_id, bi.bill_id, bi.item_id, bi.category_id, i.item_code, i.item_name, 
                bi.quantity, bi.unit_price, bi.discount_percentage, bi.discount_amount, 
                bi.line_total, bi.created_at
         FROM bill_items bi
@@ -56,7 +65,7 @@ public class BillItemDAO implements BaseDAO<BillItem, Integer> {
     private static final String EXISTS_SQL = "SELECT 1 FROM bill_items WHERE bill_item_id = ?";
 
     private static final String FIND_BY_BILL_SQL = """
-        SELECT bi.bill_item_id, bi.bill_id, bi.item_id, i.item_code, i.item_name, 
+        SELECT bi.bill_item_id, bi.bill_id, bi.item_id, bi.category_id, i.item_code, i.item_name, 
                bi.quantity, bi.unit_price, bi.discount_percentage, bi.discount_amount, 
                bi.line_total, bi.created_at
         FROM bill_items bi
@@ -65,6 +74,13 @@ public class BillItemDAO implements BaseDAO<BillItem, Integer> {
         ORDER BY bi.bill_item_id
         """;
 
+    private static final String FIND_BY_BILLS_SQL = FIND_BY_BILL_SQL
+        .replace("bi.bill_id = ?", "bi.bill_id IN (%s)")
+        .replace("ORDER BY bi.bill_item_id", "ORDER BY bi.bill_id, bi.bill_item_id");
+
+    // Upper bound on IN-list size per query
+    private static final int MAX_IDS_PER_QUERY = 500;
+
     private static final String DELETE_BY_BILL_SQL = "DELETE FROM bill_items WHERE bill_id = ?";
 
     @Override
@@ -76,12 +92,13 @@ public class BillItemDAO implements BaseDAO<BillItem, Integer> {
 
             stmt.setInt(1, billItem.getBillId());
             stmt.setInt(2, billItem.getItemId());
-            stmt.setInt(3, billItem.getQuantity());
-            stmt.setBigDecimal(4, billItem.getUnitPrice());
-            stmt.setBigDecimal(5, billItem.getDiscountPercentage());
-            stmt.setBigDecimal(6, billItem.getDiscountAmount());
-            stmt.setBigDecimal(7, billItem.getLineTotal());
-            stmt.setTimestamp(8, Timestamp.valueOf(billItem.getCreatedAt()));
+            stmt.setObject(3, billItem.getCategoryId());
+            stmt.setInt(4, billItem.getQuantity());
+            stmt.setBigDecimal(5, billItem.getUnitPrice());
+            stmt.setBigDecimal(6, billItem.getDiscountPercentage());
+            stmt.setBigDecimal(7, billItem.getDiscountAmount());
+            stmt.setBigDecimal(8, billItem.getLineTotal());
+            stmt.setTimestamp(9, Timestamp.valueOf(billItem.getCreatedAt()));
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -313,12 +330,13 @@ public class BillItemDAO implements BaseDAO<BillItem, Integer> {
 
                 stmt.setInt(1, billItem.getBillId());
                 stmt.setInt(2, billItem.getItemId());
-                stmt.setInt(3, billItem.getQuantity());
-                stmt.setBigDecimal(4, billItem.getUnitPrice());
-                stmt.setBigDecimal(5, billItem.getDiscountPercentage());
-                stmt.setBigDecimal(6, billItem.getDiscountAmount());
-                stmt.setBigDecimal(7, billItem.getLineTotal());
-                stmt.setTimestamp(8, Timestamp.valueOf(billItem.getCreatedAt()));
+                stmt.setObject(3, billItem.getCategoryId());
+                stmt.setInt(4, billItem.getQuantity());
+                stmt.setBigDecimal(5, billItem.getUnitPrice());
+                stmt.setBigDecimal(6, billItem.getDiscountPercentage());
+                stmt.setBigDecimal(7, billItem.getDiscountAmount());
+                stmt.setBigDecimal(8, billItem.getLineTotal());
+                stmt.setTimestamp(9, Timestamp.valueOf(billItem.getCreatedAt()));
 
                 stmt.addBatch();
             }
@@ -343,11 +361,52 @@ public class BillItemDAO implements BaseDAO<BillItem, Integer> {
         }
     }
 
+    /**
+     * Find the items of several bills in one query
+     * @param billIds Bill IDs (duplicates and nulls are ignored)
+     * @return Items grouped by bill ID; bills without items are absent
+     * @throws DAOException if find operation fails
+     */
+    public Map<Integer, List<BillItem>> findByBills(Collection<Integer> billIds) throws DAOException {
+        if (billIds == null || billIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(billIds));
+        distinctIds.removeIf(Objects::isNull);
+        Map<Integer, List<BillItem>> itemsByBill = new HashMap<>();
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < distinctIds.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = distinctIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, distinctIds.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+                try (PreparedStatement stmt = conn.prepareStatement(String.format(FIND_BY_BILLS_SQL, placeholders))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            BillItem billItem = mapResultSetToBillItem(rs);
+                            itemsByBill.computeIfAbsent(billItem.getBillId(), id -> new ArrayList<>()).add(billItem);
+                        }
+                    }
+                }
+            }
+            return itemsByBill;
+
+        } catch (SQLException e) {
+            logger.error("Error finding bill items for bills: {}", distinctIds, e);
+            throw new DAOException("Failed to find bill items for bills", e);
+        }
+    }
+
     private BillItem mapResultSetToBillItem(ResultSet rs) throws SQLException {
         BillItem billItem = new BillItem();
         billItem.setBillItemId(rs.getInt("bill_item_id"));
         billItem.setBillId(rs.getInt("bill_id"));
         billItem.setItemId(rs.getInt("item_id"));
+        billItem.setCategoryId((Integer) rs.getObject("category_id"));
         billItem.setItemCode(rs.getString("item_code"));
         billItem.setItemName(rs.getString("item_name"));
         billItem.setQuantity(rs.getInt("quantity"));
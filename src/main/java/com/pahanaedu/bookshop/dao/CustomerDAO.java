@@ -1,15 +1,20 @@
 package com.pahanaedu.bookshop.dao;
 
+import com.pahanaedu.bookshop.model.Bill;
 import com.pahanaedu.bookshop.model.Customer;
 import com.pahanaedu.bookshop.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * DAO implementation for Customer entity
@@ -66,6 +71,32 @@ public class CustomerDAO implements BaseDAO<Customer, Integer> {
         WHERE customer_id = ?
         """;
 
+    private static final String ADD_TOTALS_SQL = """
+        UPDATE customers SET total_purchases = GREATEST(total_purchases + ?, 0),
+                             total_bills = GREATEST(CAST(total_bills AS SIGNED) + ?, 0), updated_at = ?
+        WHERE customer_id = ?
+        """;
+
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(customer_id), 0) FROM customers";
+
+    private static final String LOCK_RANGE_SQL = """
+        SELECT customer_id FROM customers WHERE customer_id BETWEEN ? AND ? FOR UPDATE
+        """;
+
+    private static final String RECONCILE_TOTALS_SQL = """
+        UPDATE customers c
+        LEFT JOIN (
+            SELECT customer_id, SUM(total_amount) AS purchases, COUNT(*) AS bill_count
+            FROM bills
+            WHERE customer_id BETWEEN ? AND ? AND status = 'active'
+            GROUP BY customer_id
+        ) t ON t.customer_id = c.customer_id
+        SET c.total_purchases = COALESCE(t.purchases, 0), c.total_bills = COALESCE(t.bill_count, 0),
+            c.updated_at = ?
+        WHERE c.customer_id BETWEEN ? AND ?
+          AND (c.total_purchases <> COALESCE(t.purchases, 0) OR c.total_bills <> COALESCE(t.bill_count, 0))
+        """;
+
     @Override
     public Customer save(Customer customer) throws DAOException {
         try (Connection conn = DatabaseUtil.getConnection();
@@ -359,6 +390,114 @@ public class CustomerDAO implements BaseDAO<Customer, Integer> {
         }
     }
 
+    /**
+     * Add the totals of new active bills to their customers' running totals,
+     * as deltas in one batched round trip
+     * @param bills Created bills
+     * @throws DAOException if update operation fails
+     */
+    public void addBillTotals(List<Bill> bills) throws DAOException {
+        applyBillTotalDeltas(bills, 1);
+    }
+
+    /**
+     * Subtract the totals of cancelled bills from their customers' running totals,
+     * as deltas in one batched round trip. Totals are clamped at zero.
+     * @param bills Cancelled bills
+     * @throws DAOException if update operation fails
+     */
+    public void subtractBillTotals(List<Bill> bills) throws DAOException {
+        applyBillTotalDeltas(bills, -1);
+    }
+
+    private void applyBillTotalDeltas(List<Bill> bills, int sign) throws DAOException {
+        if (bills == null || bills.isEmpty()) {
+            return;
+        }
+
+        // Combine bills of the same customer; customer ID order keeps lock order consistent
+        Map<Integer, BigDecimal> purchaseDeltas = new TreeMap<>();
+        Map<Integer, Integer> billDeltas = new HashMap<>();
+        for (Bill bill : bills) {
+            BigDecimal amount = bill.getTotalAmount() != null ? bill.getTotalAmount() : BigDecimal.ZERO;
+            purchaseDeltas.merge(bill.getCustomerId(), amount, BigDecimal::add);
+            billDeltas.merge(bill.getCustomerId(), 1, Integer::sum);
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(ADD_TOTALS_SQL)) {
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Map.Entry<Integer, BigDecimal> entry : purchaseDeltas.entrySet()) {
+                Integer customerId = entry.getKey();
+                stmt.setBigDecimal(1, sign > 0 ? entry.getValue() : entry.getValue().negate());
+                stmt.setInt(2, sign * billDeltas.get(customerId));
+                stmt.setTimestamp(3, now);
+                stmt.setInt(4, customerId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            logger.error("Error applying bill totals to {} customers", purchaseDeltas.size(), e);
+            throw new DAOException("Failed to update customer totals", e);
+        }
+    }
+
+    /**
+     * Get the highest customer ID
+     * @return Highest customer ID, or 0 if there are no customers
+     * @throws DAOException if query fails
+     */
+    public int findMaxId() throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(MAX_ID_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            return rs.next() ? rs.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            logger.error("Error finding max customer ID", e);
+            throw new DAOException("Failed to find max customer ID", e);
+        }
+    }
+
+    /**
+     * Recompute running totals from active bills for a range of customer IDs and fix rows that
+     * have drifted. Call inside a transaction: the customer rows are locked first so bills being
+     * created or cancelled for these customers either commit before the recount or wait for it.
+     * @param fromId First customer ID of the range (inclusive)
+     * @param toId Last customer ID of the range (inclusive)
+     * @return Number of customers whose totals were corrected
+     * @throws DAOException if update operation fails
+     */
+    public int reconcileTotals(int fromId, int toId) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            try (PreparedStatement lock = conn.prepareStatement(LOCK_RANGE_SQL)) {
+                lock.setInt(1, fromId);
+                lock.setInt(2, toId);
+                try (ResultSet rs = lock.executeQuery()) {
+                    while (rs.next()) {
+                        // Rows are locked as they are read
+                    }
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(RECONCILE_TOTALS_SQL)) {
+                stmt.setInt(1, fromId);
+                stmt.setInt(2, toId);
+                stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.setInt(4, fromId);
+                stmt.setInt(5, toId);
+                return stmt.executeUpdate();
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error reconciling totals for customers {}-{}", fromId, toId, e);
+            throw new DAOException("Failed to reconcile customer totals", e);
+        }
+    }
+
     private Customer mapResultSetToCustomer(ResultSet rs) throws SQLException {
         Customer customer = new Customer();
         customer.setCustomerId(rs.getInt("customer_id"));
@@ -0,0 +1,397 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.model.Bill;
+import com.pahanaedu.bookshop.model.BillItem;
+import com.pahanaedu.bookshop.model.SalesSummary;
+import com.pahanaedu.bookshop.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DAO for the daily_sales rollup of active bills:
+ * <pre>
+ * CREATE TABLE daily_sales (
+ *     sale_date DATE NOT NULL,
+ *     category_id INT NOT NULL DEFAULT 0,
+ *     item_id INT NOT NULL DEFAULT 0,
+ *     quantity INT NOT NULL DEFAULT 0,
+ *     revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+ *     discount DECIMAL(14,2) NOT NULL DEFAULT 0,
+ *     bill_count INT NOT NULL DEFAULT 0,
+ *     PRIMARY KEY (sale_date, category_id, item_id)
+ * );
+ * </pre>
+ * Each day has three kinds of rows:
+ * <ul>
+ *   <li>(date, 0, -shard): day totals; revenue is the billed total and discount includes bill-level discounts</li>
+ *   <li>(date, category, -shard): category totals; revenue is the sum of line totals</li>
+ *   <li>(date, category, item): item totals; revenue is the sum of line totals</li>
+ * </ul>
+ * bill_count counts distinct bills at every level. Lines are counted under bill_items.category_id,
+ * the item's category when it was sold, so moving an item to another category leaves its past
+ * sales (and their cancellations) where they were. Items without a category use category 0 and
+ * have item rows only. Every bill would otherwise lock the same day total row until commit, so
+ * totals are spread over {@value #TOTAL_SHARDS} rows (item IDs 0 down to -7) that readers sum.
+ */
+public class DailySalesDAO {
+    private static final Logger logger = LoggerFactory.getLogger(DailySalesDAO.class);
+
+    private static final int TOTAL_SHARDS = 8;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO daily_sales (sale_date, category_id, item_id, quantity, revenue, discount, bill_count)
+        VALUES (?, ?, ?, ?, ?, ?, ?) AS new
+        ON DUPLICATE KEY UPDATE quantity = daily_sales.quantity + new.quantity,
+                                revenue = daily_sales.revenue + new.revenue,
+                                discount = daily_sales.discount + new.discount,
+                                bill_count = daily_sales.bill_count + new.bill_count
+        """;
+
+    private static final String DELETE_RANGE_SQL = "DELETE FROM daily_sales WHERE sale_date BETWEEN ? AND ?";
+
+    private static final String REBUILD_ITEMS_SQL = """
+        INSERT INTO daily_sales (sale_date, category_id, item_id, quantity, revenue, discount, bill_count)
+        SELECT b.bill_date, COALESCE(bi.category_id, 0), bi.item_id, SUM(bi.quantity),
+               SUM(bi.line_total), SUM(COALESCE(bi.discount_amount, 0)), COUNT(DISTINCT b.bill_id)
+        FROM bills b
+        JOIN bill_items bi ON bi.bill_id = b.bill_id
+        WHERE b.status = 'active' AND b.bill_date BETWEEN ? AND ?
+        GROUP BY b.bill_date, COALESCE(bi.category_id, 0), bi.item_id
+        """;
+
+    private static final String REBUILD_CATEGORIES_SQL = """
+        INSERT INTO daily_sales (sale_date, category_id, item_id, quantity, revenue, discount, bill_count)
+        SELECT b.bill_date, bi.category_id, 0, SUM(bi.quantity),
+               SUM(bi.line_total), SUM(COALESCE(bi.discount_amount, 0)), COUNT(DISTINCT b.bill_id)
+        FROM bills b
+        JOIN bill_items bi ON bi.bill_id = b.bill_id
+        WHERE b.status = 'active' AND b.bill_date BETWEEN ? AND ? AND bi.category_id IS NOT NULL
+        GROUP BY b.bill_date, bi.category_id
+        """;
+
+    private static final String REBUILD_DAYS_SQL = """
+        INSERT INTO daily_sales (sale_date, category_id, item_id, quantity, revenue, discount, bill_count)
+        SELECT b.bill_date, 0, 0, SUM(l.quantity), SUM(b.total_amount),
+               SUM(COALESCE(b.discount_amount, 0) + l.discount), COUNT(*)
+        FROM bills b
+        JOIN (SELECT bi.bill_id, SUM(bi.quantity) AS quantity, SUM(COALESCE(bi.discount_amount, 0)) AS discount
+              FROM bill_items bi
+              JOIN bills lb ON lb.bill_id = bi.bill_id
+              WHERE lb.status = 'active' AND lb.bill_date BETWEEN ? AND ?
+              GROUP BY bi.bill_id) l ON l.bill_id = b.bill_id
+        GROUP BY b.bill_date
+        """;
+
+    private static final String FIND_BILL_DATE_RANGE_SQL =
+        "SELECT MIN(bill_date), MAX(bill_date) FROM bills WHERE status = 'active'";
+
+    private static final String EXISTS_ANY_SQL = "SELECT 1 FROM daily_sales LIMIT 1";
+
+    private static final String SUMMARY_COLUMNS = """
+        SUM(ds.quantity) AS quantity, SUM(ds.revenue) AS revenue,
+        SUM(ds.discount) AS discount, SUM(ds.bill_count) AS bill_count
+        """;
+
+    private static final String FIND_TOTALS_BY_DAY_SQL = "SELECT DATE_FORMAT(ds.sale_date, '%Y-%m-%d') AS period, "
+        + SUMMARY_COLUMNS + """
+        FROM daily_sales ds
+        WHERE ds.category_id = 0 AND ds.item_id <= 0 AND ds.sale_date BETWEEN ? AND ?
+        GROUP BY period
+        ORDER BY period
+        """;
+
+    private static final String FIND_TOTALS_BY_MONTH_SQL = FIND_TOTALS_BY_DAY_SQL.replace("%Y-%m-%d", "%Y-%m");
+
+    private static final String FIND_CATEGORIES_BY_DAY_SQL = "SELECT DATE_FORMAT(ds.sale_date, '%Y-%m-%d') AS period, "
+        + "ds.category_id, c.category_name, " + SUMMARY_COLUMNS + """
+        FROM daily_sales ds
+        LEFT JOIN categories c ON c.category_id = ds.category_id
+        WHERE ds.category_id <> 0 AND ds.item_id <= 0 AND ds.sale_date BETWEEN ? AND ?
+        GROUP BY period, ds.category_id, c.category_name
+        ORDER BY period, ds.category_id
+        """;
+
+    private static final String FIND_CATEGORIES_BY_MONTH_SQL = FIND_CATEGORIES_BY_DAY_SQL.replace("%Y-%m-%d", "%Y-%m");
+
+    /**
+     * Reporting period length
+     */
+    public enum Granularity {
+        DAY, MONTH
+    }
+
+    /**
+     * Add created bills to the rollup in one batched round trip
+     * @param bills Saved bills with their items
+     * @throws DAOException if update operation fails
+     */
+    public void addBills(List<Bill> bills) throws DAOException {
+        applyBillDeltas(bills, 1);
+    }
+
+    /**
+     * Remove cancelled bills from the rollup in one batched round trip
+     * @param bills Cancelled bills with their items as stored
+     * @throws DAOException if update operation fails
+     */
+    public void subtractBills(List<Bill> bills) throws DAOException {
+        applyBillDeltas(bills, -1);
+    }
+
+    private void applyBillDeltas(List<Bill> bills, int sign) throws DAOException {
+        if (bills == null || bills.isEmpty()) {
+            return;
+        }
+
+        // Combine rows touched by several lines or bills; key order keeps lock order consistent
+        Map<RowKey, Delta> deltas = new TreeMap<>();
+        int totalRow = -ThreadLocalRandom.current().nextInt(TOTAL_SHARDS);
+        for (Bill bill : bills) {
+            LocalDate date = bill.getBillDate() != null ? bill.getBillDate() : LocalDate.now();
+            Delta day = deltas.computeIfAbsent(new RowKey(date, 0, totalRow), key -> new Delta());
+            day.revenue = day.revenue.add(amount(bill.getTotalAmount()));
+            day.discount = day.discount.add(amount(bill.getDiscountAmount()));
+            day.billCount++;
+
+            Set<RowKey> countedForBill = new HashSet<>();
+            for (BillItem billItem : bill.getBillItems()) {
+                int categoryId = billItem.getCategoryId() != null ? billItem.getCategoryId() : 0;
+                RowKey itemKey = new RowKey(date, categoryId, billItem.getItemId());
+                List<RowKey> keys = categoryId == 0
+                    ? List.of(itemKey)
+                    : List.of(new RowKey(date, categoryId, totalRow), itemKey);
+
+                day.quantity += billItem.getQuantity();
+                day.discount = day.discount.add(amount(billItem.getDiscountAmount()));
+                for (RowKey key : keys) {
+                    Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+                    delta.quantity += billItem.getQuantity();
+                    delta.revenue = delta.revenue.add(amount(billItem.getLineTotal()));
+                    delta.discount = delta.discount.add(amount(billItem.getDiscountAmount()));
+                    if (countedForBill.add(key)) {
+                        delta.billCount++;
+                    }
+                }
+            }
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+
+            for (Map.Entry<RowKey, Delta> entry : deltas.entrySet()) {
+                RowKey key = entry.getKey();
+                Delta delta = entry.getValue();
+                stmt.setDate(1, Date.valueOf(key.date));
+                stmt.setInt(2, key.categoryId);
+                stmt.setInt(3, key.itemId);
+                stmt.setInt(4, sign * delta.quantity);
+                stmt.setBigDecimal(5, sign > 0 ? delta.revenue : delta.revenue.negate());
+                stmt.setBigDecimal(6, sign > 0 ? delta.discount : delta.discount.negate());
+                stmt.setInt(7, sign * delta.billCount);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            logger.error("Error applying {} bills to daily sales", bills.size(), e);
+            throw new DAOException("Failed to update daily sales", e);
+        }
+    }
+
+    /**
+     * Recompute the rollup for a date range from active bills. Run inside a transaction so
+     * readers never see the range half rebuilt.
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Number of rollup rows written
+     * @throws DAOException if rebuild fails
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            Date start = Date.valueOf(startDate);
+            Date end = Date.valueOf(endDate);
+
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_RANGE_SQL)) {
+                stmt.setDate(1, start);
+                stmt.setDate(2, end);
+                stmt.executeUpdate();
+            }
+
+            int rows = 0;
+            for (String sql : List.of(REBUILD_DAYS_SQL, REBUILD_CATEGORIES_SQL, REBUILD_ITEMS_SQL)) {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setDate(1, start);
+                    stmt.setDate(2, end);
+                    rows += stmt.executeUpdate();
+                }
+            }
+            return rows;
+
+        } catch (SQLException e) {
+            logger.error("Error rebuilding daily sales: {} to {}", startDate, endDate, e);
+            throw new DAOException("Failed to rebuild daily sales", e);
+        }
+    }
+
+    /**
+     * Find the first and last dates with active bills
+     * @return Array of [first, last], empty if there are no active bills
+     * @throws DAOException if find operation fails
+     */
+    public Optional<LocalDate[]> findBillDateRange() throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BILL_DATE_RANGE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next() && rs.getDate(1) != null) {
+                return Optional.of(new LocalDate[] {rs.getDate(1).toLocalDate(), rs.getDate(2).toLocalDate()});
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            logger.error("Error finding bill date range", e);
+            throw new DAOException("Failed to find bill date range", e);
+        }
+    }
+
+    /**
+     * Check whether the rollup has any rows
+     * @return true if at least one row exists
+     * @throws DAOException if check fails
+     */
+    public boolean hasRows() throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(EXISTS_ANY_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            return rs.next();
+
+        } catch (SQLException e) {
+            logger.error("Error checking daily sales", e);
+            throw new DAOException("Failed to check daily sales", e);
+        }
+    }
+
+    /**
+     * Find sales totals per period
+     * @param granularity Period length
+     * @param startDate Start date
+     * @param endDate End date
+     * @return One summary per period with sales, oldest first
+     * @throws DAOException if find operation fails
+     */
+    public List<SalesSummary> findTotals(Granularity granularity, LocalDate startDate, LocalDate endDate) throws DAOException {
+        String sql = granularity == Granularity.MONTH ? FIND_TOTALS_BY_MONTH_SQL : FIND_TOTALS_BY_DAY_SQL;
+        return findSummaries(sql, startDate, endDate, false);
+    }
+
+    /**
+     * Find sales totals per period and category
+     * @param granularity Period length
+     * @param startDate Start date
+     * @param endDate End date
+     * @return One summary per period and category with sales, oldest first
+     * @throws DAOException if find operation fails
+     */
+    public List<SalesSummary> findCategoryTotals(Granularity granularity, LocalDate startDate, LocalDate endDate) throws DAOException {
+        String sql = granularity == Granularity.MONTH ? FIND_CATEGORIES_BY_MONTH_SQL : FIND_CATEGORIES_BY_DAY_SQL;
+        return findSummaries(sql, startDate, endDate, true);
+    }
+
+    private List<SalesSummary> findSummaries(String sql, LocalDate startDate, LocalDate endDate,
+                                             boolean byCategory) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<SalesSummary> summaries = new ArrayList<>();
+                while (rs.next()) {
+                    SalesSummary summary = new SalesSummary();
+                    summary.setPeriod(rs.getString("period"));
+                    if (byCategory) {
+                        summary.setCategoryId(rs.getInt("category_id"));
+                        summary.setCategoryName(rs.getString("category_name"));
+                    }
+                    summary.setQuantity(rs.getLong("quantity"));
+                    summary.setRevenue(rs.getBigDecimal("revenue"));
+                    summary.setDiscount(rs.getBigDecimal("discount"));
+                    summary.setBillCount(rs.getLong("bill_count"));
+                    summaries.add(summary);
+                }
+                return summaries;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error finding sales summaries: {} to {}", startDate, endDate, e);
+            throw new DAOException("Failed to find sales summaries", e);
+        }
+    }
+
+    private static BigDecimal amount(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * Primary key of a rollup row
+     */
+    private static final class RowKey implements Comparable<RowKey> {
+        private static final Comparator<RowKey> ORDER = Comparator
+            .comparing((RowKey key) -> key.date)
+            .thenComparingInt(key -> key.categoryId)
+            .thenComparingInt(key -> key.itemId);
+
+        private final LocalDate date;
+        private final int categoryId;
+        private final int itemId;
+
+        private RowKey(LocalDate date, int categoryId, int itemId) {
+            this.date = date;
+            this.categoryId = categoryId;
+            this.itemId = itemId;
+        }
+
+        @Override
+        public int compareTo(RowKey other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RowKey)) return false;
+            RowKey other = (RowKey) o;
+            return categoryId == other.categoryId && itemId == other.itemId && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return (date.hashCode() * 31 + categoryId) * 31 + itemId;
+        }
+    }
+
+    /**
+     * Amounts to add to one rollup row
+     */
+    private static final class Delta {
+        private int quantity;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private int billCount;
+    }
+}
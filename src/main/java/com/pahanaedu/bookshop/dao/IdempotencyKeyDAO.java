@@ -0,0 +1,199 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.model.IdempotencyKey;
+import com.pahanaedu.bookshop.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * DAO for the bill_idempotency_keys dedupe table:
+ * <pre>
+ * CREATE TABLE bill_idempotency_keys (
+ *     created_by INT NOT NULL,
+ *     idempotency_key VARCHAR(100) NOT NULL,
+ *     request_hash CHAR(64) NOT NULL,
+ *     bill_id INT NULL,
+ *     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+ *     PRIMARY KEY (created_by, idempotency_key),
+ *     FOREIGN KEY (bill_id) REFERENCES bills(bill_id)
+ * );
+ * </pre>
+ * Keys are scoped to the user who created the bill, so two tills choosing the same key never
+ * see each other's bills. A key is claimed inside the bill transaction, so it only persists
+ * if the bill does.
+ */
+public class IdempotencyKeyDAO {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyDAO.class);
+
+    private static final String INSERT_SQL = """
+        INSERT INTO bill_idempotency_keys (idempotency_key, request_hash, created_by, created_at)
+        VALUES (?, ?, ?, ?)
+        """;
+
+    private static final String ATTACH_BILL_SQL = """
+        UPDATE bill_idempotency_keys SET bill_id = ? WHERE created_by = ? AND idempotency_key = ?
+        """;
+
+    private static final String FIND_BY_KEY_SQL = """
+        SELECT idempotency_key, request_hash, bill_id, created_by, created_at
+        FROM bill_idempotency_keys WHERE created_by = ? AND idempotency_key = ?
+        """;
+
+    /**
+     * Claim an idempotency key. Blocks while another open transaction holds the same key.
+     * @param key Key to claim
+     * @return true if claimed, false if the key was already used
+     * @throws DAOException if database operation fails
+     */
+    public boolean claim(IdempotencyKey key) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+
+            stmt.setString(1, key.getIdempotencyKey());
+            stmt.setString(2, key.getRequestHash());
+            stmt.setObject(3, key.getCreatedBy());
+            stmt.setTimestamp(4, Timestamp.valueOf(key.getCreatedAt()));
+            stmt.executeUpdate();
+            return true;
+
+        } catch (SQLIntegrityConstraintViolationException e) {
+            logger.debug("Idempotency key already used: {}", key.getIdempotencyKey());
+            return false;
+        } catch (SQLException e) {
+            logger.error("Error claiming idempotency key: {}", key.getIdempotencyKey(), e);
+            throw new DAOException("Failed to claim idempotency key", e);
+        }
+    }
+
+    /**
+     * Claim several idempotency keys in one batch
+     * @param keys Keys to claim
+     * @return true if all keys were claimed, false if any was already used
+     *         (the caller must roll back, as keys before the duplicate may be inserted)
+     * @throws DAOException if database operation fails
+     */
+    public boolean claimBatch(List<IdempotencyKey> keys) throws DAOException {
+        if (keys == null || keys.isEmpty()) {
+            return true;
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+
+            for (IdempotencyKey key : keys) {
+                stmt.setString(1, key.getIdempotencyKey());
+                stmt.setString(2, key.getRequestHash());
+                stmt.setObject(3, key.getCreatedBy());
+                stmt.setTimestamp(4, Timestamp.valueOf(key.getCreatedAt()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            return true;
+
+        } catch (BatchUpdateException e) {
+            if (e.getCause() instanceof SQLIntegrityConstraintViolationException
+                    || "23000".equals(e.getSQLState())) {
+                logger.debug("Idempotency key already used in batch of {}", keys.size());
+                return false;
+            }
+            logger.error("Error claiming {} idempotency keys", keys.size(), e);
+            throw new DAOException("Failed to claim idempotency keys", e);
+        } catch (SQLException e) {
+            logger.error("Error claiming {} idempotency keys", keys.size(), e);
+            throw new DAOException("Failed to claim idempotency keys", e);
+        }
+    }
+
+    /**
+     * Record the bills created under claimed keys
+     * @param createdBy ID of user who claimed the keys
+     * @param billIdsByKey Created bill ID per claimed key
+     * @throws DAOException if database operation fails
+     */
+    public void attachBills(Integer createdBy, Map<String, Integer> billIdsByKey) throws DAOException {
+        if (billIdsByKey == null || billIdsByKey.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(ATTACH_BILL_SQL)) {
+
+            for (Map.Entry<String, Integer> entry : billIdsByKey.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setObject(2, createdBy);
+                stmt.setString(3, entry.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            logger.error("Error attaching {} bills to idempotency keys", billIdsByKey.size(), e);
+            throw new DAOException("Failed to attach bills to idempotency keys", e);
+        }
+    }
+
+    /**
+     * Record the bill created under a claimed key
+     * @param key Claimed key
+     * @param billId Created bill ID
+     * @throws DAOException if database operation fails
+     */
+    public void attachBill(IdempotencyKey key, Integer billId) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(ATTACH_BILL_SQL)) {
+
+            stmt.setInt(1, billId);
+            stmt.setObject(2, key.getCreatedBy());
+            stmt.setString(3, key.getIdempotencyKey());
+            stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            logger.error("Error attaching bill {} to idempotency key: {}", billId, key.getIdempotencyKey(), e);
+            throw new DAOException("Failed to attach bill to idempotency key", e);
+        }
+    }
+
+    /**
+     * Find a key record
+     * @param createdBy ID of user who claimed the key
+     * @param idempotencyKey Key to find
+     * @return Key record if found
+     * @throws DAOException if database operation fails
+     */
+    public Optional<IdempotencyKey> findByKey(Integer createdBy, String idempotencyKey) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_KEY_SQL)) {
+
+            stmt.setObject(1, createdBy);
+            stmt.setString(2, idempotencyKey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSet(rs));
+                }
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            logger.error("Error finding idempotency key: {}", idempotencyKey, e);
+            throw new DAOException("Failed to find idempotency key", e);
+        }
+    }
+
+    private IdempotencyKey mapResultSet(ResultSet rs) throws SQLException {
+        IdempotencyKey key = new IdempotencyKey();
+        key.setIdempotencyKey(rs.getString("idempotency_key"));
+        key.setRequestHash(rs.getString("request_hash"));
+        key.setBillId((Integer) rs.getObject("bill_id"));
+        key.setCreatedBy((Integer) rs.getObject("created_by"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            key.setCreatedAt(createdAt.toLocalDateTime());
+        }
+        return key;
+    }
+}
@@ -0,0 +1,98 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.model.Item;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a category browse listing: the sort it belongs to, the sort column value
+ * of the last item shown and that item's ID as the tie-breaker.
+ * Clients see it only as an opaque continuation token.
+ */
+public final class ItemCursor {
+    private final ItemDAO.BrowseSort sort;
+    private final String value;
+    private final int itemId;
+
+    private ItemCursor(ItemDAO.BrowseSort sort, String value, int itemId) {
+        this.sort = sort;
+        this.value = value;
+        this.itemId = itemId;
+    }
+
+    /**
+     * Create the cursor positioned after an item
+     * @param item Last item of a page
+     * @param sort Sort of the listing
+     * @return Cursor for the next page
+     */
+    public static ItemCursor after(Item item, ItemDAO.BrowseSort sort) {
+        String value = switch (sort) {
+            case NAME -> item.getItemName();
+            case PRICE -> item.getPrice().toPlainString();
+            case NEWEST -> item.getCreatedAt().toString();
+            case BESTSELLING -> String.valueOf(item.getTotalSold() != null ? item.getTotalSold() : 0);
+        };
+        return new ItemCursor(sort, value, item.getItemId());
+    }
+
+    /**
+     * Decode a continuation token
+     * @param token Token from a previous response
+     * @return Cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ItemCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // Names may contain the separator, so split on the first and last one
+            int first = decoded.indexOf('|');
+            int last = decoded.lastIndexOf('|');
+            if (first < 0 || first == last) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            ItemCursor cursor = new ItemCursor(ItemDAO.BrowseSort.fromString(decoded.substring(0, first)),
+                                               decoded.substring(first + 1, last),
+                                               Integer.parseInt(decoded.substring(last + 1)));
+            // Fail here rather than when the value is bound
+            cursor.getTypedValue();
+            return cursor;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Encode as an opaque, URL-safe continuation token
+     * @return Token
+     */
+    public String encode() {
+        String token = sort.getValue() + "|" + value + "|" + itemId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ItemDAO.BrowseSort getSort() {
+        return sort;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Get the sort column value in the column's Java type
+     * @return String, BigDecimal, LocalDateTime or Integer depending on the sort
+     */
+    public Object getTypedValue() {
+        return switch (sort) {
+            case NAME -> value;
+            case PRICE -> new BigDecimal(value);
+            case NEWEST -> LocalDateTime.parse(value);
+            case BESTSELLING -> Integer.valueOf(value);
+        };
+    }
+}
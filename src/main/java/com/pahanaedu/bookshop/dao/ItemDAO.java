@@ -1,15 +1,25 @@
 package com.pahanaedu.bookshop.dao;
 
+import com.pahanaedu.bookshop.model.BillItem;
 import com.pahanaedu.bookshop.model.Item;
 import com.pahanaedu.bookshop.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * DAO implementation for Item entity
@@ -67,6 +77,50 @@ public class ItemDAO implements BaseDAO<Item, Integer> {
 
     private static final String FIND_BY_BARCODE_SQL = FIND_BY_ID_SQL.replace("i.item_id = ?", "i.barcode = ?");
 
+    private static final String FIND_BY_IDS_SQL = FIND_BY_ID_SQL.replace("i.item_id = ?", "i.item_id IN (%s)");
+
+    private static final String FIND_CATEGORY_IDS_SQL =
+        "SELECT item_id, category_id FROM items WHERE item_id IN (%s) AND category_id IS NOT NULL";
+
+    private static final String LOCK_STOCK_SQL =
+        "SELECT item_id, stock_quantity FROM items WHERE item_id IN (%s) ORDER BY item_id FOR UPDATE";
+
+    private static final String FIND_ALL_ACTIVE_SQL = FIND_BY_ID_SQL.replace("i.item_id = ?", "i.status = 'active'");
+
+    // Includes items whose category changed, since rows carry the category name
+    private static final String FIND_UPDATED_SINCE_SQL = FIND_BY_ID_SQL
+        .replace("i.item_id = ?", "(i.updated_at >= ? OR c.updated_at >= ?)");
+
+    private static final String FIND_BY_CATEGORY_SQL = FIND_BY_ID_SQL
+        .replace("i.item_id = ?", "i.category_id = ? AND i.status = 'active'") + "ORDER BY i.created_at DESC";
+
+    // Browse pages seek on (category_id, status, <sort column>, item_id); see findByCategoryAfter
+    private static final Map<BrowseSort, String> BROWSE_FIRST_SQL = new EnumMap<>(BrowseSort.class);
+
+    private static final Map<BrowseSort, String> BROWSE_AFTER_SQL = new EnumMap<>(BrowseSort.class);
+
+    static {
+        String base = FIND_BY_ID_SQL.replace("i.item_id = ?", "i.category_id = ? AND i.status = 'active'");
+        for (BrowseSort sort : BrowseSort.values()) {
+            String direction = sort.ascending ? "ASC" : "DESC";
+            String comparison = sort.ascending ? ">" : "<";
+            String order = "ORDER BY " + sort.column + " " + direction + ", i.item_id " + direction + " LIMIT ?";
+            String after = "AND (" + sort.column + " " + comparison + " ? OR (" + sort.column + " = ? AND i.item_id "
+                + comparison + " ?))\n";
+            BROWSE_FIRST_SQL.put(sort, base + order);
+            BROWSE_AFTER_SQL.put(sort, base + after + order);
+        }
+    }
+
+    private static final String COUNT_ACTIVE_BY_CATEGORY_SQL =
+        "SELECT COUNT(*) FROM items WHERE category_id = ? AND status = 'active'";
+
+    private static final String COUNT_ACTIVE_GROUP_BY_CATEGORY_SQL =
+        "SELECT category_id, COUNT(*) FROM items WHERE status = 'active' GROUP BY category_id";
+
+    // Upper bound on IN-list size per query for very large bills
+    private static final int MAX_IDS_PER_QUERY = 500;
+
     private static final String FIND_LOW_STOCK_SQL = """
         SELECT i.item_id, i.item_code, i.item_name, i.category_id, c.category_name, 
                i.description, i.price, i.cost_price, i.stock_quantity, i.min_stock_level, 
@@ -93,14 +147,34 @@ public class ItemDAO implements BaseDAO<Item, Integer> {
         LIMIT ? OFFSET ?
         """;
 
+    // Prefix matches only, so an index on the column can be used; best sellers first
+    private static final String SUGGEST_SQL = FIND_BY_ID_SQL
+        .replace("i.item_id = ?", "(i.item_name LIKE ? OR i.author LIKE ? OR i.isbn LIKE ?) AND i.status = 'active'")
+        + "ORDER BY i.total_sold DESC, i.item_id LIMIT ?";
+
     private static final String UPDATE_STOCK_SQL = """
         UPDATE items SET stock_quantity = ?, updated_at = ? WHERE item_id = ?
         """;
 
+    private static final String DECREMENT_STOCK_SQL = """
+        UPDATE items SET stock_quantity = stock_quantity - ?, updated_at = ?
+        WHERE item_id = ? AND status = 'active' AND stock_quantity >= ?
+        """;
+
+    private static final String INCREMENT_STOCK_SQL = """
+        UPDATE items SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE item_id = ?
+        """;
+
     private static final String UPDATE_SALES_TOTALS_SQL = """
         UPDATE items SET total_sold = ?, total_revenue = ?, updated_at = ? WHERE item_id = ?
         """;
 
+    private static final String ADD_SALES_TOTALS_SQL = """
+        UPDATE items SET total_sold = GREATEST(CAST(total_sold AS SIGNED) + ?, 0), 
+                        total_revenue = GREATEST(total_revenue + ?, 0), updated_at = ?
+        WHERE item_id = ?
+        """;
+
     @Override
     public Item save(Item item) throws DAOException {
         try (Connection conn = DatabaseUtil.getConnection();
@@ -306,6 +380,86 @@ public class ItemDAO implements BaseDAO<Item, Integer> {
         }
     }
 
+    /**
+     * Find several items in one query
+     * @param ids Item IDs to look up (duplicates and nulls are ignored)
+     * @return Map of found items keyed by item ID; missing IDs are absent
+     * @throws DAOException if find operation fails
+     */
+    public Map<Integer, Item> findByIds(Collection<Integer> ids) throws DAOException {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.removeIf(Objects::isNull);
+        Map<Integer, Item> items = new HashMap<>();
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < distinctIds.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = distinctIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, distinctIds.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+                try (PreparedStatement stmt = conn.prepareStatement(String.format(FIND_BY_IDS_SQL, placeholders))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Item item = mapResultSetToItem(rs);
+                            items.put(item.getItemId(), item);
+                        }
+                    }
+                }
+            }
+            return items;
+
+        } catch (SQLException e) {
+            logger.error("Error finding items by IDs: {}", distinctIds, e);
+            throw new DAOException("Failed to find items by IDs", e);
+        }
+    }
+
+    /**
+     * Find the category of several items in one round trip per chunk, reading only the key
+     * columns (no category join or wide item rows)
+     * @param ids Item IDs
+     * @return Category ID by item ID; items without a category or not found are absent
+     * @throws DAOException if find operation fails
+     */
+    public Map<Integer, Integer> findCategoryIds(Collection<Integer> ids) throws DAOException {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.removeIf(Objects::isNull);
+        Map<Integer, Integer> categoryIds = new HashMap<>();
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < distinctIds.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = distinctIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, distinctIds.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+                try (PreparedStatement stmt = conn.prepareStatement(String.format(FIND_CATEGORY_IDS_SQL, placeholders))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            categoryIds.put(rs.getInt(1), rs.getInt(2));
+                        }
+                    }
+                }
+            }
+            return categoryIds;
+
+        } catch (SQLException e) {
+            logger.error("Error finding item categories: {}", distinctIds, e);
+            throw new DAOException("Failed to find item categories", e);
+        }
+    }
+
     /**
      * Find item by item code
      * @param itemCode Item code to search for
@@ -354,6 +508,56 @@ public class ItemDAO implements BaseDAO<Item, Integer> {
         }
     }
 
+    /**
+     * Find all active items
+     * @return List of active items
+     * @throws DAOException if find operation fails
+     */
+    public List<Item> findAllActive() throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_ALL_ACTIVE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            List<Item> items = new ArrayList<>();
+            while (rs.next()) {
+                items.add(mapResultSetToItem(rs));
+            }
+            return items;
+
+        } catch (SQLException e) {
+            logger.error("Error finding active items", e);
+            throw new DAOException("Failed to find active items", e);
+        }
+    }
+
+    /**
+     * Find items of any status changed at or after a point in time, including items whose
+     * category changed
+     * @param since Lower bound (inclusive) for updated_at
+     * @return List of changed items
+     * @throws DAOException if find operation fails
+     */
+    public List<Item> findUpdatedSince(LocalDateTime since) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_UPDATED_SINCE_SQL)) {
+
+            Timestamp timestamp = Timestamp.valueOf(since);
+            stmt.setTimestamp(1, timestamp);
+            stmt.setTimestamp(2, timestamp);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Item> items = new ArrayList<>();
+                while (rs.next()) {
+                    items.add(mapResultSetToItem(rs));
+                }
+                return items;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error finding items updated since: {}", since, e);
+            throw new DAOException("Failed to find updated items", e);
+        }
+    }
+
     /**
      * Find items with low stock
      * @return List of items with low stock
@@ -376,6 +580,37 @@ public class ItemDAO implements BaseDAO<Item, Integer> {
         }
     }
 
+    /**
+     * Find the best-selling active items whose name, author or ISBN starts with a prefix
+     * @param prefix Typed prefix (LIKE wildcards in it match literally)
+     * @param limit Maximum number of records
+     * @return Items, most sold first
+     * @throws DAOException if find operation fails
+     */
+    public List<Item> findByPrefix(String prefix, int limit) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SUGGEST_SQL)) {
+
+            String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            stmt.setString(1, pattern);
+            stmt.setString(2, pattern);
+            stmt.setString(3, pattern);
+            stmt.setInt(4, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Item> items = new ArrayList<>();
+                while (rs.next()) {
+                    items.add(mapResultSetToItem(rs));
+                }
+                return items;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error finding items by prefix: {}", prefix, e);
+            throw new DAOException("Failed to find items by prefix", e);
+        }
+    }
+
     /**
      * Search items by name, code, author, or ISBN
      * @param searchTerm Search term
@@ -432,6 +667,151 @@ public class ItemDAO implements BaseDAO<Item, Integer> {
         }
     }
 
+    /**
+     * Decrement stock for several items in one batched round trip.
+     * Each row is only changed if the item is active and still has enough stock, so
+     * concurrent sales of the same item can neither oversell nor overwrite each other.
+     * Call inside a transaction so that a rejected line rolls back the others.
+     * @param quantities Quantity to remove, keyed by item ID
+     * @return IDs of items that were not decremented (missing, inactive or short of stock)
+     * @throws DAOException if update operation fails
+     */
+    public List<Integer> decrementStockBatch(Map<Integer, Integer> quantities) throws DAOException {
+        List<Integer> rejected = new ArrayList<>();
+        if (quantities == null || quantities.isEmpty()) {
+            return rejected;
+        }
+
+        // Update rows in item ID order so concurrent bills lock rows in the same order
+        Map<Integer, Integer> ordered = new TreeMap<>(quantities);
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(DECREMENT_STOCK_SQL)) {
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Map.Entry<Integer, Integer> entry : ordered.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setTimestamp(2, now);
+                stmt.setInt(3, entry.getKey());
+                stmt.setInt(4, entry.getValue());
+                stmt.addBatch();
+            }
+
+            int[] results = stmt.executeBatch();
+            int index = 0;
+            for (Integer itemId : ordered.keySet()) {
+                if (results[index++] == 0) {
+                    rejected.add(itemId);
+                }
+            }
+            return rejected;
+
+        } catch (SQLException e) {
+            logger.error("Error decrementing stock for items: {}", ordered.keySet(), e);
+            throw new DAOException("Failed to decrement item stock", e);
+        }
+    }
+
+    /**
+     * Increment stock for several items in one batched round trip
+     * @param quantities Quantity to add back, keyed by item ID
+     * @throws DAOException if update operation fails
+     */
+    public void incrementStockBatch(Map<Integer, Integer> quantities) throws DAOException {
+        if (quantities == null || quantities.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Integer> ordered = new TreeMap<>(quantities);
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INCREMENT_STOCK_SQL)) {
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Map.Entry<Integer, Integer> entry : ordered.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setTimestamp(2, now);
+                stmt.setInt(3, entry.getKey());
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            logger.error("Error incrementing stock for items: {}", ordered.keySet(), e);
+            throw new DAOException("Failed to increment item stock", e);
+        }
+    }
+
+    /**
+     * Lock several item rows and read their current stock. Must run inside a transaction; rows
+     * are locked in item ID order, the order every batched stock update uses.
+     * @param ids Item IDs
+     * @return Stock quantity by item ID, in item ID order; items not found are absent
+     * @throws DAOException if find operation fails
+     */
+    public Map<Integer, Integer> lockStock(Collection<Integer> ids) throws DAOException {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Integer> sortedIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        sortedIds.removeIf(Objects::isNull);
+        Collections.sort(sortedIds);
+        Map<Integer, Integer> stock = new TreeMap<>();
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < sortedIds.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = sortedIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, sortedIds.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+                try (PreparedStatement stmt = conn.prepareStatement(String.format(LOCK_STOCK_SQL, placeholders))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            stock.put(rs.getInt(1), rs.getInt(2));
+                        }
+                    }
+                }
+            }
+            return stock;
+
+        } catch (SQLException e) {
+            logger.error("Error locking stock for items: {}", sortedIds, e);
+            throw new DAOException("Failed to lock item stock", e);
+        }
+    }
+
+    /**
+     * Set stock quantities for several items in one batched round trip
+     * @param newQuantities New stock quantity, keyed by item ID
+     * @throws DAOException if update operation fails
+     */
+    public void updateStockBatch(Map<Integer, Integer> newQuantities) throws DAOException {
+        if (newQuantities == null || newQuantities.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Integer> ordered = new TreeMap<>(newQuantities);
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STOCK_SQL)) {
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Map.Entry<Integer, Integer> entry : ordered.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setTimestamp(2, now);
+                stmt.setInt(3, entry.getKey());
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            logger.error("Error updating stock for items: {}", ordered.keySet(), e);
+            throw new DAOException("Failed to update item stock", e);
+        }
+    }
+
     /**
      * Update item sales totals
      * @param itemId Item ID
@@ -456,6 +836,60 @@ public class ItemDAO implements BaseDAO<Item, Integer> {
         }
     }
 
+    /**
+     * Add the quantities and line totals of sold bill lines to item sales totals,
+     * as deltas in one batched round trip
+     * @param billItems Sold bill lines
+     * @throws DAOException if update operation fails
+     */
+    public void addSalesTotals(List<BillItem> billItems) throws DAOException {
+        applySalesTotalDeltas(billItems, 1);
+    }
+
+    /**
+     * Subtract the quantities and line totals of cancelled bill lines from item sales totals,
+     * as deltas in one batched round trip. Totals are clamped at zero.
+     * @param billItems Cancelled bill lines
+     * @throws DAOException if update operation fails
+     */
+    public void subtractSalesTotals(List<BillItem> billItems) throws DAOException {
+        applySalesTotalDeltas(billItems, -1);
+    }
+
+    private void applySalesTotalDeltas(List<BillItem> billItems, int sign) throws DAOException {
+        if (billItems == null || billItems.isEmpty()) {
+            return;
+        }
+
+        // Combine lines of the same item; item ID order keeps lock order consistent
+        Map<Integer, Integer> soldDeltas = new TreeMap<>();
+        Map<Integer, BigDecimal> revenueDeltas = new HashMap<>();
+        for (BillItem billItem : billItems) {
+            soldDeltas.merge(billItem.getItemId(), billItem.getQuantity(), Integer::sum);
+            revenueDeltas.merge(billItem.getItemId(), billItem.getLineTotal(), BigDecimal::add);
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(ADD_SALES_TOTALS_SQL)) {
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Map.Entry<Integer, Integer> entry : soldDeltas.entrySet()) {
+                BigDecimal revenueDelta = revenueDeltas.get(entry.getKey());
+                stmt.setInt(1, sign * entry.getValue());
+                stmt.setBigDecimal(2, sign < 0 ? revenueDelta.negate() : revenueDelta);
+                stmt.setTimestamp(3, now);
+                stmt.setInt(4, entry.getKey());
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            logger.error("Error applying sales total deltas for items: {}", soldDeltas.keySet(), e);
+            throw new DAOException("Failed to update item sales totals", e);
+        }
+    }
+
     /**
      * Find items by category
      * @param categoryId Category ID
@@ -463,9 +897,8 @@ public class ItemDAO implements BaseDAO<Item, Integer> {
      * @throws DAOException if find operation fails
      */
     public List<Item> findByCategory(Integer categoryId) throws DAOException {
-        String sql = FIND_ALL_SQL + " WHERE i.category_id = ? AND i.status = 'active'";
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_CATEGORY_SQL)) {
 
             stmt.setInt(1, categoryId);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -482,6 +915,128 @@ public class ItemDAO implements BaseDAO<Item, Integer> {
         }
     }
 
+    /**
+     * Find active items of a category page by page using a keyset cursor.
+     * Each page is an index seek when items has an index on
+     * (category_id, status, &lt;sort column&gt;, item_id) for the sorts in use.
+     * @param categoryId Category ID
+     * @param sort Sort order
+     * @param cursor Position after the previous page (for the same sort), or null for the first page
+     * @param limit Maximum number of records
+     * @return Items in sort order
+     * @throws DAOException if find operation fails
+     */
+    public List<Item> findByCategoryAfter(Integer categoryId, BrowseSort sort, ItemCursor cursor, int limit) throws DAOException {
+        String sql = cursor == null ? BROWSE_FIRST_SQL.get(sort) : BROWSE_AFTER_SQL.get(sort);
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setInt(index++, categoryId);
+            if (cursor != null) {
+                Object value = cursor.getTypedValue();
+                if (value instanceof LocalDateTime) {
+                    value = Timestamp.valueOf((LocalDateTime) value);
+                }
+                stmt.setObject(index++, value);
+                stmt.setObject(index++, value);
+                stmt.setInt(index++, cursor.getItemId());
+            }
+            stmt.setInt(index, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Item> items = new ArrayList<>();
+                while (rs.next()) {
+                    items.add(mapResultSetToItem(rs));
+                }
+                return items;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error browsing items by category: {}", categoryId, e);
+            throw new DAOException("Failed to find items by category", e);
+        }
+    }
+
+    /**
+     * Count active items of a category
+     * @param categoryId Category ID
+     * @return Item count
+     * @throws DAOException if count operation fails
+     */
+    public long countActiveByCategory(Integer categoryId) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_ACTIVE_BY_CATEGORY_SQL)) {
+
+            stmt.setInt(1, categoryId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error counting items by category: {}", categoryId, e);
+            throw new DAOException("Failed to count items by category", e);
+        }
+    }
+
+    /**
+     * Count active items of every category
+     * @return Item count per category ID (categories without active items are absent)
+     * @throws DAOException if count operation fails
+     */
+    public Map<Integer, Long> countActiveGroupByCategory() throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_ACTIVE_GROUP_BY_CATEGORY_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            Map<Integer, Long> counts = new HashMap<>();
+            while (rs.next()) {
+                counts.put(rs.getInt(1), rs.getLong(2));
+            }
+            return counts;
+
+        } catch (SQLException e) {
+            logger.error("Error counting items per category", e);
+            throw new DAOException("Failed to count items per category", e);
+        }
+    }
+
+    /**
+     * Sort orders for category browsing.
+     * BESTSELLING pages are approximate: total_sold changes with every sale, so an item that
+     * sells while a shopper pages through the listing can move across the cursor and show up
+     * twice or not at all. The other sorts use columns that rarely change.
+     */
+    public enum BrowseSort {
+        NAME("name", "i.item_name", true),
+        PRICE("price", "i.price", true),
+        NEWEST("newest", "i.created_at", false),
+        BESTSELLING("bestselling", "i.total_sold", false);
+
+        private final String value;
+        private final String column;
+        private final boolean ascending;
+
+        BrowseSort(String value, String column, boolean ascending) {
+            this.value = value;
+            this.column = column;
+            this.ascending = ascending;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public static BrowseSort fromString(String value) {
+            for (BrowseSort sort : BrowseSort.values()) {
+                if (sort.value.equalsIgnoreCase(value)) {
+                    return sort;
+                }
+            }
+            throw new IllegalArgumentException("Invalid sort: " + value);
+        }
+    }
+
     private Item mapResultSetToItem(ResultSet rs) throws SQLException {
         Item item = new Item();
         item.setItemId(rs.getInt("item_id"));
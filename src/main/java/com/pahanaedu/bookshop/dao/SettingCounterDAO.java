@@ -0,0 +1,94 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+
+/**
+ * DAO for numeric counters stored in the system_settings table.
+ * Counters are advanced with compare-and-set updates on independent connections,
+ * so several application nodes can share one counter row safely.
+ */
+public class SettingCounterDAO {
+    private static final Logger logger = LoggerFactory.getLogger(SettingCounterDAO.class);
+
+    private static final int MAX_RESERVE_ATTEMPTS = 20;
+
+    private static final String FIND_VALUE_SQL = "SELECT setting_value FROM system_settings WHERE setting_key = ?";
+
+    private static final String INSERT_COUNTER_SQL = """
+        INSERT IGNORE INTO system_settings (setting_key, setting_value, setting_type, description, 
+                                           is_editable, updated_at)
+        VALUES (?, '0', 'number', ?, FALSE, ?)
+        """;
+
+    private static final String COMPARE_AND_SET_SQL = """
+        UPDATE system_settings SET setting_value = ?, updated_at = ?
+        WHERE setting_key = ? AND setting_value = ?
+        """;
+
+    /**
+     * Reserve a contiguous block of counter values
+     * @param counterKey Setting key of the counter
+     * @param blockSize Number of values to reserve
+     * @return First value of the reserved block (the block ends at first + blockSize - 1)
+     * @throws DAOException if the block cannot be reserved
+     */
+    public long reserveBlock(String counterKey, int blockSize) throws DAOException {
+        try (Connection conn = DatabaseUtil.getIndependentConnection()) {
+            for (int attempt = 1; attempt <= MAX_RESERVE_ATTEMPTS; attempt++) {
+                String current = findValue(conn, counterKey);
+                if (current == null) {
+                    insertCounter(conn, counterKey);
+                    continue;
+                }
+
+                long currentValue = Long.parseLong(current.trim());
+                long reservedTo = currentValue + blockSize;
+                if (compareAndSet(conn, counterKey, current, String.valueOf(reservedTo))) {
+                    logger.info("Reserved counter block {}: {}-{}", counterKey, currentValue + 1, reservedTo);
+                    return currentValue + 1;
+                }
+
+                logger.debug("Counter {} changed concurrently, retrying (attempt {})", counterKey, attempt);
+            }
+            throw new DAOException("Could not reserve counter block for " + counterKey + " after " +
+                MAX_RESERVE_ATTEMPTS + " attempts");
+
+        } catch (SQLException | NumberFormatException e) {
+            logger.error("Error reserving counter block: {}", counterKey, e);
+            throw new DAOException("Failed to reserve counter block", e);
+        }
+    }
+
+    private String findValue(Connection conn, String counterKey) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(FIND_VALUE_SQL)) {
+            stmt.setString(1, counterKey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private void insertCounter(Connection conn, String counterKey) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_COUNTER_SQL)) {
+            stmt.setString(1, counterKey);
+            stmt.setString(2, "Counter managed by the application");
+            stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.executeUpdate();
+        }
+    }
+
+    private boolean compareAndSet(Connection conn, String counterKey, String expected, String updated) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(COMPARE_AND_SET_SQL)) {
+            stmt.setString(1, updated);
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setString(3, counterKey);
+            stmt.setString(4, expected);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+}
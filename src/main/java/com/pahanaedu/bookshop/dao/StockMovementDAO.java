@@ -0,0 +1,348 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.model.StockMovement;
+import com.pahanaedu.bookshop.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * DAO implementation for StockMovement entity
+ */
+public class StockMovementDAO implements BaseDAO<StockMovement, Integer> {
+    private static final Logger logger = LoggerFactory.getLogger(StockMovementDAO.class);
+
+    private static final String INSERT_SQL = """
+        INSERT INTO stock_movements (item_id, movement_type, quantity, reference_type, reference_id,
+                                     notes, movement_date, created_by)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String UPDATE_SQL = """
+        UPDATE stock_movements SET item_id = ?, movement_type = ?, quantity = ?, reference_type = ?,
+                                   reference_id = ?, notes = ?
+        WHERE movement_id = ?
+        """;
+
+    private static final String DELETE_SQL = "DELETE FROM stock_movements WHERE movement_id = ?";
+
+    private static final String FIND_BY_ID_SQL = """
+        SELECT sm.movement_id, sm.item_id, i.item_code, i.item_name, sm.movement_type, sm.quantity,
+               sm.reference_type, sm.reference_id, sm.notes, sm.movement_date, sm.created_by,
+               u.full_name as created_by_name
+        FROM stock_movements sm
+        LEFT JOIN items i ON sm.item_id = i.item_id
+        LEFT JOIN users u ON sm.created_by = u.user_id
+        WHERE sm.movement_id = ?
+        """;
+
+    private static final String FIND_ALL_SQL = """
+        SELECT sm.movement_id, sm.item_id, i.item_code, i.item_name, sm.movement_type, sm.quantity,
+               sm.reference_type, sm.reference_id, sm.notes, sm.movement_date, sm.created_by,
+               u.full_name as created_by_name
+        FROM stock_movements sm
+        LEFT JOIN items i ON sm.item_id = i.item_id
+        LEFT JOIN users u ON sm.created_by = u.user_id
+        ORDER BY sm.movement_date DESC
+        """;
+
+    private static final String FIND_ALL_PAGINATED_SQL = FIND_ALL_SQL + " LIMIT ? OFFSET ?";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM stock_movements";
+
+    private static final String EXISTS_SQL = "SELECT 1 FROM stock_movements WHERE movement_id = ?";
+
+    private static final String FIND_BY_ITEM_SQL = """
+        SELECT sm.movement_id, sm.item_id, i.item_code, i.item_name, sm.movement_type, sm.quantity,
+               sm.reference_type, sm.reference_id, sm.notes, sm.movement_date, sm.created_by,
+               u.full_name as created_by_name
+        FROM stock_movements sm
+        LEFT JOIN items i ON sm.item_id = i.item_id
+        LEFT JOIN users u ON sm.created_by = u.user_id
+        WHERE sm.item_id = ?
+        ORDER BY sm.movement_date DESC
+        LIMIT ? OFFSET ?
+        """;
+
+    @Override
+    public StockMovement save(StockMovement movement) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            if (movement.getMovementDate() == null) {
+                movement.setMovementDate(LocalDateTime.now());
+            }
+            setInsertParameters(stmt, movement);
+
+            int affectedRows = stmt.executeUpdate();
+            if (affectedRows == 0) {
+                throw new DAOException("Creating stock movement failed, no rows affected");
+            }
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    movement.setMovementId(generatedKeys.getInt(1));
+                } else {
+                    throw new DAOException("Creating stock movement failed, no ID obtained");
+                }
+            }
+
+            logger.debug("Stock movement created for item: {}", movement.getItemId());
+            return movement;
+
+        } catch (SQLException e) {
+            logger.error("Error creating stock movement for item: {}", movement.getItemId(), e);
+            throw new DAOException("Failed to create stock movement", e);
+        }
+    }
+
+    @Override
+    public StockMovement update(StockMovement movement) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+
+            stmt.setInt(1, movement.getItemId());
+            stmt.setString(2, movement.getMovementType().getValue());
+            stmt.setInt(3, movement.getQuantity());
+            stmt.setString(4, movement.getReferenceType().getValue());
+            stmt.setObject(5, movement.getReferenceId());
+            stmt.setString(6, movement.getNotes());
+            stmt.setInt(7, movement.getMovementId());
+
+            int affectedRows = stmt.executeUpdate();
+            if (affectedRows == 0) {
+                throw new DAOException("Stock movement not found with ID: " + movement.getMovementId());
+            }
+
+            logger.debug("Stock movement updated successfully: {}", movement.getMovementId());
+            return movement;
+
+        } catch (SQLException e) {
+            logger.error("Error updating stock movement: {}", movement.getMovementId(), e);
+            throw new DAOException("Failed to update stock movement", e);
+        }
+    }
+
+    @Override
+    public boolean delete(Integer id) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+
+            stmt.setInt(1, id);
+            int affectedRows = stmt.executeUpdate();
+
+            if (affectedRows > 0) {
+                logger.debug("Stock movement deleted successfully: {}", id);
+                return true;
+            }
+            return false;
+
+        } catch (SQLException e) {
+            logger.error("Error deleting stock movement: {}", id, e);
+            throw new DAOException("Failed to delete stock movement", e);
+        }
+    }
+
+    @Override
+    public Optional<StockMovement> findById(Integer id) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID_SQL)) {
+
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToStockMovement(rs));
+                }
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            logger.error("Error finding stock movement by ID: {}", id, e);
+            throw new DAOException("Failed to find stock movement by ID", e);
+        }
+    }
+
+    @Override
+    public List<StockMovement> findAll() throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_ALL_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            List<StockMovement> movements = new ArrayList<>();
+            while (rs.next()) {
+                movements.add(mapResultSetToStockMovement(rs));
+            }
+            return movements;
+
+        } catch (SQLException e) {
+            logger.error("Error finding all stock movements", e);
+            throw new DAOException("Failed to find all stock movements", e);
+        }
+    }
+
+    @Override
+    public List<StockMovement> findAll(int offset, int limit) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_ALL_PAGINATED_SQL)) {
+
+            stmt.setInt(1, limit);
+            stmt.setInt(2, offset);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<StockMovement> movements = new ArrayList<>();
+                while (rs.next()) {
+                    movements.add(mapResultSetToStockMovement(rs));
+                }
+                return movements;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error finding stock movements with pagination", e);
+            throw new DAOException("Failed to find stock movements with pagination", e);
+        }
+    }
+
+    @Override
+    public long count() throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+            return 0;
+
+        } catch (SQLException e) {
+            logger.error("Error counting stock movements", e);
+            throw new DAOException("Failed to count stock movements", e);
+        }
+    }
+
+    @Override
+    public boolean exists(Integer id) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(EXISTS_SQL)) {
+
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error checking if stock movement exists: {}", id, e);
+            throw new DAOException("Failed to check if stock movement exists", e);
+        }
+    }
+
+    /**
+     * Find stock movements for an item
+     * @param itemId Item ID
+     * @param offset Starting position
+     * @param limit Maximum number of records
+     * @return List of stock movements, newest first
+     * @throws DAOException if find operation fails
+     */
+    public List<StockMovement> findByItem(Integer itemId, int offset, int limit) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ITEM_SQL)) {
+
+            stmt.setInt(1, itemId);
+            stmt.setInt(2, limit);
+            stmt.setInt(3, offset);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<StockMovement> movements = new ArrayList<>();
+                while (rs.next()) {
+                    movements.add(mapResultSetToStockMovement(rs));
+                }
+                return movements;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error finding stock movements by item: {}", itemId, e);
+            throw new DAOException("Failed to find stock movements by item", e);
+        }
+    }
+
+    /**
+     * Save multiple stock movements in a batch.
+     * With rewriteBatchedStatements enabled the driver sends a single multi-row INSERT,
+     * and the generated IDs are assigned back to the movements in order.
+     * @param movements List of stock movements to save
+     * @throws DAOException if batch save operation fails
+     */
+    public void saveBatch(List<StockMovement> movements) throws DAOException {
+        if (movements == null || movements.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            LocalDateTime now = LocalDateTime.now();
+            for (StockMovement movement : movements) {
+                if (movement.getMovementDate() == null) {
+                    movement.setMovementDate(now);
+                }
+                setInsertParameters(stmt, movement);
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                int index = 0;
+                while (generatedKeys.next() && index < movements.size()) {
+                    movements.get(index).setMovementId(generatedKeys.getInt(1));
+                    index++;
+                }
+            }
+
+            logger.debug("Batch saved {} stock movements", movements.size());
+
+        } catch (SQLException e) {
+            logger.error("Error batch saving stock movements", e);
+            throw new DAOException("Failed to batch save stock movements", e);
+        }
+    }
+
+    private void setInsertParameters(PreparedStatement stmt, StockMovement movement) throws SQLException {
+        stmt.setInt(1, movement.getItemId());
+        stmt.setString(2, movement.getMovementType().getValue());
+        stmt.setInt(3, movement.getQuantity());
+        stmt.setString(4, movement.getReferenceType().getValue());
+        stmt.setObject(5, movement.getReferenceId());
+        stmt.setString(6, movement.getNotes());
+        stmt.setTimestamp(7, Timestamp.valueOf(movement.getMovementDate()));
+        stmt.setObject(8, movement.getCreatedBy());
+    }
+
+    private StockMovement mapResultSetToStockMovement(ResultSet rs) throws SQLException {
+        StockMovement movement = new StockMovement();
+        movement.setMovementId(rs.getInt("movement_id"));
+        movement.setItemId(rs.getInt("item_id"));
+        movement.setItemCode(rs.getString("item_code"));
+        movement.setItemName(rs.getString("item_name"));
+        movement.setMovementType(StockMovement.MovementType.fromString(rs.getString("movement_type")));
+        movement.setQuantity(rs.getInt("quantity"));
+        movement.setReferenceType(StockMovement.ReferenceType.fromString(rs.getString("reference_type")));
+
+        Integer referenceId = rs.getObject("reference_id", Integer.class);
+        movement.setReferenceId(referenceId);
+
+        movement.setNotes(rs.getString("notes"));
+        movement.setMovementDate(rs.getTimestamp("movement_date").toLocalDateTime());
+
+        Integer createdBy = rs.getObject("created_by", Integer.class);
+        movement.setCreatedBy(createdBy);
+        movement.setCreatedByName(rs.getString("created_by_name"));
+
+        return movement;
+    }
+}
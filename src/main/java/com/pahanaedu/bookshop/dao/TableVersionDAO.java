@@ -0,0 +1,112 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DAO for per-table version counters:
+ * <pre>
+ * CREATE TABLE table_versions (
+ *     table_name VARCHAR(32) NOT NULL,
+ *     shard TINYINT NOT NULL,
+ *     version BIGINT NOT NULL DEFAULT 0,
+ *     PRIMARY KEY (table_name, shard)
+ * );
+ * </pre>
+ * Writers bump a counter inside their own transaction, so the version changes exactly when the
+ * write commits and every node reads the same value. Each table's counter is spread over
+ * {@value #SHARDS} rows, one picked at random per bump, so concurrent writers do not all wait
+ * on one row lock until commit; the version is the sum of the rows.
+ */
+public class TableVersionDAO {
+    private static final Logger logger = LoggerFactory.getLogger(TableVersionDAO.class);
+
+    private static final int SHARDS = 8;
+
+    /**
+     * Tables with a tracked version
+     */
+    public enum Table {
+        BILLS("bills"),
+        ITEMS("items"),
+        CUSTOMERS("customers"),
+        CATEGORIES("categories");
+
+        private final String tableName;
+
+        Table(String tableName) {
+            this.tableName = tableName;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+    }
+
+    private static final String BUMP_SQL = """
+        INSERT INTO table_versions (table_name, shard, version) VALUES (?, ?, 1)
+        ON DUPLICATE KEY UPDATE version = version + 1
+        """;
+
+    private static final String FIND_VERSION_SQL =
+        "SELECT COALESCE(SUM(version), 0) FROM table_versions WHERE table_name = ?";
+
+    /**
+     * Read the current version of a table
+     * @param table Table to read
+     * @return Version; changes whenever a write to the table commits
+     * @throws DAOException if the query fails
+     */
+    public long findVersion(Table table) throws DAOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_VERSION_SQL)) {
+
+            stmt.setString(1, table.getTableName());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+
+        } catch (SQLException e) {
+            logger.error("Error reading version of table: {}", table.getTableName(), e);
+            throw new DAOException("Failed to read table version", e);
+        }
+    }
+
+    /**
+     * Bump the versions of tables. Call inside the transaction that writes them; rows are
+     * locked in table order.
+     * @param tables Tables written
+     * @throws DAOException if update operation fails
+     */
+    public void bump(Table... tables) throws DAOException {
+        Set<Table> ordered = EnumSet.noneOf(Table.class);
+        ordered.addAll(Arrays.asList(tables));
+        if (ordered.isEmpty()) {
+            return;
+        }
+
+        int shard = ThreadLocalRandom.current().nextInt(SHARDS);
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(BUMP_SQL)) {
+
+            for (Table table : ordered) {
+                stmt.setString(1, table.getTableName());
+                stmt.setInt(2, shard);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            logger.error("Error bumping version of tables: {}", ordered, e);
+            throw new DAOException("Failed to bump table version", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+
+/**
+ * Runs a unit of work in a single database transaction.
+ * Every DAO call made on the current thread inside the unit of work shares one pooled
+ * connection, and the work is committed once at the end (or rolled back on failure).
+ */
+public final class TransactionManager {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionManager.class);
+
+    /**
+     * Unit of work executed inside a transaction
+     * @param <T> Result type
+     * @param <E> Checked exception type thrown by the work (besides DAOException)
+     */
+    @FunctionalInterface
+    public interface TransactionalWork<T, E extends Exception> {
+        T execute() throws E, DAOException;
+    }
+
+    /**
+     * Execute work in a transaction, joining the current one if already active
+     * @param work Work to execute
+     * @param <T> Result type
+     * @param <E> Checked exception type thrown by the work
+     * @return Result of the work
+     * @throws E if the work fails (the transaction is rolled back)
+     * @throws DAOException if the transaction cannot be started or committed
+     */
+    public static <T, E extends Exception> T inTransaction(TransactionalWork<T, E> work) throws E, DAOException {
+        try {
+            DatabaseUtil.beginTransaction();
+        } catch (SQLException e) {
+            logger.error("Error starting transaction", e);
+            throw new DAOException("Failed to start transaction", e);
+        }
+
+        T result;
+        try {
+            result = work.execute();
+        } catch (Exception | Error e) {
+            DatabaseUtil.rollbackTransaction();
+            throw e;
+        }
+
+        try {
+            DatabaseUtil.commitTransaction();
+        } catch (SQLException e) {
+            logger.error("Error committing transaction", e);
+            throw new DAOException("Failed to commit transaction", e);
+        }
+        return result;
+    }
+
+    // Private constructor to prevent instantiation
+    private TransactionManager() {}
+}
@@ -0,0 +1,76 @@
+package com.pahanaedu.bookshop.event;
+
+import com.pahanaedu.bookshop.model.Bill;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event published after a bill transaction has committed
+ */
+public final class BillEvent {
+
+    /**
+     * Bill lifecycle event types
+     */
+    public enum Type {
+        CREATED, CANCELLED
+    }
+
+    private final Type type;
+    private final Bill bill;
+    private final Integer userId;
+    private final LocalDateTime occurredAt;
+
+    private BillEvent(Type type, Bill bill, Integer userId) {
+        this.type = type;
+        this.bill = bill;
+        this.userId = userId;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    /**
+     * Create a bill created event
+     * @param bill Committed bill
+     * @param userId ID of user who created the bill
+     * @return Event
+     */
+    public static BillEvent created(Bill bill, Integer userId) {
+        return new BillEvent(Type.CREATED, bill, userId);
+    }
+
+    /**
+     * Create a bill cancelled event
+     * @param bill Cancelled bill
+     * @param userId ID of user who cancelled the bill
+     * @return Event
+     */
+    public static BillEvent cancelled(Bill bill, Integer userId) {
+        return new BillEvent(Type.CANCELLED, bill, userId);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Bill getBill() {
+        return bill;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "BillEvent{" +
+                "type=" + type +
+                ", billId=" + (bill != null ? bill.getBillId() : null) +
+                ", userId=" + userId +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+}
@@ -0,0 +1,251 @@
+package com.pahanaedu.bookshop.event;
+
+import com.pahanaedu.bookshop.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers committed bill events to listeners off the request thread.
+ * Each (event, listener) pair is queued on a bounded queue served by a small worker pool.
+ * When the queue is full the publishing thread runs the delivery itself, which slows
+ * producers down instead of dropping events. Failed deliveries are retried with a
+ * linear backoff up to a configured number of attempts; retries are always handed back to
+ * the worker pool, and wait on the retry scheduler while the queue is full. Once shutdown
+ * starts, retries no longer wait: pending ones are submitted at once, and any retry due
+ * while the queue drains runs immediately on the thread that would have scheduled it.
+ */
+public final class BillEventBus {
+    private static final Logger logger = LoggerFactory.getLogger(BillEventBus.class);
+
+    private static final BillEventBus INSTANCE = new BillEventBus();
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService retryScheduler;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong retriesDeferred = new AtomicLong();
+    private volatile boolean shuttingDown;
+
+    private BillEventBus() {
+        int queueCapacity = Math.max(1, AppConfig.getInt("events.bill.queueCapacity", 1000));
+        int workerCount = Math.max(1, AppConfig.getInt("events.bill.workers", 2));
+        this.maxAttempts = Math.max(1, AppConfig.getInt("events.bill.maxAttempts", 3));
+        this.retryDelayMillis = Math.max(0, AppConfig.getLong("events.bill.retryDelayMillis", 500));
+
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), daemonThreads("bill-events"), new CallerRunsWhenFull());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("bill-events-retry"));
+
+        logger.info("Bill event bus started: workers={}, queueCapacity={}, maxAttempts={}",
+                    workerCount, queueCapacity, maxAttempts);
+    }
+
+    /**
+     * Get the shared event bus
+     * @return Event bus instance
+     */
+    public static BillEventBus getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register a listener
+     * @param name Listener name used in logs
+     * @param listener Listener to register
+     */
+    public void subscribe(String name, BillEventListener listener) {
+        registrations.add(new Registration(name, listener));
+        logger.debug("Bill event listener registered: {}", name);
+    }
+
+    /**
+     * Publish an event to all listeners. Call only after the bill transaction has committed.
+     * @param event Event to publish
+     */
+    public void publish(BillEvent event) {
+        published.incrementAndGet();
+        for (Registration registration : registrations) {
+            submit(new Delivery(event, registration, 1));
+        }
+    }
+
+    /**
+     * Get delivery metrics
+     * @return Map of metric name to value
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("published", published.get());
+        metrics.put("delivered", delivered.get());
+        metrics.put("retried", retried.get());
+        metrics.put("failed", failed.get());
+        metrics.put("callerRuns", callerRuns.get());
+        metrics.put("retriesDeferred", retriesDeferred.get());
+        metrics.put("queueDepth", workers.getQueue().size());
+        metrics.put("queueRemainingCapacity", workers.getQueue().remainingCapacity());
+        metrics.put("activeWorkers", workers.getActiveCount());
+        metrics.put("listeners", registrations.size());
+        return metrics;
+    }
+
+    /**
+     * Stop accepting events and wait briefly for queued deliveries and pending retries to finish
+     */
+    public void shutdown() {
+        // From here on retries run inline instead of going through the scheduler
+        shuttingDown = true;
+
+        // Retries waiting for their backoff get their attempt now rather than being lost
+        List<Runnable> pendingRetries = retryScheduler.shutdownNow();
+        for (Runnable retry : pendingRetries) {
+            retry.run();
+        }
+        if (!pendingRetries.isEmpty()) {
+            logger.info("Bill event bus submitted {} pending retries for draining", pendingRetries.size());
+        }
+
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                int dropped = workers.shutdownNow().size();
+                failed.addAndGet(dropped);
+                logger.warn("Bill event bus did not drain in time, {} deliveries dropped", dropped);
+            }
+        } catch (InterruptedException e) {
+            failed.addAndGet(workers.shutdownNow().size());
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Bill event bus stopped: {}", getMetrics());
+    }
+
+    private void submit(Delivery delivery) {
+        try {
+            workers.execute(delivery);
+        } catch (RejectedExecutionException e) {
+            failed.incrementAndGet();
+            logger.warn("Bill event bus is shut down, dropping {} for {}", delivery.event, delivery.registration.name);
+        }
+    }
+
+    private void scheduleRetry(Delivery delivery) {
+        retried.incrementAndGet();
+        schedule(delivery.nextAttempt(), retryDelayMillis * delivery.attempt);
+    }
+
+    private void schedule(Delivery delivery, long delayMillis) {
+        if (shuttingDown) {
+            delivery.run();
+            return;
+        }
+        try {
+            retryScheduler.schedule(() -> submit(delivery), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (shuttingDown) {
+                // Raced with shutdown stopping the scheduler
+                delivery.run();
+                return;
+            }
+            failed.incrementAndGet();
+            logger.warn("Bill event bus is shut down, not retrying {} for {}", delivery.event, delivery.registration.name);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Backpressure policy: run the delivery on the publishing thread when the queue is full.
+     * Retries come from the single retry thread, which must not block on a listener, so they
+     * go back to the scheduler and are submitted again after the base retry delay.
+     */
+    private final class CallerRunsWhenFull implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Bill event bus is shut down");
+            }
+            if (task instanceof Delivery && ((Delivery) task).attempt > 1) {
+                retriesDeferred.incrementAndGet();
+                schedule((Delivery) task, Math.max(1, retryDelayMillis));
+                return;
+            }
+            callerRuns.incrementAndGet();
+            task.run();
+        }
+    }
+
+    private static final class Registration {
+        private final String name;
+        private final BillEventListener listener;
+
+        private Registration(String name, BillEventListener listener) {
+            this.name = name;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * One attempt at delivering an event to one listener
+     */
+    private final class Delivery implements Runnable {
+        private final BillEvent event;
+        private final Registration registration;
+        private final int attempt;
+
+        private Delivery(BillEvent event, Registration registration, int attempt) {
+            this.event = event;
+            this.registration = registration;
+            this.attempt = attempt;
+        }
+
+        private Delivery nextAttempt() {
+            return new Delivery(event, registration, attempt + 1);
+        }
+
+        @Override
+        public void run() {
+            try {
+                registration.listener.onEvent(event);
+                delivered.incrementAndGet();
+            } catch (Exception e) {
+                if (attempt < maxAttempts) {
+                    logger.warn("Listener {} failed on {} (attempt {}/{}), retrying",
+                                registration.name, event, attempt, maxAttempts, e);
+                    scheduleRetry(this);
+                } else {
+                    failed.incrementAndGet();
+                    logger.error("Listener {} failed on {} after {} attempts, giving up",
+                                 registration.name, event, attempt, e);
+                }
+            }
+        }
+    }
+}
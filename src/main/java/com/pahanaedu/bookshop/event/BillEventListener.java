@@ -0,0 +1,16 @@
+package com.pahanaedu.bookshop.event;
+
+/**
+ * Consumer of committed bill events.
+ * Listeners run on the event bus worker threads; throwing an exception schedules a retry.
+ */
+@FunctionalInterface
+public interface BillEventListener {
+
+    /**
+     * Handle a bill event
+     * @param event Committed bill event
+     * @throws Exception if handling fails and should be retried
+     */
+    void onEvent(BillEvent event) throws Exception;
+}
@@ -46,7 +46,9 @@ public class CorsFilter implements Filter {
         // Set other CORS headers
         httpResponse.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
         httpResponse.setHeader("Access-Control-Allow-Headers",
-            "Content-Type, Authorization, X-Requested-With, Accept, Origin");
+            "Content-Type, Authorization, X-Requested-With, Accept, Origin, Idempotency-Key, " +
+            "If-None-Match, If-Modified-Since");
+        httpResponse.setHeader("Access-Control-Expose-Headers", "ETag, Last-Modified");
         httpResponse.setHeader("Access-Control-Allow-Credentials", "true");
         httpResponse.setHeader("Access-Control-Max-Age", "3600");
 
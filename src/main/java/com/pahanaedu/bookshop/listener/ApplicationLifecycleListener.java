@@ -0,0 +1,47 @@
+package com.pahanaedu.bookshop.listener;
+
+import com.pahanaedu.bookshop.event.BillEventBus;
+import com.pahanaedu.bookshop.service.BillCountService;
+import com.pahanaedu.bookshop.service.BillPdfArchiveService;
+import com.pahanaedu.bookshop.service.BillPdfCache;
+import com.pahanaedu.bookshop.service.CustomerTotalsReconciler;
+import com.pahanaedu.bookshop.service.ItemCatalog;
+import com.pahanaedu.bookshop.service.SalesReportService;
+import com.pahanaedu.bookshop.util.DatabaseUtil;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts background jobs on deployment and releases application-wide resources on undeploy
+ */
+@WebListener
+public class ApplicationLifecycleListener implements ServletContextListener {
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationLifecycleListener.class);
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        CustomerTotalsReconciler.getInstance().start();
+        BillCountService.getInstance().start();
+        SalesReportService.getInstance().start();
+        ItemCatalog.getInstance().start();
+        logger.info("Application started");
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        CustomerTotalsReconciler.getInstance().stop();
+        BillCountService.getInstance().stop();
+        SalesReportService.getInstance().stop();
+        ItemCatalog.getInstance().stop();
+        BillPdfArchiveService.shutdown();
+
+        // Drain pending bill events before the pool they write through is closed
+        BillEventBus.getInstance().shutdown();
+        BillPdfCache.getInstance().shutdown();
+        DatabaseUtil.shutdown();
+        logger.info("Application stopped");
+    }
+}
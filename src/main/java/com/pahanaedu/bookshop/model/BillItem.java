@@ -11,6 +11,7 @@ public class BillItem {
     private Integer billItemId;
     private Integer billId;
     private Integer itemId;
+    private Integer categoryId; // Item category when sold, for sales reporting
     private String itemCode; // For display purposes
     private String itemName; // For display purposes
     private Integer quantity;
@@ -61,6 +62,14 @@ public class BillItem {
         this.itemId = itemId;
     }
 
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
     public String getItemCode() {
         return itemCode;
     }
@@ -0,0 +1,32 @@
+package com.pahanaedu.bookshop.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing with the token for the next page
+ */
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Get the continuation token for the next page
+     * @return Token, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.pahanaedu.bookshop.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * IdempotencyKey entity recording which bill a client-supplied Idempotency-Key created
+ */
+public class IdempotencyKey {
+    private String idempotencyKey;
+    private String requestHash;
+    private Integer billId;
+    private Integer createdBy;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public IdempotencyKey() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public IdempotencyKey(String idempotencyKey, String requestHash, Integer createdBy) {
+        this();
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.createdBy = createdBy;
+    }
+
+    // Getters and Setters
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public Integer getBillId() {
+        return billId;
+    }
+
+    public void setBillId(Integer billId) {
+        this.billId = billId;
+    }
+
+    public Integer getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(Integer createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyKey{" +
+                "idempotencyKey='" + idempotencyKey + '\'' +
+                ", billId=" + billId +
+                ", createdBy=" + createdBy +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package com.pahanaedu.bookshop.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales totals for one reporting period, optionally for a single category
+ */
+public class SalesSummary {
+    private String period; // yyyy-MM-dd or yyyy-MM
+    private Integer categoryId;
+    private String categoryName;
+    private long quantity;
+    private BigDecimal revenue;
+    private BigDecimal discount;
+    private long billCount;
+
+    public SalesSummary() {
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public BigDecimal getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(BigDecimal discount) {
+        this.discount = discount;
+    }
+
+    public long getBillCount() {
+        return billCount;
+    }
+
+    public void setBillCount(long billCount) {
+        this.billCount = billCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SalesSummary{" +
+                "period='" + period + '\'' +
+                ", categoryId=" + categoryId +
+                ", quantity=" + quantity +
+                ", revenue=" + revenue +
+                ", billCount=" + billCount +
+                '}';
+    }
+}
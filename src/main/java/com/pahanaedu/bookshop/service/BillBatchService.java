@@ -0,0 +1,187 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.model.Bill;
+import com.pahanaedu.bookshop.model.IdempotencyKey;
+import com.pahanaedu.bookshop.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Ingests bills queued by tills while offline.
+ * Bills are grouped into chunks that are each created in a single transaction with multi-row
+ * inserts. If a chunk fails (bad bill, insufficient stock, reused idempotency key) its bills are
+ * retried one at a time so every bill gets its own result; each retry starts from a freshly
+ * parsed bill, since the failed chunk has already set IDs and totals on the originals.
+ */
+public class BillBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(BillBatchService.class);
+
+    private final BillService billService;
+    private final BillIdempotencyService billIdempotencyService;
+    private final int chunkSize;
+
+    public BillBatchService(BillService billService) {
+        this.billService = billService;
+        this.billIdempotencyService = BillIdempotencyService.getInstance();
+        this.chunkSize = Math.max(1, AppConfig.getInt("bills.batch.chunkSize", 50));
+    }
+
+    /**
+     * Get the number of bills created per transaction
+     * @return Chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Create a chunk of bills
+     * @param entries Parsed bills, at most getChunkSize() of them
+     * @param createdBy ID of user submitting the batch
+     * @return One result per entry, in order
+     */
+    public List<Result> createChunk(List<Entry> entries, Integer createdBy) {
+        List<Result> results = new ArrayList<>(entries.size());
+        if (entries.isEmpty()) {
+            return results;
+        }
+
+        List<Bill> bills = new ArrayList<>(entries.size());
+        List<IdempotencyKey> keys = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            bills.add(entry.bill);
+            keys.add(entry.idempotencyKey);
+        }
+
+        try {
+            billService.createBills(bills, keys, createdBy);
+            for (Entry entry : entries) {
+                results.add(Result.created(entry.line, entry.bill));
+            }
+            return results;
+        } catch (ServiceException e) {
+            logger.debug("Bill chunk of {} failed ({}), retrying bills individually", entries.size(), e.getMessage());
+        }
+
+        for (Entry entry : entries) {
+            results.add(createOne(entry, createdBy));
+        }
+        return results;
+    }
+
+    private Result createOne(Entry entry, Integer createdBy) {
+        try {
+            Bill fresh = entry.billFactory.get();
+            Bill bill = billService.createBill(fresh, fresh.getBillItems(), createdBy, entry.idempotencyKey);
+            return Result.created(entry.line, bill);
+        } catch (ServiceException e) {
+            if (entry.idempotencyKey != null && e.getMessage().startsWith("Duplicate idempotency key")) {
+                return duplicate(entry);
+            }
+            return Result.failed(entry.line, e.getMessage());
+        }
+    }
+
+    private Result duplicate(Entry entry) {
+        try {
+            Optional<IdempotencyKey> existing = billIdempotencyService.findKey(
+                entry.idempotencyKey.getCreatedBy(), entry.idempotencyKey.getIdempotencyKey());
+            if (existing.isPresent() && existing.get().getRequestHash().equals(entry.idempotencyKey.getRequestHash())) {
+                Result result = new Result(entry.line, Result.DUPLICATE);
+                result.billId = existing.get().getBillId();
+                return result;
+            }
+            return Result.failed(entry.line, "Idempotency-Key has already been used with a different request");
+        } catch (ServiceException e) {
+            return Result.failed(entry.line, e.getMessage());
+        }
+    }
+
+    /**
+     * One bill of a batch, with its items set on the bill
+     */
+    public static final class Entry {
+        private final int line;
+        private final Supplier<Bill> billFactory;
+        private final Bill bill;
+        private final IdempotencyKey idempotencyKey;
+
+        /**
+         * Create an entry
+         * @param line Line number of the bill in the request
+         * @param billFactory Builds a new, unsaved copy of the bill on each call
+         * @param idempotencyKey Key to claim, or null for none
+         * @throws IllegalArgumentException if the factory cannot build the bill
+         */
+        public Entry(int line, Supplier<Bill> billFactory, IdempotencyKey idempotencyKey) {
+            this.line = line;
+            this.billFactory = billFactory;
+            this.bill = billFactory.get();
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+
+    /**
+     * Outcome for one bill of a batch
+     */
+    public static final class Result {
+        public static final String CREATED = "created";
+        public static final String DUPLICATE = "duplicate";
+        public static final String FAILED = "failed";
+
+        private final int line;
+        private final String status;
+        private Integer billId;
+        private String billNumber;
+        private String error;
+
+        private Result(int line, String status) {
+            this.line = line;
+            this.status = status;
+        }
+
+        static Result created(int line, Bill bill) {
+            Result result = new Result(line, CREATED);
+            result.billId = bill.getBillId();
+            result.billNumber = bill.getBillNumber();
+            return result;
+        }
+
+        /**
+         * Create a failed result
+         * @param line Line number of the bill in the request
+         * @param error Failure reason
+         * @return Result
+         */
+        public static Result failed(int line, String error) {
+            Result result = new Result(line, FAILED);
+            result.error = error;
+            return result;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Integer getBillId() {
+            return billId;
+        }
+
+        public String getBillNumber() {
+            return billNumber;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.dao.BillDAO;
+import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.event.BillEvent;
+import com.pahanaedu.bookshop.event.BillEventBus;
+import com.pahanaedu.bookshop.model.Bill;
+import com.pahanaedu.bookshop.util.AppConfig;
+import com.pahanaedu.bookshop.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory bill counts for pagination metadata.
+ * Counts per status are loaded with one grouped query and then kept current from bill events;
+ * counts per customer and status are loaded on first use and kept in a bounded cache. Because
+ * events are delivered after commit, counts can briefly lag or, if a load races an event, be off
+ * by one; a periodic exact resync reloads everything.
+ */
+public class BillCountService {
+    private static final Logger logger = LoggerFactory.getLogger(BillCountService.class);
+
+    private static final BillCountService INSTANCE = new BillCountService();
+
+    private final BillDAO billDAO;
+    private final LruCache<Integer, Map<Bill.BillStatus, AtomicLong>> byCustomer;
+    private volatile Map<Bill.BillStatus, AtomicLong> byStatus;
+    private ScheduledExecutorService scheduler;
+
+    private BillCountService() {
+        this.billDAO = new BillDAO();
+        this.byCustomer = new LruCache<>(AppConfig.getInt("bills.count.customerCacheSize", 10000));
+        BillEventBus.getInstance().subscribe("bill-counts", this::onBillEvent);
+    }
+
+    /**
+     * Get the shared count service
+     * @return Service instance
+     */
+    public static BillCountService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the number of bills of all statuses
+     * @return Total bill count
+     * @throws ServiceException if counts cannot be loaded
+     */
+    public long getTotalCount() throws ServiceException {
+        long total = 0;
+        for (AtomicLong count : statusCounts().values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of bills with a status
+     * @param status Bill status
+     * @return Bill count
+     * @throws ServiceException if counts cannot be loaded
+     */
+    public long getCountByStatus(Bill.BillStatus status) throws ServiceException {
+        return statusCounts().get(status).get();
+    }
+
+    /**
+     * Get the number of active bills of a customer, matching the customer's bill listing
+     * @param customerId Customer ID
+     * @return Bill count
+     * @throws ServiceException if the count cannot be loaded
+     */
+    public long getCountByCustomer(Integer customerId) throws ServiceException {
+        return getCountByCustomer(customerId, Bill.BillStatus.ACTIVE);
+    }
+
+    /**
+     * Get the number of bills of a customer with a status
+     * @param customerId Customer ID
+     * @param status Bill status
+     * @return Bill count
+     * @throws ServiceException if the count cannot be loaded
+     */
+    public long getCountByCustomer(Integer customerId, Bill.BillStatus status) throws ServiceException {
+        Map<Bill.BillStatus, AtomicLong> counts = byCustomer.get(customerId);
+        if (counts != null) {
+            return counts.get(status).get();
+        }
+
+        try {
+            Map<Bill.BillStatus, Long> loaded = billDAO.countByCustomer(customerId);
+            counts = new EnumMap<>(Bill.BillStatus.class);
+            for (Bill.BillStatus billStatus : Bill.BillStatus.values()) {
+                counts.put(billStatus, new AtomicLong(loaded.getOrDefault(billStatus, 0L)));
+            }
+            byCustomer.put(customerId, counts);
+            return counts.get(status).get();
+        } catch (DAOException e) {
+            logger.error("Error counting bills for customer: {}", customerId, e);
+            throw new ServiceException("Failed to count bills by customer", e);
+        }
+    }
+
+    /**
+     * Reload all counts from the database
+     * @throws ServiceException if counts cannot be loaded
+     */
+    public void resync() throws ServiceException {
+        byStatus = loadStatusCounts();
+        byCustomer.clear();
+        logger.debug("Bill counts resynced");
+    }
+
+    /**
+     * Start periodic exact resync, if enabled by configuration
+     */
+    public synchronized void start() {
+        long intervalMinutes = AppConfig.getLong("bills.count.resyncMinutes", 10);
+        if (scheduler != null || intervalMinutes <= 0) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bill-count-resync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                resync();
+            } catch (Exception e) {
+                // Keep the schedule alive; the next run retries
+                logger.warn("Bill count resync failed", e);
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stop periodic resync
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Get current counts for monitoring
+     * @return Map of count name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<Bill.BillStatus, AtomicLong> counts = byStatus;
+        if (counts != null) {
+            counts.forEach((status, count) -> stats.put(status.getValue(), count.get()));
+        }
+        stats.put("customerCache", byCustomer.getStats());
+        return stats;
+    }
+
+    private void onBillEvent(BillEvent event) {
+        applyEvent(byStatus, event);
+        applyEvent(byCustomer.get(event.getBill().getCustomerId()), event);
+    }
+
+    private static void applyEvent(Map<Bill.BillStatus, AtomicLong> counts, BillEvent event) {
+        if (counts == null) {
+            return;
+        }
+        if (event.getType() == BillEvent.Type.CREATED) {
+            counts.get(Bill.BillStatus.ACTIVE).incrementAndGet();
+        } else {
+            counts.get(Bill.BillStatus.ACTIVE).decrementAndGet();
+            counts.get(Bill.BillStatus.CANCELLED).incrementAndGet();
+        }
+    }
+
+    private Map<Bill.BillStatus, AtomicLong> statusCounts() throws ServiceException {
+        Map<Bill.BillStatus, AtomicLong> counts = byStatus;
+        if (counts == null) {
+            synchronized (this) {
+                counts = byStatus;
+                if (counts == null) {
+                    counts = loadStatusCounts();
+                    byStatus = counts;
+                }
+            }
+        }
+        return counts;
+    }
+
+    private Map<Bill.BillStatus, AtomicLong> loadStatusCounts() throws ServiceException {
+        try {
+            Map<Bill.BillStatus, Long> loaded = billDAO.countByStatus();
+            Map<Bill.BillStatus, AtomicLong> counts = new EnumMap<>(Bill.BillStatus.class);
+            for (Bill.BillStatus status : Bill.BillStatus.values()) {
+                counts.put(status, new AtomicLong(loaded.getOrDefault(status, 0L)));
+            }
+            return counts;
+        } catch (DAOException e) {
+            logger.error("Error loading bill counts", e);
+            throw new ServiceException("Failed to count bills", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.dao.ActivityLogDAO;
+import com.pahanaedu.bookshop.event.BillEvent;
+import com.pahanaedu.bookshop.event.BillEventBus;
+import com.pahanaedu.bookshop.model.ActivityLog;
+import com.pahanaedu.bookshop.model.Bill;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Default post-commit consumers of bill events: activity log and info logging.
+ * These run on the event bus workers, so checkout latency only covers the bill transaction.
+ */
+public final class BillEventSubscribers {
+    private static final Logger logger = LoggerFactory.getLogger(BillEventSubscribers.class);
+
+    private static final AtomicBoolean registered = new AtomicBoolean();
+
+    /**
+     * Register the default subscribers once per JVM
+     * @param bus Event bus to subscribe to
+     */
+    public static void registerDefaults(BillEventBus bus) {
+        if (!registered.compareAndSet(false, true)) {
+            return;
+        }
+
+        ActivityLogDAO activityLogDAO = new ActivityLogDAO();
+
+        bus.subscribe("activity-log", event -> {
+            Bill bill = event.getBill();
+            ActivityLog log;
+            if (event.getType() == BillEvent.Type.CREATED) {
+                log = new ActivityLog(event.getUserId(), ActivityLog.Actions.BILL_CREATED, "bills", bill.getBillId());
+                log.setNewValues("Bill created: " + bill.getBillNumber() + " - Amount: " + bill.getTotalAmount());
+            } else {
+                log = new ActivityLog(event.getUserId(), ActivityLog.Actions.BILL_CANCELLED, "bills", bill.getBillId());
+                log.setNewValues("Bill cancelled: " + bill.getBillNumber());
+            }
+            activityLogDAO.save(log);
+        });
+
+        bus.subscribe("bill-log", event -> {
+            Bill bill = event.getBill();
+            if (event.getType() == BillEvent.Type.CREATED) {
+                logger.info("Bill created successfully: {} - Amount: {}", bill.getBillNumber(), bill.getTotalAmount());
+            } else {
+                logger.info("Bill cancelled successfully: {}", bill.getBillNumber());
+            }
+        });
+    }
+
+    // Private constructor to prevent instantiation
+    private BillEventSubscribers() {}
+}
@@ -0,0 +1,267 @@
+package com.pahanaedu.bookshop.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pahanaedu.bookshop.dao.BillCursor;
+import com.pahanaedu.bookshop.dao.BillDAO;
+import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.model.Bill;
+import com.pahanaedu.bookshop.util.AppConfig;
+import com.pahanaedu.bookshop.util.ResponseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Writes bill exports for a date range as CSV or NDJSON, newest bill first.
+ * Bills are read in keyset pages and each page is written straight to the target stream, so
+ * heap use does not grow with the size of the range, and no database connection is held while
+ * a slow client downloads. Text values that a spreadsheet would evaluate as a formula are
+ * prefixed with a quote in CSV output.
+ */
+public class BillExportService {
+    private static final Logger logger = LoggerFactory.getLogger(BillExportService.class);
+
+    private static final Map<String, Function<Bill, Object>> COLUMNS = createColumns();
+
+    /**
+     * Export file format
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Parse a format name
+         * @param value Format name (case-insensitive), or null for CSV
+         * @return Format
+         * @throws IllegalArgumentException if the format is unknown
+         */
+        public static Format fromString(String value) {
+            if (value == null || value.isBlank()) {
+                return CSV;
+            }
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export format: " + value);
+        }
+    }
+
+    private final BillDAO billDAO;
+    private final int pageSize;
+
+    public BillExportService() {
+        this.billDAO = new BillDAO();
+        this.pageSize = Math.max(1, AppConfig.getInt("export.bills.pageSize", 500));
+    }
+
+    /**
+     * Resolve a comma-separated column list
+     * @param value Column names, or null for all columns
+     * @return Column names in requested order
+     * @throws IllegalArgumentException if a column is unknown
+     */
+    public static List<String> parseColumns(String value) {
+        if (value == null || value.isBlank()) {
+            return new ArrayList<>(COLUMNS.keySet());
+        }
+
+        List<String> columns = new ArrayList<>();
+        for (String column : value.split(",")) {
+            String name = column.trim();
+            if (!COLUMNS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown export column: " + name);
+            }
+            if (!columns.contains(name)) {
+                columns.add(name);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Write all active bills in the date range, newest first
+     * @param startDate Start date
+     * @param endDate End date
+     * @param format Output format
+     * @param columns Columns to write, as returned by {@link #parseColumns(String)}
+     * @param out Target stream (flushed, not closed)
+     * @return Number of bills written
+     * @throws ServiceException if bills cannot be read
+     * @throws IOException if writing fails; the export is incomplete
+     */
+    public int writeExport(LocalDate startDate, LocalDate endDate, Format format, List<String> columns,
+                           OutputStream out) throws ServiceException, IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        AtomicInteger written = new AtomicInteger();
+
+        try {
+            if (format == Format.CSV) {
+                writeCsvRow(writer, new ArrayList<>(columns));
+                forEachBill(startDate, endDate, bill -> {
+                    writeCsvRow(writer, values(bill, columns));
+                    written.incrementAndGet();
+                });
+                writer.flush();
+            } else {
+                JsonGenerator json = ResponseUtil.getObjectMapper().getFactory().createGenerator(writer);
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // One object per line: no space between root values, a newline after each
+                json.setRootValueSeparator(null);
+                forEachBill(startDate, endDate, bill -> {
+                    writeJsonRow(json, columns, bill);
+                    written.incrementAndGet();
+                });
+                json.flush();
+            }
+
+            logger.info("Bill export written: {} to {}, {} bills as {}", startDate, endDate, written.get(), format);
+            return written.get();
+
+        } catch (DAOException e) {
+            logger.error("Error exporting bills: {} to {}", startDate, endDate, e);
+            throw new ServiceException("Failed to export bills", e);
+        }
+    }
+
+    private void forEachBill(LocalDate startDate, LocalDate endDate, BillWriter writer) throws DAOException, IOException {
+        BillCursor position = null;
+        List<Bill> page;
+        do {
+            // Each page query returns its connection before the page is written
+            page = billDAO.findByDateRangeAfter(startDate, endDate, position, pageSize);
+            for (Bill bill : page) {
+                writer.write(bill);
+            }
+            if (!page.isEmpty()) {
+                position = BillCursor.after(page.get(page.size() - 1));
+            }
+        } while (page.size() == pageSize);
+    }
+
+    private List<Object> values(Bill bill, List<String> columns) {
+        List<Object> values = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            values.add(COLUMNS.get(column).apply(bill));
+        }
+        return values;
+    }
+
+    private void writeCsvRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value instanceof String) {
+                writeCsvField(writer, neutralizeFormula((String) value));
+            } else if (value != null) {
+                writeCsvField(writer, value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // Spreadsheets evaluate cells starting with these characters; numbers are not affected
+    private static String neutralizeFormula(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            return "'" + value;
+        }
+        return value;
+    }
+
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeJsonRow(JsonGenerator json, List<String> columns, Bill bill) throws IOException {
+        json.writeStartObject();
+        for (String column : columns) {
+            Object value = COLUMNS.get(column).apply(bill);
+            json.writeFieldName(column);
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof BigDecimal) {
+                json.writeNumber((BigDecimal) value);
+            } else if (value instanceof Integer) {
+                json.writeNumber((Integer) value);
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static Map<String, Function<Bill, Object>> createColumns() {
+        Map<String, Function<Bill, Object>> columns = new LinkedHashMap<>();
+        columns.put("billId", Bill::getBillId);
+        columns.put("billNumber", Bill::getBillNumber);
+        columns.put("billDate", Bill::getBillDate);
+        columns.put("billTime", Bill::getBillTime);
+        columns.put("customerId", Bill::getCustomerId);
+        columns.put("customerName", Bill::getCustomerName);
+        columns.put("customerAccountNo", Bill::getCustomerAccountNo);
+        columns.put("subtotal", Bill::getSubtotal);
+        columns.put("discountPercentage", Bill::getDiscountPercentage);
+        columns.put("discountAmount", Bill::getDiscountAmount);
+        columns.put("taxPercentage", Bill::getTaxPercentage);
+        columns.put("taxAmount", Bill::getTaxAmount);
+        columns.put("totalAmount", Bill::getTotalAmount);
+        columns.put("paymentMethod", bill -> bill.getPaymentMethod() != null ? bill.getPaymentMethod().getValue() : null);
+        columns.put("paymentStatus", bill -> bill.getPaymentStatus() != null ? bill.getPaymentStatus().getValue() : null);
+        columns.put("status", bill -> bill.getStatus() != null ? bill.getStatus().getValue() : null);
+        columns.put("notes", Bill::getNotes);
+        columns.put("createdAt", Bill::getCreatedAt);
+        columns.put("createdBy", Bill::getCreatedBy);
+        return columns;
+    }
+
+    /**
+     * Writes one bill of an export
+     */
+    @FunctionalInterface
+    private interface BillWriter {
+        void write(Bill bill) throws IOException;
+    }
+}
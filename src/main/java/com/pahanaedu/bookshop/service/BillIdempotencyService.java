@@ -0,0 +1,131 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.dao.IdempotencyKeyDAO;
+import com.pahanaedu.bookshop.model.IdempotencyKey;
+import com.pahanaedu.bookshop.util.AppConfig;
+import com.pahanaedu.bookshop.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Deduplicates retried bill creation requests carrying an Idempotency-Key header.
+ * Keys are scoped to the requesting user, so tills cannot replay each other's bills.
+ * Responses for recent keys are kept serialized in a bounded in-memory cache so a replay
+ * is answered without touching the database; the bill_idempotency_keys table is the
+ * durable record used after a restart, on another node, or once a key has been evicted.
+ */
+public class BillIdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(BillIdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final BillIdempotencyService INSTANCE = new BillIdempotencyService();
+
+    private final IdempotencyKeyDAO idempotencyKeyDAO;
+    private final LruCache<String, StoredResponse> responses;
+
+    private BillIdempotencyService() {
+        this.idempotencyKeyDAO = new IdempotencyKeyDAO();
+        this.responses = new LruCache<>(AppConfig.getInt("idempotency.cache.maxEntries", 10000));
+    }
+
+    /**
+     * Get the shared service; the response cache is per JVM
+     * @return Service instance
+     */
+    public static BillIdempotencyService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the cached response for a key
+     * @param createdBy ID of user sending the request
+     * @param idempotencyKey Client-supplied key
+     * @return Cached response if the user sent the key recently on this node
+     */
+    public Optional<StoredResponse> getCachedResponse(Integer createdBy, String idempotencyKey) {
+        return Optional.ofNullable(responses.get(cacheKey(createdBy, idempotencyKey)));
+    }
+
+    /**
+     * Find the durable record for a key
+     * @param createdBy ID of user sending the request
+     * @param idempotencyKey Client-supplied key
+     * @return Key record if the user has used the key
+     * @throws ServiceException if lookup fails
+     */
+    public Optional<IdempotencyKey> findKey(Integer createdBy, String idempotencyKey) throws ServiceException {
+        try {
+            return idempotencyKeyDAO.findByKey(createdBy, idempotencyKey);
+        } catch (DAOException e) {
+            logger.error("Error finding idempotency key: {}", idempotencyKey, e);
+            throw new ServiceException("Failed to check idempotency key", e);
+        }
+    }
+
+    /**
+     * Cache the serialized response sent for a key
+     * @param createdBy ID of user who sent the request
+     * @param idempotencyKey Client-supplied key
+     * @param requestHash Hash of the request body
+     * @param body Serialized response body
+     */
+    public void rememberResponse(Integer createdBy, String idempotencyKey, String requestHash, byte[] body) {
+        responses.put(cacheKey(createdBy, idempotencyKey), new StoredResponse(requestHash, body));
+    }
+
+    /**
+     * Get response cache statistics
+     * @return Map of statistic name to value
+     */
+    public Map<String, Object> getCacheStats() {
+        return responses.getStats();
+    }
+
+    private static String cacheKey(Integer createdBy, String idempotencyKey) {
+        return createdBy + ":" + idempotencyKey;
+    }
+
+    /**
+     * Hash a request body so a reused key with a different request can be detected
+     * @param requestBody Raw request body
+     * @return Hex-encoded SHA-256 hash
+     */
+    public static String hashRequest(String requestBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(requestBody.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Serialized response previously sent for an idempotency key
+     */
+    public static final class StoredResponse {
+        private final String requestHash;
+        private final byte[] body;
+
+        private StoredResponse(String requestHash, byte[] body) {
+            this.requestHash = requestHash;
+            this.body = body;
+        }
+
+        public String getRequestHash() {
+            return requestHash;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.model.Bill;
+import com.pahanaedu.bookshop.util.AppConfig;
+import com.pahanaedu.bookshop.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of fully assembled bills (with customer details and items), looked up by
+ * bill ID or bill number. A bill only changes when it is cancelled: cancelBill on this node
+ * invalidates the entry right after commit, and entries expire after a TTL so cancellations made
+ * on another node are picked up too. Both indexes are bounded LRU caches.
+ * Cached bills are shared between requests and must be treated as read-only.
+ */
+public class BillLookupCache {
+    private static final Logger logger = LoggerFactory.getLogger(BillLookupCache.class);
+
+    private static final BillLookupCache INSTANCE = new BillLookupCache();
+
+    private final LruCache<Integer, CachedBill> byId;
+    private final LruCache<String, Integer> idsByNumber;
+    private final long ttlNanos;
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private BillLookupCache() {
+        int maxEntries = AppConfig.getInt("bills.cache.maxEntries", 10000);
+        this.byId = new LruCache<>(maxEntries);
+        this.idsByNumber = new LruCache<>(maxEntries);
+        this.ttlNanos = AppConfig.getLong("bills.cache.ttlSeconds", 300) * 1_000_000_000L;
+    }
+
+    /**
+     * Get the shared cache
+     * @return Cache instance
+     */
+    public static BillLookupCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get a cached bill by ID
+     * @param billId Bill ID
+     * @return Bill, or null if not cached or expired
+     */
+    public Bill getById(Integer billId) {
+        CachedBill cached = byId.get(billId);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.loadedAt >= ttlNanos) {
+            byId.remove(billId);
+            expirations.incrementAndGet();
+            return null;
+        }
+        return cached.bill;
+    }
+
+    /**
+     * Get a cached bill by number
+     * @param billNumber Bill number
+     * @return Bill, or null if not cached or expired
+     */
+    public Bill getByNumber(String billNumber) {
+        Integer billId = idsByNumber.get(billNumber);
+        return billId != null ? getById(billId) : null;
+    }
+
+    /**
+     * Get the invalidation count, to be read before loading a bill from the database
+     * @return Token to pass to {@link #put(Bill, long)}
+     */
+    public long generation() {
+        return invalidations.get();
+    }
+
+    /**
+     * Cache a bill loaded with its items, unless a bill was invalidated while it was loading
+     * (the load may then have read the bill before its cancellation committed)
+     * @param bill Bill to cache
+     * @param generation Value of {@link #generation()} read before the load
+     */
+    public synchronized void put(Bill bill, long generation) {
+        if (invalidations.get() != generation) {
+            return;
+        }
+        byId.put(bill.getBillId(), new CachedBill(bill, System.nanoTime()));
+        idsByNumber.put(bill.getBillNumber(), bill.getBillId());
+    }
+
+    /**
+     * Drop a bill from the cache
+     * @param bill Bill to drop
+     */
+    public synchronized void invalidate(Bill bill) {
+        invalidations.incrementAndGet();
+        byId.remove(bill.getBillId());
+        if (bill.getBillNumber() != null) {
+            idsByNumber.remove(bill.getBillNumber());
+        }
+        logger.debug("Bill lookup cache invalidated for bill: {}", bill.getBillId());
+    }
+
+    /**
+     * Get cache statistics
+     * @return Map of statistic name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byId", byId.getStats());
+        stats.put("byNumber", idsByNumber.getStats());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    /**
+     * Bill with the time it was loaded
+     */
+    private static final class CachedBill {
+        private final Bill bill;
+        private final long loadedAt;
+
+        private CachedBill(Bill bill, long loadedAt) {
+            this.bill = bill;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.dao.SettingCounterDAO;
+import com.pahanaedu.bookshop.dao.SystemSettingsDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates bill numbers from blocks reserved on the billing counter setting.
+ * Each node reserves a block (e.g. 500 numbers) with one compare-and-set on the counter row
+ * and hands numbers out from memory, so the counter row is touched once per block rather
+ * than twice per bill. Numbers are unique across nodes but not gap-free: a block that is
+ * not used up before a restart is skipped.
+ */
+public class BillNumberAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(BillNumberAllocator.class);
+
+    static final String COUNTER_KEY = "billing.number_counter";
+    static final String PREFIX_KEY = "billing.number_prefix";
+    static final String BLOCK_SIZE_KEY = "billing.number_block_size";
+
+    private static final String DEFAULT_PREFIX = "BILL";
+    private static final int DEFAULT_BLOCK_SIZE = 500;
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final BillNumberAllocator INSTANCE = new BillNumberAllocator();
+
+    private final SettingCounterDAO settingCounterDAO;
+    private final SystemSettingsDAO systemSettingsDAO;
+    private volatile Block block = Block.EXHAUSTED;
+
+    private BillNumberAllocator() {
+        this.settingCounterDAO = new SettingCounterDAO();
+        this.systemSettingsDAO = new SystemSettingsDAO();
+    }
+
+    /**
+     * Get the shared allocator; blocks are per JVM, not per service instance
+     * @return Allocator instance
+     */
+    public static BillNumberAllocator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Allocate the next bill number in PREFIX + yyyyMM + %06d format
+     * @return Unique bill number
+     * @throws ServiceException if a new block cannot be reserved
+     */
+    public String nextBillNumber() throws ServiceException {
+        while (true) {
+            Block current = block;
+            long number = current.next.getAndIncrement();
+            if (number <= current.last) {
+                return format(current.prefix, number);
+            }
+
+            synchronized (this) {
+                // Another thread may already have replaced the exhausted block
+                if (block == current) {
+                    block = reserveBlock();
+                }
+            }
+        }
+    }
+
+    private Block reserveBlock() throws ServiceException {
+        try {
+            String prefix = systemSettingsDAO.getValue(PREFIX_KEY, DEFAULT_PREFIX);
+            int blockSize = parseBlockSize(systemSettingsDAO.getValue(BLOCK_SIZE_KEY, String.valueOf(DEFAULT_BLOCK_SIZE)));
+
+            long first = settingCounterDAO.reserveBlock(COUNTER_KEY, blockSize);
+            return new Block(prefix, first, first + blockSize - 1);
+
+        } catch (DAOException e) {
+            logger.error("Error reserving bill number block", e);
+            throw new ServiceException("Failed to generate bill number", e);
+        }
+    }
+
+    private int parseBlockSize(String value) {
+        try {
+            int blockSize = Integer.parseInt(value.trim());
+            return blockSize > 0 ? blockSize : DEFAULT_BLOCK_SIZE;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid {} setting '{}', using {}", BLOCK_SIZE_KEY, value, DEFAULT_BLOCK_SIZE);
+            return DEFAULT_BLOCK_SIZE;
+        }
+    }
+
+    private String format(String prefix, long number) {
+        return String.format("%s%s%06d", prefix, LocalDate.now().format(MONTH_FORMAT), number);
+    }
+
+    /**
+     * Range of reserved numbers handed out from memory
+     */
+    private static final class Block {
+        private static final Block EXHAUSTED = new Block(DEFAULT_PREFIX, 1, 0);
+
+        private final String prefix;
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(String prefix, long first, long last) {
+            this.prefix = prefix;
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.dao.BillCursor;
+import com.pahanaedu.bookshop.dao.BillDAO;
+import com.pahanaedu.bookshop.dao.BillItemDAO;
+import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.model.Bill;
+import com.pahanaedu.bookshop.model.BillItem;
+import com.pahanaedu.bookshop.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes ZIP archives of bill PDFs for a date range, newest bill first.
+ * Bills are read in keyset pages with the items of a whole page in one query, and no database
+ * connection is held while PDFs are rendered or the archive is sent. PDFs already in
+ * {@link BillPdfCache} are reused, but new renders are not added to it, so an archive does not
+ * flush the PDFs kept for reprints. Renders run in parallel on a shared bounded pool; at most a fixed
+ * window of renders is in flight per archive, so memory stays flat however many bills the range
+ * contains.
+ */
+public class BillPdfArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(BillPdfArchiveService.class);
+
+    private static final ExecutorService renderPool = createRenderPool();
+    private static final ThreadLocal<PdfBillService> renderers = ThreadLocal.withInitial(PdfBillService::new);
+
+    private final BillDAO billDAO;
+    private final BillItemDAO billItemDAO;
+    private final BillPdfCache billPdfCache;
+    private final int window;
+    private final int pageSize;
+
+    public BillPdfArchiveService() {
+        this.billDAO = new BillDAO();
+        this.billItemDAO = new BillItemDAO();
+        this.billPdfCache = BillPdfCache.getInstance();
+        this.window = Math.max(1, AppConfig.getInt("pdf.archive.window", 8));
+        this.pageSize = Math.max(window, AppConfig.getInt("pdf.archive.pageSize", 100));
+    }
+
+    /**
+     * Write a ZIP archive with one PDF per active bill in the date range
+     * @param startDate Start date
+     * @param endDate End date
+     * @param out Target stream (not closed)
+     * @return Number of PDFs written
+     * @throws ServiceException if bills cannot be read
+     * @throws IOException if rendering or writing fails; the archive is incomplete
+     */
+    public int writeArchive(LocalDate startDate, LocalDate endDate, OutputStream out) throws ServiceException, IOException {
+        Deque<Future<RenderedPdf>> pending = new ArrayDeque<>();
+        AtomicInteger written = new AtomicInteger();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PDF content is already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        try {
+            BillCursor position = null;
+            List<Bill> page;
+            do {
+                // Each page query returns its connection before any rendering or writing
+                page = billDAO.findByDateRangeAfter(startDate, endDate, position, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                List<Integer> billIds = new ArrayList<>();
+                for (Bill bill : page) {
+                    billIds.add(bill.getBillId());
+                }
+                Map<Integer, List<BillItem>> itemsByBill = billItemDAO.findByBills(billIds);
+
+                for (Bill bill : page) {
+                    bill.setBillItems(itemsByBill.getOrDefault(bill.getBillId(), new ArrayList<>()));
+                    pending.addLast(renderPool.submit(() -> render(bill)));
+                    if (pending.size() >= window) {
+                        writeEntry(zip, pending.removeFirst());
+                        written.incrementAndGet();
+                    }
+                }
+                position = BillCursor.after(page.get(page.size() - 1));
+            } while (page.size() == pageSize);
+
+            while (!pending.isEmpty()) {
+                writeEntry(zip, pending.removeFirst());
+                written.incrementAndGet();
+            }
+            zip.finish();
+
+            logger.info("Bill PDF archive written: {} to {}, {} bills", startDate, endDate, written.get());
+            return written.get();
+
+        } catch (DAOException e) {
+            logger.error("Error reading bills for PDF archive: {} to {}", startDate, endDate, e);
+            throw new ServiceException("Failed to read bills for archive", e);
+        } finally {
+            for (Future<RenderedPdf> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Stop the shared render pool
+     */
+    public static void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    private RenderedPdf render(Bill bill) throws ServiceException {
+        byte[] cached = billPdfCache.findCached(bill);
+        byte[] pdf = cached != null ? cached : renderers.get().generateBillPdf(bill);
+        return new RenderedPdf(bill.getBillNumber(), pdf);
+    }
+
+    private static void writeEntry(ZipOutputStream zip, Future<RenderedPdf> future) throws IOException {
+        RenderedPdf pdf;
+        try {
+            pdf = future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render bill PDF for archive", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering bill PDFs", e);
+        }
+
+        zip.putNextEntry(new ZipEntry("bill-" + pdf.billNumber + ".pdf"));
+        zip.write(pdf.bytes);
+        zip.closeEntry();
+    }
+
+    private static ExecutorService createRenderPool() {
+        int threads = Math.max(1, AppConfig.getInt("pdf.archive.threads",
+            Math.min(4, Runtime.getRuntime().availableProcessors())));
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bill-pdf-archive-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class RenderedPdf {
+        private final String billNumber;
+        private final byte[] bytes;
+
+        private RenderedPdf(String billNumber, byte[] bytes) {
+            this.billNumber = billNumber;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.event.BillEvent;
+import com.pahanaedu.bookshop.event.BillEventBus;
+import com.pahanaedu.bookshop.model.Bill;
+import com.pahanaedu.bookshop.util.AppConfig;
+import com.pahanaedu.bookshop.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of rendered bill PDFs.
+ * Entries are keyed by bill ID and only match while the bill's updated_at is unchanged, so an
+ * edited or cancelled bill is never served from a stale render. Memory is bounded by total PDF
+ * bytes with LRU eviction; PDFs evicted from memory are written to a spill directory (also
+ * bounded by bytes) and served from disk until evicted again. Each instance spills into its own
+ * new directory, created under pdf.cache.spillDir or the system temp directory and removed by
+ * {@link #shutdown}, so instances sharing a host never touch each other's files. Concurrent requests for the same uncached bill share a single render,
+ * and PDFs larger than pdf.cache.maxMemoryEntryBytes go straight to disk so they do not stay on
+ * the heap; with spilling turned off (spillDir "none") they are not cached at all.
+ * Use {@link #open} to stream a PDF to a response without loading spilled files into memory.
+ */
+public class BillPdfCache {
+    private static final Logger logger = LoggerFactory.getLogger(BillPdfCache.class);
+
+    private static final BillPdfCache INSTANCE = new BillPdfCache();
+
+    private static final String SPILL_DISABLED = "none";
+    private static final String SPILL_DIRECTORY_PREFIX = "pahana-pdf-cache-";
+
+    private final LruCache<Integer, CachedPdf> memory;
+    private final LruCache<Integer, SpilledPdf> spilled;
+    private final Path spillDirectory;
+    private final long maxMemoryEntryBytes;
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private BillPdfCache() {
+        long maxBytes = AppConfig.getLong("pdf.cache.maxBytes", 64L * 1024 * 1024);
+        String spillDir = AppConfig.getString("pdf.cache.spillDir", null);
+
+        this.spillDirectory = !SPILL_DISABLED.equalsIgnoreCase(spillDir) ? createSpillDirectory(spillDir) : null;
+        this.maxMemoryEntryBytes = AppConfig.getLong("pdf.cache.maxMemoryEntryBytes", 1024L * 1024);
+        if (spillDirectory != null) {
+            long spillMaxBytes = AppConfig.getLong("pdf.cache.spillMaxBytes", 1024L * 1024 * 1024);
+            this.spilled = new LruCache<>(spillMaxBytes, pdf -> pdf.size, (billId, pdf) -> deleteQuietly(pdf.path));
+            this.memory = new LruCache<>(maxBytes, pdf -> pdf.bytes.length, this::spill);
+        } else {
+            this.spilled = null;
+            this.memory = new LruCache<>(maxBytes, pdf -> pdf.bytes.length);
+        }
+
+        BillEventBus.getInstance().subscribe("pdf-cache", event -> {
+            if (event.getType() == BillEvent.Type.CANCELLED) {
+                invalidate(event.getBill().getBillId());
+            }
+        });
+    }
+
+    /**
+     * Get the shared cache
+     * @return Cache instance
+     */
+    public static BillPdfCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Open the PDF for a bill for streaming, rendering and caching it on a miss.
+     * Spilled PDFs are streamed from disk rather than read into memory.
+     * @param bill Bill to render
+     * @param pdfBillService Renderer used on a miss
+     * @return Open PDF source; the caller must close it
+     * @throws ServiceException if rendering fails
+     */
+    public PdfSource open(Bill bill, PdfBillService pdfBillService) throws ServiceException {
+        CachedPdf inMemory = findInMemory(bill);
+        if (inMemory != null) {
+            return new PdfSource(inMemory.bytes);
+        }
+
+        SpilledPdf onDisk = findOnDisk(bill);
+        if (onDisk != null) {
+            try {
+                // An open stream stays readable even if the file is evicted while it is sent
+                return new PdfSource(Files.newInputStream(onDisk.path), onDisk.size);
+            } catch (IOException e) {
+                logger.warn("Failed to open spilled PDF for bill: {}", bill.getBillId(), e);
+                spilled.remove(bill.getBillId());
+            }
+        }
+
+        return new PdfSource(getOrRender(bill, pdfBillService));
+    }
+
+    /**
+     * Get the PDF for a bill, rendering and caching it on a miss
+     * @param bill Bill to render
+     * @param pdfBillService Renderer used on a miss
+     * @return PDF bytes
+     * @throws ServiceException if rendering fails
+     */
+    public byte[] getOrRender(Bill bill, PdfBillService pdfBillService) throws ServiceException {
+        byte[] cached = get(bill);
+        if (cached != null) {
+            return cached;
+        }
+
+        String renderKey = bill.getBillId() + "@" + bill.getUpdatedAt();
+        CompletableFuture<byte[]> render = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(renderKey, render);
+        if (existing != null) {
+            return awaitRender(existing);
+        }
+
+        try {
+            byte[] pdf = pdfBillService.generateBillPdf(bill);
+            CachedPdf cachedPdf = new CachedPdf(bill.getUpdatedAt(), pdf);
+            if (pdf.length > maxMemoryEntryBytes) {
+                if (spilled != null) {
+                    spill(bill.getBillId(), cachedPdf);
+                }
+            } else {
+                memory.put(bill.getBillId(), cachedPdf);
+            }
+            render.complete(pdf);
+            return pdf;
+        } catch (ServiceException | RuntimeException e) {
+            render.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(renderKey, render);
+        }
+    }
+
+    /**
+     * Look up a cached PDF without rendering or adding anything to the cache, for bulk readers
+     * such as archives that would otherwise evict the PDFs reprints need. Spilled PDFs are read
+     * from disk but not promoted back to memory.
+     * @param bill Bill
+     * @return PDF bytes, or null if the bill's current version is not cached
+     */
+    public byte[] findCached(Bill bill) {
+        CachedPdf inMemory = findInMemory(bill);
+        if (inMemory != null) {
+            return inMemory.bytes;
+        }
+
+        SpilledPdf onDisk = findOnDisk(bill);
+        if (onDisk == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(onDisk.path);
+        } catch (IOException e) {
+            logger.warn("Failed to read spilled PDF for bill: {}", bill.getBillId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Remove a bill's PDF from memory and disk
+     * @param billId Bill ID
+     */
+    public void invalidate(Integer billId) {
+        memory.remove(billId);
+        if (spilled != null) {
+            SpilledPdf pdf = spilled.remove(billId);
+            if (pdf != null) {
+                deleteQuietly(pdf.path);
+            }
+        }
+        logger.debug("PDF cache invalidated for bill: {}", billId);
+    }
+
+    /**
+     * Delete this instance's spill directory and the PDFs in it
+     */
+    public void shutdown() {
+        if (spillDirectory == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory)) {
+            for (Path file : files) {
+                deleteQuietly(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to list PDF cache spill directory: {}", spillDirectory, e);
+        }
+        deleteQuietly(spillDirectory);
+        logger.info("PDF cache spill directory removed: {}", spillDirectory);
+    }
+
+    /**
+     * Get cache statistics
+     * @return Map of statistic name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("memory", memory.getStats());
+        if (spilled != null) {
+            stats.put("disk", spilled.getStats());
+        }
+        return stats;
+    }
+
+    private byte[] get(Bill bill) {
+        Integer billId = bill.getBillId();
+
+        CachedPdf inMemory = findInMemory(bill);
+        if (inMemory != null) {
+            return inMemory.bytes;
+        }
+
+        SpilledPdf onDisk = findOnDisk(bill);
+        if (onDisk == null) {
+            return null;
+        }
+
+        try {
+            byte[] pdf = Files.readAllBytes(onDisk.path);
+            // Promote back to memory; the disk copy is dropped once it is in memory again
+            spilled.remove(billId);
+            deleteQuietly(onDisk.path);
+            memory.put(billId, new CachedPdf(onDisk.updatedAt, pdf));
+            return pdf;
+        } catch (IOException e) {
+            logger.warn("Failed to read spilled PDF for bill: {}", billId, e);
+            spilled.remove(billId);
+            return null;
+        }
+    }
+
+    private CachedPdf findInMemory(Bill bill) {
+        CachedPdf inMemory = memory.get(bill.getBillId());
+        if (inMemory != null && !Objects.equals(inMemory.updatedAt, bill.getUpdatedAt())) {
+            memory.remove(bill.getBillId());
+            return null;
+        }
+        return inMemory;
+    }
+
+    private SpilledPdf findOnDisk(Bill bill) {
+        if (spilled == null) {
+            return null;
+        }
+        SpilledPdf onDisk = spilled.get(bill.getBillId());
+        if (onDisk != null && !Objects.equals(onDisk.updatedAt, bill.getUpdatedAt())) {
+            invalidate(bill.getBillId());
+            return null;
+        }
+        return onDisk;
+    }
+
+    private void spill(Integer billId, CachedPdf pdf) {
+        Path target = spillDirectory.resolve("bill-" + billId + ".pdf");
+        try {
+            Path temp = Files.createTempFile(spillDirectory, "bill-" + billId + "-", ".tmp");
+            Files.write(temp, pdf.bytes);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            spilled.put(billId, new SpilledPdf(pdf.updatedAt, target, pdf.bytes.length));
+        } catch (IOException e) {
+            logger.warn("Failed to spill PDF for bill {} to disk", billId, e);
+        }
+    }
+
+    private static byte[] awaitRender(CompletableFuture<byte[]> render) throws ServiceException {
+        try {
+            return render.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ServiceException) {
+                throw (ServiceException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Path createSpillDirectory(String parent) {
+        try {
+            Path directory;
+            if (parent != null) {
+                directory = Files.createTempDirectory(Files.createDirectories(Paths.get(parent)), SPILL_DIRECTORY_PREFIX);
+            } else {
+                directory = Files.createTempDirectory(SPILL_DIRECTORY_PREFIX);
+            }
+            logger.info("PDF cache spill directory: {}", directory.toAbsolutePath());
+            return directory;
+        } catch (IOException e) {
+            logger.warn("PDF cache spill directory under {} is not usable, spilling disabled",
+                        parent != null ? parent : "the temp directory", e);
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete cached PDF file: {}", path, e);
+        }
+    }
+
+    /**
+     * Rendered PDF ready to be written, either from memory or from a spilled file
+     */
+    public static final class PdfSource implements Closeable {
+        private final byte[] bytes;
+        private final InputStream stream;
+        private final long size;
+
+        private PdfSource(byte[] bytes) {
+            this.bytes = bytes;
+            this.stream = null;
+            this.size = bytes.length;
+        }
+
+        private PdfSource(InputStream stream, long size) {
+            this.bytes = null;
+            this.stream = stream;
+            this.size = size;
+        }
+
+        /**
+         * Get the PDF size in bytes
+         * @return Size in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Write the PDF, copying spilled files through a small buffer
+         * @param out Target stream
+         * @throws IOException if writing fails
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            if (bytes != null) {
+                out.write(bytes);
+            } else {
+                stream.transferTo(out);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    private static final class CachedPdf {
+        private final LocalDateTime updatedAt;
+        private final byte[] bytes;
+
+        private CachedPdf(LocalDateTime updatedAt, byte[] bytes) {
+            this.updatedAt = updatedAt;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class SpilledPdf {
+        private final LocalDateTime updatedAt;
+        private final Path path;
+        private final long size;
+
+        private SpilledPdf(LocalDateTime updatedAt, Path path, long size) {
+            this.updatedAt = updatedAt;
+            this.path = path;
+            this.size = size;
+        }
+    }
+}
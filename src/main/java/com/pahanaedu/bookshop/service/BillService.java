@@ -1,6 +1,8 @@
 package com.pahanaedu.bookshop.service;
 
 import com.pahanaedu.bookshop.dao.*;
+import com.pahanaedu.bookshop.event.BillEvent;
+import com.pahanaedu.bookshop.event.BillEventBus;
 import com.pahanaedu.bookshop.model.*;
 import com.pahanaedu.bookshop.util.ValidationUtil;
 import org.slf4j.Logger;
@@ -9,11 +11,14 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for Bill-related business logic
@@ -26,8 +31,12 @@ public class BillService {
     private final CustomerDAO customerDAO;
     private final ItemDAO itemDAO;
     private final StockMovementDAO stockMovementDAO;
-    private final ActivityLogDAO activityLogDAO;
-    private final SystemSettingsDAO systemSettingsDAO;
+    private final DailySalesDAO dailySalesDAO;
+    private final IdempotencyKeyDAO idempotencyKeyDAO;
+    private final BillNumberAllocator billNumberAllocator;
+    private final BillEventBus billEventBus;
+    private final TableVersionService tableVersions;
+    private final BillLookupCache billLookupCache;
 
     public BillService() {
         this.billDAO = new BillDAO();
@@ -35,8 +44,13 @@ public class BillService {
         this.customerDAO = new CustomerDAO();
         this.itemDAO = new ItemDAO();
         this.stockMovementDAO = new StockMovementDAO();
-        this.activityLogDAO = new ActivityLogDAO();
-        this.systemSettingsDAO = new SystemSettingsDAO();
+        this.dailySalesDAO = new DailySalesDAO();
+        this.idempotencyKeyDAO = new IdempotencyKeyDAO();
+        this.billNumberAllocator = BillNumberAllocator.getInstance();
+        this.billEventBus = BillEventBus.getInstance();
+        this.tableVersions = TableVersionService.getInstance();
+        this.billLookupCache = BillLookupCache.getInstance();
+        BillEventSubscribers.registerDefaults(billEventBus);
     }
 
     /**
@@ -48,6 +62,20 @@ public class BillService {
      * @throws ServiceException if creation fails
      */
     public Bill createBill(Bill bill, List<BillItem> billItems, Integer createdBy) throws ServiceException {
+        return createBill(bill, billItems, createdBy, null);
+    }
+
+    /**
+     * Create a new bill with items, claiming a client idempotency key in the same transaction
+     * @param bill Bill to create
+     * @param billItems List of bill items
+     * @param createdBy ID of user creating this bill
+     * @param idempotencyKey Key to claim, or null for no deduplication
+     * @return Created bill with items
+     * @throws ServiceException if creation fails, or with a "Duplicate idempotency key" message
+     *         if the key was already used (nothing is written in that case)
+     */
+    public Bill createBill(Bill bill, List<BillItem> billItems, Integer createdBy, IdempotencyKey idempotencyKey) throws ServiceException {
         try {
             // Validate bill data
             Map<String, String> validationErrors = validateBill(bill, billItems);
@@ -55,44 +83,60 @@ public class BillService {
                 throw new ServiceException("Validation failed: " + validationErrors);
             }
 
-            // Validate customer exists
-            if (!customerDAO.exists(bill.getCustomerId())) {
-                throw new ServiceException("Customer not found with ID: " + bill.getCustomerId());
-            }
-
-            // Generate bill number if not provided
+            // Generate bill number if not provided (outside the bill transaction; numbers
+            // come from a pre-reserved block and only touch the database once per block)
             if (bill.getBillNumber() == null || bill.getBillNumber().trim().isEmpty()) {
                 bill.setBillNumber(generateBillNumber());
             }
 
-            // Validate stock availability and reserve stock
-            Map<Integer, Integer> originalStock = validateAndReserveStock(billItems);
+            // All reads and writes below share one connection and commit once
+            Bill savedBill = TransactionManager.inTransaction(() -> {
+                // Claim the key first so a concurrent retry waits here and then fails fast
+                if (idempotencyKey != null && !idempotencyKeyDAO.claim(idempotencyKey)) {
+                    throw new ServiceException("Duplicate idempotency key: " + idempotencyKey.getIdempotencyKey());
+                }
 
-            // Calculate totals
-            calculateBillTotals(bill, billItems);
+                // Validate customer exists
+                if (!customerDAO.exists(bill.getCustomerId())) {
+                    throw new ServiceException("Customer not found with ID: " + bill.getCustomerId());
+                }
 
-            bill.setCreatedBy(createdBy);
-            Bill savedBill = billDAO.save(bill);
+                // Calculate totals
+                calculateBillTotals(bill, billItems);
 
-            // Save bill items
-            for (BillItem billItem : billItems) {
-                billItem.setBillId(savedBill.getBillId());
-                billItem.recalculateLineTotal();
-            }
-            billItemDAO.saveBatch(billItems);
-            savedBill.setBillItems(billItems);
+                // Add to customer running totals (locks the customer row before any item rows)
+                customerDAO.addBillTotals(List.of(bill));
 
-            // Update stock quantities and create stock movements
-            updateStockForBillSafe(billItems, savedBill.getBillId(), createdBy, originalStock);
+                // Validate stock availability and reserve stock in one conditional update
+                reserveStock(billItems);
 
-            // Update customer totals
-            updateCustomerTotals(bill.getCustomerId());
+                bill.setCreatedBy(createdBy);
+                Bill created = billDAO.save(bill);
+
+                // Save bill items
+                for (BillItem billItem : billItems) {
+                    billItem.setBillId(created.getBillId());
+                    billItem.recalculateLineTotal();
+                }
+                assignCategories(billItems);
+                billItemDAO.saveBatch(billItems);
+                created.setBillItems(billItems);
 
-            // Log activity
-            logActivity(createdBy, ActivityLog.Actions.BILL_CREATED, "bills", savedBill.getBillId(), 
-                      "Bill created: " + savedBill.getBillNumber() + " - Amount: " + savedBill.getTotalAmount());
+                // Create stock movements and update sales totals
+                recordSales(List.of(created), createdBy);
+                addToDailySales(List.of(created));
 
-            logger.info("Bill created successfully: {} - Amount: {}", savedBill.getBillNumber(), savedBill.getTotalAmount());
+                if (idempotencyKey != null) {
+                    idempotencyKeyDAO.attachBill(idempotencyKey, created.getBillId());
+                }
+
+                // Bills, stock and customer totals all changed
+                tableVersions.bump(TableVersionDAO.Table.BILLS, TableVersionDAO.Table.ITEMS, TableVersionDAO.Table.CUSTOMERS);
+                return created;
+            });
+
+            // Activity log and logging run after commit, off the request thread
+            billEventBus.publish(BillEvent.created(savedBill, createdBy));
             return savedBill;
 
         } catch (DAOException e) {
@@ -101,6 +145,96 @@ public class BillService {
         }
     }
 
+    /**
+     * Create several bills in one transaction, using multi-row inserts for bills, bill items,
+     * stock movements and idempotency keys. Either every bill is created or none is; callers
+     * that need per-bill outcomes retry the bills one by one with createBill after a failure.
+     * @param bills Bills to create, each with its bill items set
+     * @param idempotencyKeys Key to claim per bill (same order as bills, null entries for none)
+     * @param createdBy ID of user creating the bills
+     * @return Created bills with items
+     * @throws ServiceException if any bill is invalid or cannot be created
+     */
+    public List<Bill> createBills(List<Bill> bills, List<IdempotencyKey> idempotencyKeys, Integer createdBy) throws ServiceException {
+        try {
+            for (Bill bill : bills) {
+                Map<String, String> validationErrors = validateBill(bill, bill.getBillItems());
+                if (!validationErrors.isEmpty()) {
+                    throw new ServiceException("Validation failed: " + validationErrors);
+                }
+                if (bill.getBillNumber() == null || bill.getBillNumber().trim().isEmpty()) {
+                    bill.setBillNumber(generateBillNumber());
+                }
+            }
+
+            List<IdempotencyKey> keysToClaim = new ArrayList<>();
+            for (IdempotencyKey key : idempotencyKeys) {
+                if (key != null) {
+                    keysToClaim.add(key);
+                }
+            }
+
+            TransactionManager.inTransaction(() -> {
+                if (!idempotencyKeyDAO.claimBatch(keysToClaim)) {
+                    throw new ServiceException("Duplicate idempotency key in batch");
+                }
+
+                Set<Integer> customerIds = new LinkedHashSet<>();
+                List<BillItem> allItems = new ArrayList<>();
+                for (Bill bill : bills) {
+                    customerIds.add(bill.getCustomerId());
+                    allItems.addAll(bill.getBillItems());
+                }
+                for (Integer customerId : customerIds) {
+                    if (!customerDAO.exists(customerId)) {
+                        throw new ServiceException("Customer not found with ID: " + customerId);
+                    }
+                }
+
+                for (Bill bill : bills) {
+                    calculateBillTotals(bill, bill.getBillItems());
+                    bill.setCreatedBy(createdBy);
+                }
+                customerDAO.addBillTotals(bills);
+
+                // One conditional decrement for the whole chunk
+                reserveStock(allItems);
+
+                billDAO.saveBatch(bills);
+
+                Map<String, Integer> billIdsByKey = new LinkedHashMap<>();
+                for (int i = 0; i < bills.size(); i++) {
+                    Bill bill = bills.get(i);
+                    for (BillItem billItem : bill.getBillItems()) {
+                        billItem.setBillId(bill.getBillId());
+                        billItem.recalculateLineTotal();
+                    }
+                    IdempotencyKey key = idempotencyKeys.get(i);
+                    if (key != null) {
+                        billIdsByKey.put(key.getIdempotencyKey(), bill.getBillId());
+                    }
+                }
+                assignCategories(allItems);
+                billItemDAO.saveBatch(allItems);
+
+                recordSales(bills, createdBy);
+                addToDailySales(bills);
+                idempotencyKeyDAO.attachBills(createdBy, billIdsByKey);
+                tableVersions.bump(TableVersionDAO.Table.BILLS, TableVersionDAO.Table.ITEMS, TableVersionDAO.Table.CUSTOMERS);
+
+                return null;
+            });
+            for (Bill bill : bills) {
+                billEventBus.publish(BillEvent.created(bill, createdBy));
+            }
+            return bills;
+
+        } catch (DAOException e) {
+            logger.error("Error creating batch of {} bills", bills.size(), e);
+            throw new ServiceException("Failed to create bills", e);
+        }
+    }
+
     /**
      * Get bill by ID with items
      * @param billId Bill ID
@@ -108,15 +242,17 @@ public class BillService {
      * @throws ServiceException if retrieval fails
      */
     public Optional<Bill> getBillById(Integer billId) throws ServiceException {
+        Bill cached = billLookupCache.getById(billId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
         try {
-            Optional<Bill> billOpt = billDAO.findById(billId);
-            if (billOpt.isPresent()) {
-                Bill bill = billOpt.get();
-                List<BillItem> billItems = billItemDAO.findByBill(billId);
-                bill.setBillItems(billItems);
-                return Optional.of(bill);
-            }
-            return Optional.empty();
+            // Bill and items are mapped from one joined query
+            long generation = billLookupCache.generation();
+            Optional<Bill> bill = billDAO.findByIdWithItems(billId);
+            bill.ifPresent(found -> billLookupCache.put(found, generation));
+            return bill;
         } catch (DAOException e) {
             logger.error("Error getting bill by ID: {}", billId, e);
             throw new ServiceException("Failed to get bill", e);
@@ -130,21 +266,49 @@ public class BillService {
      * @throws ServiceException if retrieval fails
      */
     public Optional<Bill> getBillByNumber(String billNumber) throws ServiceException {
+        Bill cached = billLookupCache.getByNumber(billNumber);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
         try {
-            Optional<Bill> billOpt = billDAO.findByNumber(billNumber);
-            if (billOpt.isPresent()) {
-                Bill bill = billOpt.get();
-                List<BillItem> billItems = billItemDAO.findByBill(bill.getBillId());
-                bill.setBillItems(billItems);
-                return Optional.of(bill);
-            }
-            return Optional.empty();
+            // Bill and items are mapped from one joined query
+            long generation = billLookupCache.generation();
+            Optional<Bill> bill = billDAO.findByNumberWithItems(billNumber);
+            bill.ifPresent(found -> billLookupCache.put(found, generation));
+            return bill;
         } catch (DAOException e) {
             logger.error("Error getting bill by number: {}", billNumber, e);
             throw new ServiceException("Failed to get bill", e);
         }
     }
 
+    /**
+     * Load the items of several bills with one query and set them on the bills
+     * @param bills Bills to fill in
+     * @throws ServiceException if retrieval fails
+     */
+    public void loadBillItems(List<Bill> bills) throws ServiceException {
+        if (bills.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Integer> billIds = new ArrayList<>(bills.size());
+            for (Bill bill : bills) {
+                billIds.add(bill.getBillId());
+            }
+
+            Map<Integer, List<BillItem>> itemsByBill = billItemDAO.findByBills(billIds);
+            for (Bill bill : bills) {
+                bill.setBillItems(itemsByBill.getOrDefault(bill.getBillId(), new ArrayList<>()));
+            }
+        } catch (DAOException e) {
+            logger.error("Error loading items for {} bills", bills.size(), e);
+            throw new ServiceException("Failed to load bill items", e);
+        }
+    }
+
     /**
      * Get all bills with pagination
      * @param page Page number (1-based)
@@ -162,6 +326,60 @@ public class BillService {
         }
     }
 
+    /**
+     * Get bills page by page with a continuation token
+     * @param cursor Token from the previous page, or null/empty for the first page
+     * @param pageSize Number of items per page
+     * @return Page of bills, newest first
+     * @throws ServiceException if the token is invalid or retrieval fails
+     */
+    public CursorPage<Bill> getBillsAfter(String cursor, int pageSize) throws ServiceException {
+        BillCursor position = decodeCursor(cursor);
+        try {
+            return toCursorPage(billDAO.findAllAfter(position, pageSize + 1), pageSize);
+        } catch (DAOException e) {
+            logger.error("Error getting bills after cursor", e);
+            throw new ServiceException("Failed to get bills", e);
+        }
+    }
+
+    /**
+     * Get active bills of a customer page by page with a continuation token
+     * @param customerId Customer ID
+     * @param cursor Token from the previous page, or null/empty for the first page
+     * @param pageSize Number of items per page
+     * @return Page of bills, newest first
+     * @throws ServiceException if the token is invalid or retrieval fails
+     */
+    public CursorPage<Bill> getBillsByCustomerAfter(Integer customerId, String cursor, int pageSize) throws ServiceException {
+        BillCursor position = decodeCursor(cursor);
+        try {
+            return toCursorPage(billDAO.findByCustomerAfter(customerId, position, pageSize + 1), pageSize);
+        } catch (DAOException e) {
+            logger.error("Error getting bills by customer after cursor: {}", customerId, e);
+            throw new ServiceException("Failed to get bills by customer", e);
+        }
+    }
+
+    /**
+     * Get active bills in a date range page by page with a continuation token
+     * @param startDate Start date
+     * @param endDate End date
+     * @param cursor Token from the previous page, or null/empty for the first page
+     * @param pageSize Number of items per page
+     * @return Page of bills, newest first
+     * @throws ServiceException if the token is invalid or retrieval fails
+     */
+    public CursorPage<Bill> getBillsByDateRangeAfter(LocalDate startDate, LocalDate endDate, String cursor, int pageSize) throws ServiceException {
+        BillCursor position = decodeCursor(cursor);
+        try {
+            return toCursorPage(billDAO.findByDateRangeAfter(startDate, endDate, position, pageSize + 1), pageSize);
+        } catch (DAOException e) {
+            logger.error("Error getting bills by date range after cursor: {} to {}", startDate, endDate, e);
+            throw new ServiceException("Failed to get bills by date range", e);
+        }
+    }
+
     /**
      * Get bills by customer
      * @param customerId Customer ID
@@ -208,31 +426,35 @@ public class BillService {
      */
     public Bill cancelBill(Integer billId, Integer cancelledBy) throws ServiceException {
         try {
-            Optional<Bill> billOpt = getBillById(billId);
-            if (billOpt.isEmpty()) {
-                throw new ServiceException("Bill not found with ID: " + billId);
-            }
+            Bill updatedBill = TransactionManager.inTransaction(() -> {
+                // Flip the status first: the conditional update locks the bill row, so a concurrent
+                // cancellation waits here and then finds the bill no longer active
+                if (!billDAO.cancel(billId)) {
+                    if (!billDAO.exists(billId)) {
+                        throw new ServiceException("Bill not found with ID: " + billId);
+                    }
+                    throw new ServiceException("Only active bills can be cancelled");
+                }
 
-            Bill bill = billOpt.get();
-            if (bill.getStatus() != Bill.BillStatus.ACTIVE) {
-                throw new ServiceException("Only active bills can be cancelled");
-            }
+                // Read through to the database: the cached copy must not be modified
+                Bill bill = billDAO.findByIdWithItems(billId)
+                    .orElseThrow(() -> new ServiceException("Bill not found with ID: " + billId));
 
-            // Update bill status
-            bill.setStatus(Bill.BillStatus.CANCELLED);
-            Bill updatedBill = billDAO.update(bill);
+                // Remove from customer running totals (locks the customer row before any item rows)
+                customerDAO.subtractBillTotals(List.of(bill));
 
-            // Restore stock quantities
-            restoreStockForBill(bill.getBillItems(), billId, cancelledBy);
+                // Restore stock quantities
+                restoreStockForBill(bill.getBillItems(), billId, cancelledBy);
+                dailySalesDAO.subtractBills(List.of(bill));
+                tableVersions.bump(TableVersionDAO.Table.BILLS, TableVersionDAO.Table.ITEMS, TableVersionDAO.Table.CUSTOMERS);
 
-            // Update customer totals
-            updateCustomerTotals(bill.getCustomerId());
+                return bill;
+            });
 
-            // Log activity
-            logActivity(cancelledBy, ActivityLog.Actions.BILL_CANCELLED, "bills", billId, 
-                      "Bill cancelled: " + bill.getBillNumber());
+            billLookupCache.invalidate(updatedBill);
 
-            logger.info("Bill cancelled successfully: {}", bill.getBillNumber());
+            // Activity log and logging run after commit, off the request thread
+            billEventBus.publish(BillEvent.cancelled(updatedBill, cancelledBy));
             return updatedBill;
 
         } catch (DAOException e) {
@@ -242,17 +464,33 @@ public class BillService {
     }
 
     /**
-     * Get total count of bills
+     * Get total count of bills, served from the event-maintained count cache
      * @return Total count
      * @throws ServiceException if count fails
      */
     public long getBillCount() throws ServiceException {
-        try {
-            return billDAO.count();
-        } catch (DAOException e) {
-            logger.error("Error counting bills", e);
-            throw new ServiceException("Failed to count bills", e);
-        }
+        return BillCountService.getInstance().getTotalCount();
+    }
+
+    /**
+     * Get count of active bills of a customer, served from the event-maintained count cache
+     * @param customerId Customer ID
+     * @return Bill count
+     * @throws ServiceException if count fails
+     */
+    public long getBillCountByCustomer(Integer customerId) throws ServiceException {
+        return BillCountService.getInstance().getCountByCustomer(customerId);
+    }
+
+    /**
+     * Get count of bills of a customer with a status, served from the event-maintained count cache
+     * @param customerId Customer ID
+     * @param status Bill status
+     * @return Bill count
+     * @throws ServiceException if count fails
+     */
+    public long getBillCountByCustomer(Integer customerId, Bill.BillStatus status) throws ServiceException {
+        return BillCountService.getInstance().getCountByCustomer(customerId, status);
     }
 
     /**
@@ -261,55 +499,67 @@ public class BillService {
      * @throws ServiceException if generation fails
      */
     public String generateBillNumber() throws ServiceException {
+        return billNumberAllocator.nextBillNumber();
+    }
+
+    private BillCursor decodeCursor(String cursor) throws ServiceException {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return null;
+        }
         try {
-            String prefix = systemSettingsDAO.getValue("billing.number_prefix", "BILL");
-            String counterKey = "billing.number_counter";
-            
-            String counterStr = systemSettingsDAO.getValue(counterKey, "0");
-            int counter = Integer.parseInt(counterStr) + 1;
-            
-            String billNumber = String.format("%s%s%06d", prefix, 
-                LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM")), counter);
-            
-            // Update counter
-            systemSettingsDAO.updateValue(counterKey, String.valueOf(counter), null);
-            
-            return billNumber;
-            
-        } catch (Exception e) {
-            logger.error("Error generating bill number", e);
-            throw new ServiceException("Failed to generate bill number", e);
+            return BillCursor.decode(cursor.trim());
+        } catch (IllegalArgumentException e) {
+            throw new ServiceException("Validation failed: invalid cursor");
         }
     }
 
     /**
-     * Validate stock availability and reserve stock for bill items
-     * Returns a map of original stock quantities for rollback if needed
+     * Build a page from a query that fetched one row more than the page size
      */
-    private Map<Integer, Integer> validateAndReserveStock(List<BillItem> billItems) throws ServiceException, DAOException {
-        Map<Integer, Integer> originalStock = new HashMap<>();
+    private CursorPage<Bill> toCursorPage(List<Bill> bills, int pageSize) {
+        if (bills.size() <= pageSize) {
+            return new CursorPage<>(bills, null);
+        }
+        List<Bill> page = new ArrayList<>(bills.subList(0, pageSize));
+        return new CursorPage<>(page, BillCursor.after(page.get(pageSize - 1)).encode());
+    }
 
-        for (BillItem billItem : billItems) {
-            Optional<Item> itemOpt = itemDAO.findById(billItem.getItemId());
-            if (itemOpt.isEmpty()) {
-                throw new ServiceException("Item not found with ID: " + billItem.getItemId());
+    /**
+     * Validate stock availability and reserve stock for bill items.
+     * Stock is decremented with a single batched conditional update, so validation and
+     * reservation happen atomically and concurrent bills cannot oversell an item.
+     */
+    private void reserveStock(List<BillItem> billItems) throws ServiceException, DAOException {
+        Map<Integer, Integer> quantities = totalQuantitiesByItem(billItems);
+
+        List<Integer> rejected = itemDAO.decrementStockBatch(quantities);
+        if (!rejected.isEmpty()) {
+            // Only the failure path reads items, to explain why they were rejected
+            Map<Integer, Item> rejectedItems = itemDAO.findByIds(rejected);
+            Integer itemId = rejected.get(0);
+            Item item = rejectedItems.get(itemId);
+            if (item == null) {
+                throw new ServiceException("Item not found with ID: " + itemId);
             }
 
-            Item item = itemOpt.get();
             if (!item.isActive()) {
                 throw new ServiceException("Item is not active: " + item.getItemName());
             }
 
-            if (item.getStockQuantity() < billItem.getQuantity()) {
-                throw new ServiceException("Insufficient stock for item: " + item.getItemName() +
-                    " (Available: " + item.getStockQuantity() + ", Required: " + billItem.getQuantity() + ")");
-            }
-
-            // Store original stock for reference
-            originalStock.put(billItem.getItemId(), item.getStockQuantity());
+            throw new ServiceException("Insufficient stock for item: " + item.getItemName() +
+                " (Available: " + item.getStockQuantity() + ", Required: " + quantities.get(itemId) + ")");
         }
+    }
 
-        return originalStock;
+    /**
+     * Sum bill line quantities per item, since the same item may appear on several lines
+     */
+    private Map<Integer, Integer> totalQuantitiesByItem(List<BillItem> billItems) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (BillItem billItem : billItems) {
+            quantities.merge(billItem.getItemId(), billItem.getQuantity(), Integer::sum);
+        }
+        return quantities;
     }
 
     /**
@@ -343,77 +593,71 @@ public class BillService {
     }
 
     /**
-     * Update stock quantities for bill items using original stock values
+     * Create stock movements and update sales totals for saved bills whose stock is already reserved
      */
-    private void updateStockForBillSafe(List<BillItem> billItems, Integer billId, Integer createdBy,
-                                       Map<Integer, Integer> originalStock) throws DAOException {
-        for (BillItem billItem : billItems) {
-            Integer itemId = billItem.getItemId();
-            Integer originalQuantity = originalStock.get(itemId);
-            Integer billQuantity = billItem.getQuantity();
-            Integer newQuantity = originalQuantity - billQuantity;
-
-            // Debug logging
-            logger.info("Stock Update Debug - Item ID: {}, Original Stock: {}, Bill Quantity: {}, New Stock: {}",
-                itemId, originalQuantity, billQuantity, newQuantity);
-
-            // Update stock using the calculated new quantity
-            itemDAO.updateStock(itemId, newQuantity);
-
-            // Create stock movement
-            StockMovement movement = new StockMovement(itemId, StockMovement.MovementType.OUT,
-                billQuantity, StockMovement.ReferenceType.SALE, billId, "Sale - Bill: " + billId);
-            movement.setCreatedBy(createdBy);
-            stockMovementDAO.save(movement);
-
-            // Update item sales totals
-            Optional<Item> itemOpt = itemDAO.findById(itemId);
-            if (itemOpt.isPresent()) {
-                Item item = itemOpt.get();
-                int newTotalSold = item.getTotalSold() + billQuantity;
-                BigDecimal newTotalRevenue = item.getTotalRevenue().add(billItem.getLineTotal());
-                itemDAO.updateSalesTotals(itemId, newTotalSold, newTotalRevenue);
+    private void recordSales(List<Bill> bills, Integer createdBy) throws DAOException {
+        List<StockMovement> movements = new ArrayList<>();
+        List<BillItem> allItems = new ArrayList<>();
+        for (Bill bill : bills) {
+            Integer billId = bill.getBillId();
+            for (BillItem billItem : bill.getBillItems()) {
+                StockMovement movement = new StockMovement(billItem.getItemId(), StockMovement.MovementType.OUT,
+                    billItem.getQuantity(), StockMovement.ReferenceType.SALE, billId, "Sale - Bill: " + billId);
+                movement.setCreatedBy(createdBy);
+                movements.add(movement);
             }
-
-            logger.info("Stock update completed for item ID: {}", itemId);
+            allItems.addAll(bill.getBillItems());
         }
+        stockMovementDAO.saveBatch(movements);
+
+        // Update item sales totals as deltas, so concurrent bills cannot drop counts
+        itemDAO.addSalesTotals(allItems);
+
+        logger.debug("Sale recorded for {} bills: {} lines", bills.size(), allItems.size());
     }
 
     /**
-     * Restore stock quantities for cancelled bill
+     * Add saved bills to the daily sales rollup. Runs late in the bill transaction, since the
+     * rollup rows stay locked until commit.
      */
-    private void restoreStockForBill(List<BillItem> billItems, Integer billId, Integer cancelledBy) throws DAOException {
+    private void addToDailySales(List<Bill> bills) throws DAOException {
+        dailySalesDAO.addBills(bills);
+    }
+
+    /**
+     * Record the current category of each sold item on its bill line, so reports and
+     * cancellations keep using it after the item moves to another category
+     */
+    private void assignCategories(List<BillItem> billItems) throws DAOException {
+        Set<Integer> itemIds = new LinkedHashSet<>();
         for (BillItem billItem : billItems) {
-            Optional<Item> itemOpt = itemDAO.findById(billItem.getItemId());
-            if (itemOpt.isPresent()) {
-                Item item = itemOpt.get();
-                int newQuantity = item.getStockQuantity() + billItem.getQuantity();
-                itemDAO.updateStock(billItem.getItemId(), newQuantity);
-
-                // Create stock movement
-                StockMovement movement = new StockMovement(billItem.getItemId(), StockMovement.MovementType.RETURN, 
-                    billItem.getQuantity(), StockMovement.ReferenceType.RETURN, billId, "Return - Bill Cancelled: " + billId);
-                movement.setCreatedBy(cancelledBy);
-                stockMovementDAO.save(movement);
-
-                // Update item sales totals
-                int newTotalSold = Math.max(0, item.getTotalSold() - billItem.getQuantity());
-                BigDecimal newTotalRevenue = item.getTotalRevenue().subtract(billItem.getLineTotal());
-                if (newTotalRevenue.compareTo(BigDecimal.ZERO) < 0) {
-                    newTotalRevenue = BigDecimal.ZERO;
-                }
-                itemDAO.updateSalesTotals(billItem.getItemId(), newTotalSold, newTotalRevenue);
-            }
+            itemIds.add(billItem.getItemId());
+        }
+
+        Map<Integer, Integer> categoryIds = itemDAO.findCategoryIds(itemIds);
+        for (BillItem billItem : billItems) {
+            billItem.setCategoryId(categoryIds.get(billItem.getItemId()));
         }
     }
 
     /**
-     * Update customer totals
+     * Restore stock quantities for cancelled bill
      */
-    private void updateCustomerTotals(Integer customerId) throws DAOException {
-        // This would typically involve calculating totals from all active bills
-        // For now, we'll skip this implementation as it would require complex aggregation
-        logger.debug("Customer totals update skipped for customer: {}", customerId);
+    private void restoreStockForBill(List<BillItem> billItems, Integer billId, Integer cancelledBy) throws DAOException {
+        // Add quantities back atomically instead of writing a value computed from a stale read
+        itemDAO.incrementStockBatch(totalQuantitiesByItem(billItems));
+
+        List<StockMovement> movements = new ArrayList<>(billItems.size());
+        for (BillItem billItem : billItems) {
+            StockMovement movement = new StockMovement(billItem.getItemId(), StockMovement.MovementType.RETURN, 
+                billItem.getQuantity(), StockMovement.ReferenceType.RETURN, billId, "Return - Bill Cancelled: " + billId);
+            movement.setCreatedBy(cancelledBy);
+            movements.add(movement);
+        }
+        stockMovementDAO.saveBatch(movements);
+
+        // Reverse item sales totals as deltas (clamped at zero)
+        itemDAO.subtractSalesTotals(billItems);
     }
 
     /**
@@ -453,17 +697,4 @@ public class BillService {
 
         return errors;
     }
-
-    /**
-     * Log activity
-     */
-    private void logActivity(Integer userId, String action, String tableName, Integer recordId, String notes) {
-        try {
-            ActivityLog log = new ActivityLog(userId, action, tableName, recordId);
-            log.setNewValues(notes);
-            activityLogDAO.save(log);
-        } catch (DAOException e) {
-            logger.warn("Failed to log activity", e);
-        }
-    }
 }
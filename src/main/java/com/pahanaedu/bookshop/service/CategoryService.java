@@ -3,6 +3,8 @@ package com.pahanaedu.bookshop.service;
 import com.pahanaedu.bookshop.dao.ActivityLogDAO;
 import com.pahanaedu.bookshop.dao.CategoryDAO;
 import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.dao.TableVersionDAO;
+import com.pahanaedu.bookshop.dao.TransactionManager;
 import com.pahanaedu.bookshop.model.ActivityLog;
 import com.pahanaedu.bookshop.model.Category;
 import com.pahanaedu.bookshop.util.ValidationUtil;
@@ -22,10 +24,12 @@ public class CategoryService {
     
     private final CategoryDAO categoryDAO;
     private final ActivityLogDAO activityLogDAO;
+    private final TableVersionService tableVersions;
 
     public CategoryService() {
         this.categoryDAO = new CategoryDAO();
         this.activityLogDAO = new ActivityLogDAO();
+        this.tableVersions = TableVersionService.getInstance();
     }
 
     /**
@@ -48,7 +52,11 @@ public class CategoryService {
                 throw new ServiceException("Category name already exists: " + category.getCategoryName());
             }
 
-            Category savedCategory = categoryDAO.save(category);
+            Category savedCategory = TransactionManager.inTransaction(() -> {
+                Category saved = categoryDAO.save(category);
+                tableVersions.bump(TableVersionDAO.Table.CATEGORIES);
+                return saved;
+            });
 
             // Log activity
             logActivity(createdBy, ActivityLog.Actions.CREATE, "categories", savedCategory.getCategoryId(), 
@@ -93,12 +101,18 @@ public class CategoryService {
                 }
             }
 
-            Category updatedCategory = categoryDAO.update(category);
+            // Item rows carry the category name
+            Category updatedCategory = TransactionManager.inTransaction(() -> {
+                Category updated = categoryDAO.update(category);
+                tableVersions.bump(TableVersionDAO.Table.CATEGORIES, TableVersionDAO.Table.ITEMS);
+                return updated;
+            });
 
             // Log activity
             logActivity(updatedBy, ActivityLog.Actions.UPDATE, "categories", updatedCategory.getCategoryId(), 
                       "Category updated: " + updatedCategory.getCategoryName());
 
+            ItemCatalog.getInstance().refreshCategory(updatedCategory.getCategoryId());
             logger.info("Category updated successfully: {}", updatedCategory.getCategoryName());
             return updatedCategory;
 
@@ -198,12 +212,19 @@ public class CategoryService {
             }
 
             Category category = categoryOpt.get();
-            boolean deleted = categoryDAO.delete(categoryId);
+            boolean deleted = TransactionManager.inTransaction(() -> {
+                boolean removed = categoryDAO.delete(categoryId);
+                if (removed) {
+                    tableVersions.bump(TableVersionDAO.Table.CATEGORIES, TableVersionDAO.Table.ITEMS);
+                }
+                return removed;
+            });
 
             if (deleted) {
                 // Log activity
                 logActivity(deletedBy, ActivityLog.Actions.DELETE, "categories", categoryId, 
                           "Category deleted: " + category.getCategoryName());
+                ItemCatalog.getInstance().refreshCategory(categoryId);
                 logger.info("Category deleted successfully: {}", category.getCategoryName());
             }
 
@@ -3,6 +3,8 @@ package com.pahanaedu.bookshop.service;
 import com.pahanaedu.bookshop.dao.ActivityLogDAO;
 import com.pahanaedu.bookshop.dao.CustomerDAO;
 import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.dao.TableVersionDAO;
+import com.pahanaedu.bookshop.dao.TransactionManager;
 import com.pahanaedu.bookshop.model.ActivityLog;
 import com.pahanaedu.bookshop.model.Customer;
 import com.pahanaedu.bookshop.util.ValidationUtil;
@@ -23,10 +25,12 @@ public class CustomerService {
     
     private final CustomerDAO customerDAO;
     private final ActivityLogDAO activityLogDAO;
+    private final TableVersionService tableVersions;
 
     public CustomerService() {
         this.customerDAO = new CustomerDAO();
         this.activityLogDAO = new ActivityLogDAO();
+        this.tableVersions = TableVersionService.getInstance();
     }
 
     /**
@@ -50,7 +54,11 @@ public class CustomerService {
             }
 
             customer.setCreatedBy(createdBy);
-            Customer savedCustomer = customerDAO.save(customer);
+            Customer savedCustomer = TransactionManager.inTransaction(() -> {
+                Customer saved = customerDAO.save(customer);
+                tableVersions.bump(TableVersionDAO.Table.CUSTOMERS);
+                return saved;
+            });
 
             // Log activity
             logActivity(createdBy, ActivityLog.Actions.CREATE, "customers", savedCustomer.getCustomerId(), 
@@ -95,7 +103,11 @@ public class CustomerService {
                 }
             }
 
-            Customer updatedCustomer = customerDAO.update(customer);
+            Customer updatedCustomer = TransactionManager.inTransaction(() -> {
+                Customer updated = customerDAO.update(customer);
+                tableVersions.bump(TableVersionDAO.Table.CUSTOMERS);
+                return updated;
+            });
 
             // Log activity
             logActivity(updatedBy, ActivityLog.Actions.UPDATE, "customers", updatedCustomer.getCustomerId(), 
@@ -208,7 +220,13 @@ public class CustomerService {
             }
 
             Customer customer = customerOpt.get();
-            boolean deleted = customerDAO.delete(customerId);
+            boolean deleted = TransactionManager.inTransaction(() -> {
+                boolean removed = customerDAO.delete(customerId);
+                if (removed) {
+                    tableVersions.bump(TableVersionDAO.Table.CUSTOMERS);
+                }
+                return removed;
+            });
 
             if (deleted) {
                 // Log activity
@@ -234,7 +252,11 @@ public class CustomerService {
      */
     public void updateCustomerTotals(Integer customerId, BigDecimal totalPurchases, Integer totalBills) throws ServiceException {
         try {
-            customerDAO.updateTotals(customerId, totalPurchases, totalBills);
+            TransactionManager.inTransaction(() -> {
+                customerDAO.updateTotals(customerId, totalPurchases, totalBills);
+                tableVersions.bump(TableVersionDAO.Table.CUSTOMERS);
+                return null;
+            });
             logger.debug("Customer totals updated: {} - purchases: {}, bills: {}", customerId, totalPurchases, totalBills);
         } catch (DAOException e) {
             logger.error("Error updating customer totals: {}", customerId, e);
@@ -0,0 +1,115 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.dao.CustomerDAO;
+import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.dao.TableVersionDAO;
+import com.pahanaedu.bookshop.dao.TransactionManager;
+import com.pahanaedu.bookshop.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that recomputes customer running totals from active bills and fixes drift.
+ * Bill creation and cancellation maintain the totals as deltas; this job corrects anything
+ * those deltas missed (manual edits, data imported before totals were maintained). Customers
+ * are processed in ID ranges, one short transaction per range, so bill traffic is only
+ * blocked for a chunk at a time.
+ */
+public class CustomerTotalsReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerTotalsReconciler.class);
+
+    private static final CustomerTotalsReconciler INSTANCE = new CustomerTotalsReconciler();
+
+    private final CustomerDAO customerDAO;
+    private final int chunkSize;
+    private ScheduledExecutorService scheduler;
+
+    private CustomerTotalsReconciler() {
+        this.customerDAO = new CustomerDAO();
+        this.chunkSize = Math.max(1, AppConfig.getInt("customers.totals.reconcile.chunkSize", 500));
+    }
+
+    /**
+     * Get the shared reconciler
+     * @return Reconciler instance
+     */
+    public static CustomerTotalsReconciler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start periodic reconciliation, if enabled by configuration
+     */
+    public synchronized void start() {
+        long intervalMinutes = AppConfig.getLong("customers.totals.reconcile.intervalMinutes", 60);
+        if (scheduler != null || intervalMinutes <= 0) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-totals-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long initialDelay = AppConfig.getLong("customers.totals.reconcile.initialDelayMinutes", 5);
+        scheduler.scheduleWithFixedDelay(this::runSafely, initialDelay, intervalMinutes, TimeUnit.MINUTES);
+        logger.info("Customer totals reconciler scheduled every {} minutes", intervalMinutes);
+    }
+
+    /**
+     * Stop periodic reconciliation
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Reconcile all customers now
+     * @return Number of customers whose totals were corrected
+     * @throws ServiceException if reconciliation fails
+     */
+    public int reconcileAll() throws ServiceException {
+        try {
+            int maxId = customerDAO.findMaxId();
+            int corrected = 0;
+            for (int fromId = 1; fromId <= maxId; fromId += chunkSize) {
+                int from = fromId;
+                int to = (int) Math.min((long) fromId + chunkSize - 1, maxId);
+                corrected += TransactionManager.inTransaction(() -> {
+                    int chunkCorrected = customerDAO.reconcileTotals(from, to);
+                    if (chunkCorrected > 0) {
+                        TableVersionService.getInstance().bump(TableVersionDAO.Table.CUSTOMERS);
+                    }
+                    return chunkCorrected;
+                });
+            }
+
+            if (corrected > 0) {
+                logger.warn("Customer totals drift corrected for {} customers", corrected);
+            } else {
+                logger.debug("Customer totals reconciled, no drift found");
+            }
+            return corrected;
+
+        } catch (DAOException e) {
+            logger.error("Error reconciling customer totals", e);
+            throw new ServiceException("Failed to reconcile customer totals", e);
+        }
+    }
+
+    private void runSafely() {
+        try {
+            reconcileAll();
+        } catch (Exception e) {
+            // Keep the schedule alive; the next run retries
+            logger.error("Customer totals reconciliation failed", e);
+        }
+    }
+}
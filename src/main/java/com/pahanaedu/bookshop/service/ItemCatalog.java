@@ -0,0 +1,479 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.dao.ItemDAO;
+import com.pahanaedu.bookshop.event.BillEventBus;
+import com.pahanaedu.bookshop.model.BillItem;
+import com.pahanaedu.bookshop.model.Item;
+import com.pahanaedu.bookshop.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory snapshot of active items, indexed by ID, code, barcode and category.
+ * The snapshot is loaded in the background, at startup or on first use; until it is loaded every
+ * lookup misses without blocking, and failed loads are retried with exponential backoff. Once
+ * loaded it is kept current three ways: ItemService applies its own
+ * writes right after they succeed, bill events refresh the items whose stock a bill changed, and
+ * a background poll picks up rows changed elsewhere by updated_at (items deleted on another node
+ * drop out at the next periodic full reload). Lookups that miss, e.g. for inactive items, are
+ * left to the caller to read through to the database.
+ * Items returned from the catalog are shared and must be treated as read-only.
+ * The catalog also maintains the {@link ItemScanIndex} used by the POS scan endpoint, the
+ * {@link ItemSearchIndex} used for full-text search and the {@link ItemSuggestIndex} used for
+ * typeahead.
+ */
+public class ItemCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(ItemCatalog.class);
+
+    private static final ItemCatalog INSTANCE = new ItemCatalog();
+
+    // Same order as the item listing queries
+    private static final Comparator<Item> NEWEST_FIRST = Comparator
+        .comparing(Item::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(Item::getItemId, Comparator.reverseOrder());
+
+    private static final long MIN_LOAD_BACKOFF_MILLIS = 1000;
+    private static final long MAX_LOAD_BACKOFF_MILLIS = 60_000;
+
+    private final ItemDAO itemDAO;
+    private final long clockSkewSeconds;
+    private final Map<Integer, Item> byId = new ConcurrentHashMap<>();
+    private final Map<String, Item> byCode = new ConcurrentHashMap<>();
+    private final Map<String, Item> byBarcode = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<Integer, Item>> byCategory = new ConcurrentHashMap<>();
+    private final ItemScanIndex scanIndex = new ItemScanIndex();
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex();
+    private final ItemSuggestIndex suggestIndex;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private volatile long nextLoadAt;
+    private long loadBackoffMillis = MIN_LOAD_BACKOFF_MILLIS;
+    private volatile boolean loaded;
+    private volatile LocalDateTime pollFrom;
+    private volatile LocalDateTime lastPollAt;
+    private ScheduledExecutorService scheduler;
+
+    private ItemCatalog() {
+        this.itemDAO = new ItemDAO();
+        this.clockSkewSeconds = AppConfig.getLong("catalog.clockSkewSeconds", 5);
+        this.suggestIndex = new ItemSuggestIndex(AppConfig.getInt("catalog.suggest.topK", 10), itemId -> {
+            Item item = byId.get(itemId);
+            return item != null && item.getTotalSold() != null ? item.getTotalSold() : 0;
+        });
+
+        BillEventBus.getInstance().subscribe("item-catalog", event -> {
+            // Bills change stock and sales totals of their items
+            Set<Integer> itemIds = new HashSet<>();
+            for (BillItem billItem : event.getBill().getBillItems()) {
+                itemIds.add(billItem.getItemId());
+            }
+            refresh(itemIds);
+        });
+    }
+
+    /**
+     * Get the shared catalog
+     * @return Catalog instance
+     */
+    public static ItemCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get an active item by ID
+     * @param itemId Item ID
+     * @return Item, or null if it is not in the catalog
+     */
+    public Item findById(Integer itemId) {
+        return count(ensureLoaded() ? byId.get(itemId) : null);
+    }
+
+    /**
+     * Get an active item by code
+     * @param itemCode Item code
+     * @return Item, or null if it is not in the catalog
+     */
+    public Item findByCode(String itemCode) {
+        return count(ensureLoaded() ? byCode.get(itemCode) : null);
+    }
+
+    /**
+     * Get an active item by barcode
+     * @param barcode Barcode
+     * @return Item, or null if it is not in the catalog
+     */
+    public Item findByBarcode(String barcode) {
+        return count(ensureLoaded() ? byBarcode.get(barcode) : null);
+    }
+
+    /**
+     * Get the serialized scan projection of an active item by barcode
+     * @param barcode Barcode
+     * @return JSON bytes, or null if the item is not in the catalog
+     */
+    public byte[] findScanJson(String barcode) {
+        byte[] json = ensureLoaded() ? scanIndex.get(barcode) : null;
+        (json != null ? hits : misses).incrementAndGet();
+        return json;
+    }
+
+    /**
+     * Get the active items of a category, newest first
+     * @param categoryId Category ID
+     * @return Items, or null if the catalog is not available
+     */
+    public List<Item> findByCategory(Integer categoryId) {
+        if (!ensureLoaded()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        Map<Integer, Item> items = byCategory.get(categoryId);
+        if (items == null) {
+            return new ArrayList<>();
+        }
+        List<Item> sorted = new ArrayList<>(items.values());
+        sorted.sort(NEWEST_FIRST);
+        return sorted;
+    }
+
+    /**
+     * Count the active items of a category
+     * @param categoryId Category ID
+     * @return Item count, or null if the catalog is not available
+     */
+    public Long countByCategory(Integer categoryId) {
+        if (!ensureLoaded()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        Map<Integer, Item> items = byCategory.get(categoryId);
+        return items != null ? (long) items.size() : 0L;
+    }
+
+    /**
+     * Count the active items of every category
+     * @return Item count per category ID, or null if the catalog is not available
+     */
+    public Map<Integer, Long> countsByCategory() {
+        if (!ensureLoaded()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        Map<Integer, Long> counts = new HashMap<>();
+        byCategory.forEach((categoryId, items) -> {
+            if (!items.isEmpty()) {
+                counts.put(categoryId, (long) items.size());
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Full-text search over name, author, publisher, code and ISBN of active items
+     * @param query Query text; all terms must match, the last one also as a prefix
+     * @param offset Number of ranked results to skip
+     * @param limit Maximum number of results
+     * @return Matching items, best first, or null if the catalog is not available
+     */
+    public List<Item> search(String query, int offset, int limit) {
+        if (!ensureLoaded()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return searchIndex.search(query, offset, limit, byId::get);
+    }
+
+    /**
+     * Typeahead: the best-selling active items whose name, author or ISBN starts with a prefix
+     * @param prefix Typed prefix
+     * @param limit Maximum number of items (capped at catalog.suggest.topK)
+     * @return Items, most sold first, or null if the catalog is not available
+     */
+    public List<Item> suggest(String prefix, int limit) {
+        if (!ensureLoaded()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        List<Item> items = new ArrayList<>();
+        for (int itemId : suggestIndex.suggest(prefix, limit)) {
+            Item item = byId.get(itemId);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Re-read items from the database and apply them (items no longer found are removed)
+     * @param itemIds IDs of items that changed
+     */
+    public void refresh(Collection<Integer> itemIds) {
+        if (!loaded || itemIds.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Integer, Item> items = itemDAO.findByIds(itemIds);
+            for (Integer itemId : itemIds) {
+                Item item = items.get(itemId);
+                if (item != null) {
+                    apply(item);
+                } else {
+                    remove(itemId);
+                }
+            }
+        } catch (DAOException e) {
+            // The next poll picks the changes up
+            logger.warn("Error refreshing {} catalog items", itemIds.size(), e);
+        }
+    }
+
+    /**
+     * Re-read all catalog items of a category, e.g. after the category was renamed
+     * @param categoryId Category ID
+     */
+    public void refreshCategory(Integer categoryId) {
+        Map<Integer, Item> items = byCategory.get(categoryId);
+        if (items != null) {
+            refresh(new ArrayList<>(items.keySet()));
+        }
+    }
+
+    /**
+     * Remove a deleted item
+     * @param itemId Item ID
+     */
+    public synchronized void remove(Integer itemId) {
+        Item previous = byId.remove(itemId);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    /**
+     * Start polling for changes made elsewhere, if enabled by configuration
+     */
+    public synchronized void start() {
+        long pollSeconds = AppConfig.getLong("catalog.pollSeconds", 5);
+        if (scheduler != null || pollSeconds <= 0) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-catalog-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollSafely, 0, pollSeconds, TimeUnit.SECONDS);
+
+        long fullReloadMinutes = AppConfig.getLong("catalog.fullReloadMinutes", 30);
+        if (fullReloadMinutes > 0) {
+            scheduler.scheduleWithFixedDelay(this::reloadSafely, fullReloadMinutes, fullReloadMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Stop polling
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Get catalog statistics
+     * @return Map of statistic name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("items", byId.size());
+        stats.put("categories", byCategory.size());
+        stats.put("scanBarcodes", scanIndex.size());
+        stats.put("searchTerms", searchIndex.termCount());
+        stats.put("suggestKeys", suggestIndex.keyCount());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("lastPollAt", lastPollAt);
+        return stats;
+    }
+
+    /**
+     * Replace the whole snapshot from the database. Items are read without holding the catalog
+     * lock and applied one at a time, so writers and bill events are not held up by the read.
+     * @throws DAOException if items cannot be read
+     */
+    void reload() throws DAOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Item> items = itemDAO.findAllActive();
+
+        Set<Integer> activeIds = new HashSet<>();
+        for (Item item : items) {
+            apply(item);
+            activeIds.add(item.getItemId());
+        }
+        // Items missing from the read are gone, unless they were written after it started
+        LocalDateTime readFrom = startedAt.minusSeconds(clockSkewSeconds);
+        for (Item item : new ArrayList<>(byId.values())) {
+            if (!activeIds.contains(item.getItemId())
+                    && (item.getUpdatedAt() == null || item.getUpdatedAt().isBefore(readFrom))) {
+                removeIfUnchanged(item);
+            }
+        }
+
+        pollFrom = startedAt.minusSeconds(clockSkewSeconds);
+        loaded = true;
+        logger.info("Item catalog loaded: {} active items", items.size());
+    }
+
+    private void poll() throws DAOException {
+        if (!loaded) {
+            // Leave the initial load to the background loader and its backoff
+            ensureLoaded();
+            return;
+        }
+
+        // Rows written in the last few seconds are read again, so writes from nodes with a
+        // slightly different clock (or within the same second) are not missed
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Item> changed = itemDAO.findUpdatedSince(pollFrom);
+        for (Item item : changed) {
+            apply(item);
+        }
+        pollFrom = startedAt.minusSeconds(clockSkewSeconds);
+        lastPollAt = startedAt;
+
+        if (!changed.isEmpty()) {
+            logger.debug("Item catalog poll applied {} changed items", changed.size());
+        }
+    }
+
+    private synchronized void apply(Item item) {
+        Item current = byId.get(item.getItemId());
+        if (current != null && isOlder(item, current)) {
+            // Read before a newer row that is already applied, e.g. by a poll racing a refresh
+            return;
+        }
+
+        Item previous = item.isActive() ? byId.put(item.getItemId(), item) : byId.remove(item.getItemId());
+        if (previous != null) {
+            unindex(previous);
+        }
+        if (!item.isActive()) {
+            return;
+        }
+
+        byCode.put(item.getItemCode(), item);
+        if (item.getBarcode() != null && !item.getBarcode().isEmpty()) {
+            byBarcode.put(item.getBarcode(), item);
+        }
+        byCategory.computeIfAbsent(item.getCategoryId(), id -> new ConcurrentHashMap<>()).put(item.getItemId(), item);
+        scanIndex.put(item);
+        searchIndex.put(item);
+        suggestIndex.put(item);
+    }
+
+    private synchronized void removeIfUnchanged(Item item) {
+        if (byId.remove(item.getItemId(), item)) {
+            unindex(item);
+        }
+    }
+
+    private static boolean isOlder(Item item, Item current) {
+        return item.getUpdatedAt() != null && current.getUpdatedAt() != null
+            && item.getUpdatedAt().isBefore(current.getUpdatedAt());
+    }
+
+    private void unindex(Item item) {
+        searchIndex.remove(item.getItemId());
+        suggestIndex.remove(item);
+        byCode.remove(item.getItemCode(), item);
+        if (item.getBarcode() != null) {
+            byBarcode.remove(item.getBarcode(), item);
+            // Only if no other item took over the barcode
+            if (!byBarcode.containsKey(item.getBarcode())) {
+                scanIndex.remove(item);
+            }
+        }
+        Map<Integer, Item> categoryItems = byCategory.get(item.getCategoryId());
+        if (categoryItems != null) {
+            categoryItems.remove(item.getItemId(), item);
+        }
+    }
+
+    // Never blocks: starts a background load if none is running and the backoff has passed
+    private boolean ensureLoaded() {
+        if (loaded) {
+            return true;
+        }
+        if (System.currentTimeMillis() >= nextLoadAt && loading.compareAndSet(false, true)) {
+            Thread loader = new Thread(this::loadInBackground, "item-catalog-loader");
+            loader.setDaemon(true);
+            loader.start();
+        }
+        return false;
+    }
+
+    private void loadInBackground() {
+        try {
+            if (!loaded) {
+                reload();
+            }
+            loadBackoffMillis = MIN_LOAD_BACKOFF_MILLIS;
+        } catch (Exception e) {
+            logger.error("Error loading item catalog, retrying in {} ms", loadBackoffMillis, e);
+            nextLoadAt = System.currentTimeMillis() + loadBackoffMillis;
+            loadBackoffMillis = Math.min(loadBackoffMillis * 2, MAX_LOAD_BACKOFF_MILLIS);
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    private Item count(Item item) {
+        (item != null ? hits : misses).incrementAndGet();
+        return item;
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            // Keep the schedule alive; the next run retries
+            logger.warn("Item catalog poll failed", e);
+        }
+    }
+
+    private void reloadSafely() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.warn("Item catalog reload failed", e);
+        }
+    }
+}
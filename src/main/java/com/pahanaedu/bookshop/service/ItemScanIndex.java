@@ -0,0 +1,167 @@
+package com.pahanaedu.bookshop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.pahanaedu.bookshop.model.Item;
+import com.pahanaedu.bookshop.util.LongObjectMap;
+import com.pahanaedu.bookshop.util.ResponseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Barcode index for POS scans, holding the JSON of each item's scan projection (ID, code, name,
+ * price, stock and status) ready to write. Numeric barcodes (EAN/UPC) are keyed by a packed long
+ * so a scan is one primitive hash probe under an optimistic read; other barcodes use a string map.
+ * Maintained by {@link ItemCatalog} alongside its other indexes.
+ */
+class ItemScanIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ItemScanIndex.class);
+
+    // Longest numeric barcode packed into a long; the digit count goes in the bits above the value
+    private static final int MAX_NUMERIC_DIGITS = 17;
+    private static final int LENGTH_SHIFT = 57;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongObjectMap<byte[]> numeric = new LongObjectMap<>(1024);
+    private final Map<String, byte[]> other = new HashMap<>();
+
+    /**
+     * Get the scan JSON for a barcode
+     * @param barcode Barcode
+     * @return Serialized scan projection, or null if not indexed
+     */
+    byte[] get(String barcode) {
+        long key = numericKey(barcode);
+        if (key < 0) {
+            long stamp = lock.readLock();
+            try {
+                return other.get(barcode);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        byte[] json = numeric.get(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                json = numeric.get(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return json;
+    }
+
+    /**
+     * Index an item under its barcode, if it has one
+     * @param item Item
+     */
+    void put(Item item) {
+        String barcode = item.getBarcode();
+        if (barcode == null || barcode.isEmpty()) {
+            return;
+        }
+
+        byte[] json;
+        try {
+            json = toJson(item);
+        } catch (JsonProcessingException e) {
+            // Scans for this item fall back to the database
+            logger.warn("Error serializing scan projection for item: {}", item.getItemId(), e);
+            return;
+        }
+
+        long key = numericKey(barcode);
+        long stamp = lock.writeLock();
+        try {
+            if (key >= 0) {
+                numeric.put(key, json);
+            } else {
+                other.put(barcode, json);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Drop an item's barcode from the index
+     * @param item Item as it was indexed
+     */
+    void remove(Item item) {
+        String barcode = item.getBarcode();
+        if (barcode == null || barcode.isEmpty()) {
+            return;
+        }
+
+        long key = numericKey(barcode);
+        long stamp = lock.writeLock();
+        try {
+            if (key >= 0) {
+                numeric.remove(key);
+            } else {
+                other.remove(barcode);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Get the number of indexed barcodes
+     * @return Barcode count
+     */
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return numeric.size() + other.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Serialize the scan projection of an item
+     * @param item Item
+     * @return JSON bytes
+     * @throws JsonProcessingException if serialization fails
+     */
+    static byte[] toJson(Item item) throws JsonProcessingException {
+        Map<String, Object> scan = new LinkedHashMap<>();
+        scan.put("itemId", item.getItemId());
+        scan.put("itemCode", item.getItemCode());
+        scan.put("itemName", item.getItemName());
+        scan.put("price", item.getPrice());
+        scan.put("stockQuantity", item.getStockQuantity());
+        scan.put("status", item.getStatus());
+        return ResponseUtil.getObjectMapper().writeValueAsBytes(scan);
+    }
+
+    /**
+     * Pack an all-digit barcode into a long; the digit count is included so barcodes that differ
+     * only in leading zeros (e.g. UPC-A and its EAN-13 form) stay distinct
+     * @param barcode Barcode
+     * @return Key, or -1 if the barcode is not numeric or too long
+     */
+    static long numericKey(String barcode) {
+        int length = barcode.length();
+        if (length == 0 || length > MAX_NUMERIC_DIGITS) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = barcode.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return ((long) length << LENGTH_SHIFT) | value;
+    }
+}
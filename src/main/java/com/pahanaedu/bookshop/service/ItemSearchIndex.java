@@ -0,0 +1,346 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.model.Item;
+import com.pahanaedu.bookshop.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * Inverted index over item name, author, publisher, code and ISBN for full-text search.
+ * Each term maps to a sorted posting list of item IDs with the fields the term occurs in, so a
+ * multi-term query intersects the shortest lists first instead of scanning every item. Terms are
+ * case- and accent-folded; the last query term also matches as a prefix, for search-as-you-type.
+ * Results are ranked by field relevance, then units sold. Maintained by {@link ItemCatalog}.
+ */
+class ItemSearchIndex {
+    private static final int FIELD_NAME = 1;
+    private static final int FIELD_AUTHOR = 2;
+    private static final int FIELD_PUBLISHER = 4;
+    private static final int FIELD_CODE = 8;
+    private static final int FIELD_ISBN = 16;
+
+    // Shorter prefixes would expand to a large part of the dictionary
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    // Terms and field masks of each indexed item, to unindex it and to check prefixes
+    private final Map<Integer, IndexedTerms> terms = new HashMap<>();
+
+    /**
+     * Index an item, replacing any earlier version of it
+     * @param item Item
+     */
+    void put(Item item) {
+        Map<String, Integer> fieldsByTerm = new LinkedHashMap<>();
+        addTerms(fieldsByTerm, TextNormalizer.tokenize(item.getItemName()), FIELD_NAME);
+        addTerms(fieldsByTerm, TextNormalizer.tokenize(item.getAuthor()), FIELD_AUTHOR);
+        addTerms(fieldsByTerm, TextNormalizer.tokenize(item.getPublisher()), FIELD_PUBLISHER);
+        addTerms(fieldsByTerm, TextNormalizer.tokenize(item.getItemCode()), FIELD_CODE);
+        addTerms(fieldsByTerm, List.of(TextNormalizer.compact(item.getItemCode())), FIELD_CODE);
+        addTerms(fieldsByTerm, TextNormalizer.tokenize(item.getIsbn()), FIELD_ISBN);
+        addTerms(fieldsByTerm, List.of(TextNormalizer.compact(item.getIsbn())), FIELD_ISBN);
+
+        IndexedTerms indexed = new IndexedTerms(fieldsByTerm);
+        lock.writeLock().lock();
+        try {
+            unindex(item.getItemId());
+            for (int i = 0; i < indexed.terms.length; i++) {
+                postings.computeIfAbsent(indexed.terms[i], term -> new Postings())
+                    .add(item.getItemId(), indexed.fields[i]);
+            }
+            terms.put(item.getItemId(), indexed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop an item from the index
+     * @param itemId Item ID
+     */
+    void remove(Integer itemId) {
+        lock.writeLock().lock();
+        try {
+            unindex(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of distinct terms
+     * @return Term count
+     */
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find items matching every term of a query
+     * @param query Query text
+     * @param offset Number of ranked results to skip
+     * @param limit Maximum number of results
+     * @param items Lookup of indexed items by ID, for ranking
+     * @return Matching items, best first
+     */
+    List<Item> search(String query, int offset, int limit, IntFunction<Item> items) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.tokenize(query)));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // A trailing space means the last term is complete
+        boolean complete = Character.isWhitespace(query.charAt(query.length() - 1));
+        // An identifier typed with different separators than it was stored with, e.g. "978 0134685991"
+        String compact = queryTerms.size() > 1 ? TextNormalizer.compact(query) : null;
+        String prefix = complete ? null : queryTerms.remove(queryTerms.size() - 1);
+        if (prefix != null && prefix.length() < MIN_PREFIX_LENGTH) {
+            queryTerms.add(prefix);
+            prefix = null;
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = queryTerms.isEmpty()
+                ? matchPrefix(prefix)
+                : matchTerms(queryTerms, prefix);
+            if (compact != null) {
+                Map<Integer, Integer> merged = new HashMap<>(scores);
+                Map<Integer, Integer> compactMatches = complete ? matchTerm(compact) : matchPrefix(compact);
+                compactMatches.forEach((itemId, score) -> merged.merge(itemId, score, Math::max));
+                scores = merged;
+            }
+            return rank(scores, offset, limit, items);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Integer> matchTerms(List<String> queryTerms, String prefix) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : queryTerms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return Collections.emptyMap();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        // Intersect, shortest list first
+        Postings shortest = lists.get(0);
+        int[] candidates = Arrays.copyOf(shortest.ids, shortest.size);
+        int[] scores = new int[shortest.size];
+        for (int i = 0; i < shortest.size; i++) {
+            scores[i] = weight(shortest.fields[i]) * 2;
+        }
+        int count = shortest.size;
+        for (int l = 1; l < lists.size() && count > 0; l++) {
+            Postings list = lists.get(l);
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < count; i++) {
+                int index = Arrays.binarySearch(list.ids, from, list.size, candidates[i]);
+                if (index >= 0) {
+                    candidates[kept] = candidates[i];
+                    scores[kept++] = scores[i] + weight(list.fields[index]) * 2;
+                    from = index + 1;
+                } else {
+                    from = -index - 1;
+                }
+            }
+            count = kept;
+        }
+
+        Map<Integer, Integer> matches = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int score = scores[i];
+            if (prefix != null) {
+                int prefixScore = terms.get(candidates[i]).prefixScore(prefix);
+                if (prefixScore == 0) {
+                    continue;
+                }
+                score += prefixScore;
+            }
+            matches.put(candidates[i], score);
+        }
+        return matches;
+    }
+
+    private Map<Integer, Integer> matchTerm(String term) {
+        Map<Integer, Integer> matches = new HashMap<>();
+        Postings list = postings.get(term);
+        if (list != null) {
+            for (int i = 0; i < list.size; i++) {
+                matches.put(list.ids[i], weight(list.fields[i]) * 2);
+            }
+        }
+        return matches;
+    }
+
+    private Map<Integer, Integer> matchPrefix(String prefix) {
+        Map<Integer, Integer> matches = new HashMap<>();
+        NavigableMap<String, Postings> expansion = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Postings> entry : expansion.entrySet()) {
+            // Whole-term matches rank above prefix matches
+            int factor = entry.getKey().equals(prefix) ? 2 : 1;
+            Postings list = entry.getValue();
+            for (int i = 0; i < list.size; i++) {
+                matches.merge(list.ids[i], weight(list.fields[i]) * factor, Math::max);
+            }
+        }
+        return matches;
+    }
+
+    private List<Item> rank(Map<Integer, Integer> scores, int offset, int limit, IntFunction<Item> items) {
+        Comparator<Map.Entry<Integer, Integer>> better = Comparator
+            .comparing((Map.Entry<Integer, Integer> entry) -> entry.getValue())
+            .thenComparing(entry -> totalSold(items.apply(entry.getKey())))
+            .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+
+        // Keep only the best offset + limit entries; the head is the worst of them
+        int keep = offset + limit;
+        PriorityQueue<Map.Entry<Integer, Integer>> top = new PriorityQueue<>(Math.min(keep, 1024), better);
+        for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+            if (top.size() < keep) {
+                top.add(entry);
+            } else if (better.compare(entry, top.peek()) > 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+
+        List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(top);
+        ranked.sort(better.reversed());
+        List<Item> page = new ArrayList<>();
+        for (int i = offset; i < ranked.size(); i++) {
+            Item item = items.apply(ranked.get(i).getKey());
+            if (item != null) {
+                page.add(item);
+            }
+        }
+        return page;
+    }
+
+    private void unindex(Integer itemId) {
+        IndexedTerms previous = terms.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(itemId) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> fieldsByTerm, List<String> fieldTerms, int field) {
+        for (String term : fieldTerms) {
+            if (!term.isEmpty()) {
+                fieldsByTerm.merge(term, field, (a, b) -> a | b);
+            }
+        }
+    }
+
+    private static int totalSold(Item item) {
+        return item != null && item.getTotalSold() != null ? item.getTotalSold() : 0;
+    }
+
+    // Relevance of a term is that of the most important field it occurs in
+    private static int weight(int fields) {
+        if ((fields & FIELD_NAME) != 0) {
+            return 10;
+        }
+        if ((fields & (FIELD_CODE | FIELD_ISBN)) != 0) {
+            return 8;
+        }
+        if ((fields & FIELD_AUTHOR) != 0) {
+            return 6;
+        }
+        return 3;
+    }
+
+    /**
+     * Item IDs containing a term, sorted ascending, with the fields the term occurs in
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private byte[] fields = new byte[4];
+        private int size;
+
+        private void add(int itemId, int fieldMask) {
+            int index = Arrays.binarySearch(ids, 0, size, itemId);
+            if (index >= 0) {
+                fields[index] = (byte) fieldMask;
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(fields, index, fields, index + 1, size - index);
+            ids[index] = itemId;
+            fields[index] = (byte) fieldMask;
+            size++;
+        }
+
+        private boolean remove(int itemId) {
+            int index = Arrays.binarySearch(ids, 0, size, itemId);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(fields, index + 1, fields, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Terms of one indexed item with their field masks
+     */
+    private static final class IndexedTerms {
+        private final String[] terms;
+        private final int[] fields;
+
+        private IndexedTerms(Map<String, Integer> fieldsByTerm) {
+            this.terms = fieldsByTerm.keySet().toArray(new String[0]);
+            this.fields = fieldsByTerm.values().stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Best score of a term starting with the prefix, 0 if none
+        private int prefixScore(String prefix) {
+            int best = 0;
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i].startsWith(prefix)) {
+                    int factor = terms[i].length() == prefix.length() ? 2 : 1;
+                    best = Math.max(best, weight(fields[i]) * factor);
+                }
+            }
+            return best;
+        }
+    }
+}
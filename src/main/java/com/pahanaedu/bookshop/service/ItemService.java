@@ -6,11 +6,15 @@ import com.pahanaedu.bookshop.util.ValidationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Service class for Item-related business logic
@@ -22,12 +26,16 @@ public class ItemService {
     private final CategoryDAO categoryDAO;
     private final StockMovementDAO stockMovementDAO;
     private final ActivityLogDAO activityLogDAO;
+    private final TableVersionService tableVersions;
+    private final ItemCatalog catalog;
 
     public ItemService() {
         this.itemDAO = new ItemDAO();
         this.categoryDAO = new CategoryDAO();
         this.stockMovementDAO = new StockMovementDAO();
         this.activityLogDAO = new ActivityLogDAO();
+        this.tableVersions = TableVersionService.getInstance();
+        this.catalog = ItemCatalog.getInstance();
     }
 
     /**
@@ -56,7 +64,11 @@ public class ItemService {
             }
 
             item.setCreatedBy(createdBy);
-            Item savedItem = itemDAO.save(item);
+            Item savedItem = TransactionManager.inTransaction(() -> {
+                Item saved = itemDAO.save(item);
+                tableVersions.bump(TableVersionDAO.Table.ITEMS);
+                return saved;
+            });
 
             // Create initial stock movement if stock quantity > 0
             if (savedItem.getStockQuantity() > 0) {
@@ -69,6 +81,7 @@ public class ItemService {
             logActivity(createdBy, ActivityLog.Actions.CREATE, "items", savedItem.getItemId(), 
                       "Item created: " + savedItem.getItemCode());
 
+            catalog.refresh(List.of(savedItem.getItemId()));
             logger.info("Item created successfully: {}", savedItem.getItemCode());
             return savedItem;
 
@@ -113,12 +126,17 @@ public class ItemService {
                 throw new ServiceException("Category not found with ID: " + item.getCategoryId());
             }
 
-            Item updatedItem = itemDAO.update(item);
+            Item updatedItem = TransactionManager.inTransaction(() -> {
+                Item updated = itemDAO.update(item);
+                tableVersions.bump(TableVersionDAO.Table.ITEMS);
+                return updated;
+            });
 
             // Log activity
             logActivity(updatedBy, ActivityLog.Actions.UPDATE, "items", updatedItem.getItemId(), 
                       "Item updated: " + updatedItem.getItemCode());
 
+            catalog.refresh(List.of(updatedItem.getItemId()));
             logger.info("Item updated successfully: {}", updatedItem.getItemCode());
             return updatedItem;
 
@@ -152,7 +170,11 @@ public class ItemService {
             }
 
             // Update stock quantity
-            itemDAO.updateStock(itemId, newQuantity);
+            TransactionManager.inTransaction(() -> {
+                itemDAO.updateStock(itemId, newQuantity);
+                tableVersions.bump(TableVersionDAO.Table.ITEMS);
+                return null;
+            });
 
             // Create stock movement
             StockMovement.MovementType movementType = difference > 0 ? 
@@ -165,6 +187,7 @@ public class ItemService {
             logActivity(adjustedBy, ActivityLog.Actions.STOCK_ADJUSTMENT, "items", itemId, 
                       String.format("Stock adjusted from %d to %d: %s", oldQuantity, newQuantity, reason));
 
+            catalog.refresh(List.of(itemId));
             logger.info("Stock adjusted for item {}: {} -> {}", item.getItemCode(), oldQuantity, newQuantity);
 
         } catch (DAOException e) {
@@ -173,6 +196,67 @@ public class ItemService {
         }
     }
 
+    /**
+     * Apply a stocktake: set counted quantities for several items at once.
+     * Stock updates and stock movements are written in batches inside one transaction.
+     * @param countedQuantities Counted stock quantity, keyed by item ID
+     * @param reason Reason for adjustment
+     * @param adjustedBy ID of user performing the stocktake
+     * @return Number of items whose stock changed
+     * @throws ServiceException if the stocktake fails
+     */
+    public int applyStocktake(Map<Integer, Integer> countedQuantities, String reason, Integer adjustedBy) throws ServiceException {
+        try {
+            List<StockMovement> movements = TransactionManager.inTransaction(() -> {
+                // Lock the rows before reading stock, so sales committed meanwhile are not overwritten
+                Map<Integer, Integer> stock = itemDAO.lockStock(countedQuantities.keySet());
+                for (Integer itemId : countedQuantities.keySet()) {
+                    if (!stock.containsKey(itemId)) {
+                        throw new ServiceException("Item not found with ID: " + itemId);
+                    }
+                }
+
+                Map<Integer, Integer> changedQuantities = new LinkedHashMap<>();
+                List<StockMovement> stocktakeMovements = new ArrayList<>();
+                for (Map.Entry<Integer, Integer> entry : countedQuantities.entrySet()) {
+                    int difference = entry.getValue() - stock.get(entry.getKey());
+                    if (difference == 0) {
+                        continue;
+                    }
+
+                    changedQuantities.put(entry.getKey(), entry.getValue());
+                    StockMovement.MovementType movementType = difference > 0 ?
+                        StockMovement.MovementType.IN : StockMovement.MovementType.OUT;
+                    StockMovement movement = new StockMovement(entry.getKey(), movementType, Math.abs(difference),
+                        StockMovement.ReferenceType.ADJUSTMENT, null, reason);
+                    movement.setCreatedBy(adjustedBy);
+                    stocktakeMovements.add(movement);
+                }
+
+                itemDAO.updateStockBatch(changedQuantities);
+                stockMovementDAO.saveBatch(stocktakeMovements);
+                if (!changedQuantities.isEmpty()) {
+                    tableVersions.bump(TableVersionDAO.Table.ITEMS);
+                }
+                return stocktakeMovements;
+            });
+
+            for (StockMovement movement : movements) {
+                logActivity(adjustedBy, ActivityLog.Actions.STOCK_ADJUSTMENT, "items", movement.getItemId(),
+                          String.format("Stocktake %s %d: %s", movement.getMovementType().getValue(),
+                              movement.getQuantity(), reason));
+            }
+
+            catalog.refresh(movements.stream().map(StockMovement::getItemId).collect(Collectors.toList()));
+            logger.info("Stocktake applied: {} of {} items changed", movements.size(), countedQuantities.size());
+            return movements.size();
+
+        } catch (DAOException e) {
+            logger.error("Error applying stocktake", e);
+            throw new ServiceException("Failed to apply stocktake", e);
+        }
+    }
+
     /**
      * Get item by ID
      * @param itemId Item ID
@@ -180,6 +264,10 @@ public class ItemService {
      * @throws ServiceException if retrieval fails
      */
     public Optional<Item> getItemById(Integer itemId) throws ServiceException {
+        Item cached = catalog.findById(itemId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
             return itemDAO.findById(itemId);
         } catch (DAOException e) {
@@ -195,6 +283,10 @@ public class ItemService {
      * @throws ServiceException if retrieval fails
      */
     public Optional<Item> getItemByCode(String itemCode) throws ServiceException {
+        Item cached = catalog.findByCode(itemCode);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
             return itemDAO.findByCode(itemCode);
         } catch (DAOException e) {
@@ -210,6 +302,10 @@ public class ItemService {
      * @throws ServiceException if retrieval fails
      */
     public Optional<Item> getItemByBarcode(String barcode) throws ServiceException {
+        Item cached = catalog.findByBarcode(barcode);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
             return itemDAO.findByBarcode(barcode);
         } catch (DAOException e) {
@@ -218,6 +314,30 @@ public class ItemService {
         }
     }
 
+    /**
+     * Get the scan projection (ID, code, name, price, stock and status) of an item by barcode,
+     * already serialized as JSON
+     * @param barcode Barcode
+     * @return JSON bytes if found
+     * @throws ServiceException if retrieval fails
+     */
+    public Optional<byte[]> getItemScanJson(String barcode) throws ServiceException {
+        byte[] cached = catalog.findScanJson(barcode);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        try {
+            Optional<Item> itemOpt = itemDAO.findByBarcode(barcode);
+            if (itemOpt.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(ItemScanIndex.toJson(itemOpt.get()));
+        } catch (DAOException | IOException e) {
+            logger.error("Error getting item scan by barcode: {}", barcode, e);
+            throw new ServiceException("Failed to get item", e);
+        }
+    }
+
     /**
      * Get all items with pagination
      * @param page Page number (1-based)
@@ -236,7 +356,7 @@ public class ItemService {
     }
 
     /**
-     * Search items
+     * Search items, ranked by relevance and units sold (full-text index when the catalog is loaded)
      * @param searchTerm Search term
      * @param page Page number (1-based)
      * @param pageSize Number of items per page
@@ -250,6 +370,10 @@ public class ItemService {
             }
             
             int offset = (page - 1) * pageSize;
+            List<Item> indexed = catalog.search(searchTerm, offset, pageSize);
+            if (indexed != null) {
+                return indexed;
+            }
             return itemDAO.search(searchTerm.trim(), offset, pageSize);
         } catch (DAOException e) {
             logger.error("Error searching items with term: {}", searchTerm, e);
@@ -257,6 +381,31 @@ public class ItemService {
         }
     }
 
+    /**
+     * Typeahead suggestions: best-selling items whose name, author or ISBN starts with a prefix
+     * @param prefix Typed prefix
+     * @param limit Maximum number of suggestions
+     * @return List of items, most sold first
+     * @throws ServiceException if retrieval fails
+     */
+    public List<Item> suggestItems(String prefix, int limit) throws ServiceException {
+        List<Item> indexed = catalog.suggest(prefix, limit);
+        if (indexed != null) {
+            return indexed;
+        }
+        String trimmed = prefix.trim();
+        if (trimmed.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            // Catalog not loaded yet: same prefix semantics and ranking, straight from the table
+            return itemDAO.findByPrefix(trimmed, limit);
+        } catch (DAOException e) {
+            logger.error("Error getting item suggestions for prefix: {}", prefix, e);
+            throw new ServiceException("Failed to get item suggestions", e);
+        }
+    }
+
     /**
      * Get items by category
      * @param categoryId Category ID
@@ -264,6 +413,10 @@ public class ItemService {
      * @throws ServiceException if retrieval fails
      */
     public List<Item> getItemsByCategory(Integer categoryId) throws ServiceException {
+        List<Item> cached = catalog.findByCategory(categoryId);
+        if (cached != null) {
+            return cached;
+        }
         try {
             return itemDAO.findByCategory(categoryId);
         } catch (DAOException e) {
@@ -272,6 +425,88 @@ public class ItemService {
         }
     }
 
+    /**
+     * Browse the active items of a category page by page. Bestselling pages are approximate,
+     * since sales move items across the cursor between pages (see {@link ItemDAO.BrowseSort}).
+     * @param categoryId Category ID
+     * @param sort Sort order (name, price, newest or bestselling), or null for newest
+     * @param cursor Continuation token from the previous page, or null for the first page
+     * @param pageSize Number of items per page
+     * @return Page of items with the token for the next page
+     * @throws ServiceException if the sort or cursor is invalid or retrieval fails
+     */
+    public CursorPage<Item> browseCategory(Integer categoryId, String sort, String cursor, int pageSize) throws ServiceException {
+        ItemDAO.BrowseSort browseSort;
+        try {
+            browseSort = sort == null || sort.trim().isEmpty()
+                ? ItemDAO.BrowseSort.NEWEST : ItemDAO.BrowseSort.fromString(sort.trim());
+        } catch (IllegalArgumentException e) {
+            throw new ServiceException("Validation failed: invalid sort");
+        }
+
+        ItemCursor position = null;
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            try {
+                position = ItemCursor.decode(cursor.trim());
+            } catch (IllegalArgumentException e) {
+                throw new ServiceException("Validation failed: invalid cursor");
+            }
+            if (position.getSort() != browseSort) {
+                throw new ServiceException("Validation failed: invalid cursor");
+            }
+        }
+
+        try {
+            // One extra row tells whether there is a next page
+            List<Item> items = itemDAO.findByCategoryAfter(categoryId, browseSort, position, pageSize + 1);
+            if (items.size() <= pageSize) {
+                return new CursorPage<>(items, null);
+            }
+            List<Item> page = new ArrayList<>(items.subList(0, pageSize));
+            return new CursorPage<>(page, ItemCursor.after(page.get(pageSize - 1), browseSort).encode());
+        } catch (DAOException e) {
+            logger.error("Error browsing items by category: {}", categoryId, e);
+            throw new ServiceException("Failed to get items by category", e);
+        }
+    }
+
+    /**
+     * Get the number of active items in a category
+     * @param categoryId Category ID
+     * @return Item count
+     * @throws ServiceException if counting fails
+     */
+    public long getItemCountByCategory(Integer categoryId) throws ServiceException {
+        Long cached = catalog.countByCategory(categoryId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            return itemDAO.countActiveByCategory(categoryId);
+        } catch (DAOException e) {
+            logger.error("Error counting items by category: {}", categoryId, e);
+            throw new ServiceException("Failed to count items by category", e);
+        }
+    }
+
+    /**
+     * Get the number of active items in every category
+     * @return Item count per category ID
+     * @throws ServiceException if counting fails
+     */
+    public Map<Integer, Long> getItemCountsByCategory() throws ServiceException {
+        Map<Integer, Long> cached = catalog.countsByCategory();
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            return itemDAO.countActiveGroupByCategory();
+        } catch (DAOException e) {
+            logger.error("Error counting items per category", e);
+            throw new ServiceException("Failed to count items per category", e);
+        }
+    }
+
     /**
      * Get low stock items
      * @return List of items with low stock
@@ -315,12 +550,19 @@ public class ItemService {
             }
 
             Item item = itemOpt.get();
-            boolean deleted = itemDAO.delete(itemId);
+            boolean deleted = TransactionManager.inTransaction(() -> {
+                boolean removed = itemDAO.delete(itemId);
+                if (removed) {
+                    tableVersions.bump(TableVersionDAO.Table.ITEMS);
+                }
+                return removed;
+            });
 
             if (deleted) {
                 // Log activity
                 logActivity(deletedBy, ActivityLog.Actions.DELETE, "items", itemId, 
                           "Item deleted: " + item.getItemCode());
+                catalog.remove(itemId);
                 logger.info("Item deleted successfully: {}", item.getItemCode());
             }
 
@@ -0,0 +1,338 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.model.Item;
+import com.pahanaedu.bookshop.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Radix trie over folded item names, author names and ISBNs for typeahead suggestions.
+ * Every node keeps the IDs of the most popular items (by units sold) in its subtree, so a
+ * suggestion is one walk down the prefix and no scan. Keys and top lists are primitive arrays;
+ * inserting or removing a key only recomputes the top lists on its own path.
+ * Maintained by {@link ItemCatalog}.
+ */
+class ItemSuggestIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int topK;
+    private final IntToLongFunction popularity;
+    private final Node root = new Node(new char[0]);
+    private int keyCount;
+
+    /**
+     * Create an index
+     * @param topK Number of items kept per node
+     * @param popularity Units sold of an item by ID
+     */
+    ItemSuggestIndex(int topK, IntToLongFunction popularity) {
+        this.topK = topK;
+        this.popularity = popularity;
+    }
+
+    /**
+     * Index an item under its name, author and ISBN
+     * @param item Item
+     */
+    void put(Item item) {
+        lock.writeLock().lock();
+        try {
+            for (String key : keysOf(item)) {
+                insert(key, item.getItemId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop an item
+     * @param item Item as it was indexed
+     */
+    void remove(Item item) {
+        lock.writeLock().lock();
+        try {
+            for (String key : keysOf(item)) {
+                delete(key, item.getItemId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the most popular items with a name, author or ISBN starting with a prefix
+     * @param prefix Typed prefix
+     * @param limit Maximum number of IDs (at most the configured top K)
+     * @return Item IDs, most popular first
+     */
+    int[] suggest(String prefix, int limit) {
+        // Normalize like the keys, so "harry  potter" and "potter:" match; a hyphenated ISBN
+        // such as "978-0-13" is stored compact, so that form is tried as well
+        String key = String.join(" ", TextNormalizer.tokenize(prefix));
+        if (key.isEmpty()) {
+            return new int[0];
+        }
+        String compact = TextNormalizer.compact(prefix);
+
+        lock.readLock().lock();
+        try {
+            int[] top = find(key);
+            if (!compact.equals(key)) {
+                int[] compactTop = find(compact);
+                if (compactTop.length > 0) {
+                    int[] merged = Arrays.copyOf(top, top.length + compactTop.length);
+                    System.arraycopy(compactTop, 0, merged, top.length, compactTop.length);
+                    top = best(merged);
+                }
+            }
+            return Arrays.copyOf(top, Math.min(limit, top.length));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of indexed keys
+     * @return Key count
+     */
+    int keyCount() {
+        lock.readLock().lock();
+        try {
+            return keyCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Top list of the node at the end of a key prefix, empty if no key starts with it
+    private int[] find(String key) {
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = node.child(key.charAt(depth));
+            if (child == null) {
+                return new int[0];
+            }
+            int matched = child.match(key, depth);
+            if (depth + matched < key.length() && matched < child.label.length) {
+                // Diverges inside the edge
+                return new int[0];
+            }
+            depth += matched;
+            node = child;
+        }
+        return node.top;
+    }
+
+    private void insert(String key, int itemId) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = node.child(key.charAt(depth));
+            if (child == null) {
+                child = new Node(key.substring(depth).toCharArray());
+                node.addChild(child);
+                depth = key.length();
+            } else {
+                int matched = child.match(key, depth);
+                if (matched < child.label.length) {
+                    child = split(node, child, matched);
+                }
+                depth += matched;
+            }
+            node = child;
+            path.add(node);
+        }
+
+        if (node.addItem(itemId)) {
+            keyCount++;
+        }
+        updateTops(path);
+    }
+
+    private void delete(String key, int itemId) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = node.child(key.charAt(depth));
+            if (child == null || child.match(key, depth) < child.label.length) {
+                return;
+            }
+            depth += child.label.length;
+            node = child;
+            path.add(node);
+        }
+
+        if (!node.removeItem(itemId)) {
+            return;
+        }
+        keyCount--;
+
+        // Prune empty leaves and merge pass-through nodes to keep the trie compact
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (current.items.length == 0 && current.children.length == 0) {
+                parent.removeChild(current);
+                path.remove(i);
+            } else if (current.items.length == 0 && current.children.length == 1) {
+                Node only = current.children[0];
+                char[] label = Arrays.copyOf(current.label, current.label.length + only.label.length);
+                System.arraycopy(only.label, 0, label, current.label.length, only.label.length);
+                only.label = label;
+                parent.replaceChild(current, only);
+                path.set(i, only);
+            }
+        }
+        updateTops(path);
+    }
+
+    // Split child's edge after `at` characters, returning the new intermediate node
+    private Node split(Node parent, Node child, int at) {
+        Node middle = new Node(Arrays.copyOf(child.label, at));
+        child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+        parent.replaceChild(child, middle);
+        middle.addChild(child);
+        middle.top = child.top;
+        return middle;
+    }
+
+    private void updateTops(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            int[] candidates = node.items;
+            for (Node child : node.children) {
+                int[] merged = Arrays.copyOf(candidates, candidates.length + child.top.length);
+                System.arraycopy(child.top, 0, merged, candidates.length, child.top.length);
+                candidates = merged;
+            }
+            node.top = best(candidates);
+        }
+    }
+
+    // Distinct IDs ordered by popularity, cut to top K
+    private int[] best(int[] candidates) {
+        long[] ranked = new long[candidates.length];
+        int count = 0;
+        Set<Integer> seen = new LinkedHashSet<>();
+        for (int itemId : candidates) {
+            if (seen.add(itemId)) {
+                // Popularity in the high bits, then lower ID first on ties
+                ranked[count++] = (popularity.applyAsLong(itemId) << 31) | (Integer.MAX_VALUE - itemId);
+            }
+        }
+        Arrays.sort(ranked, 0, count);
+
+        int[] top = new int[Math.min(topK, count)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = Integer.MAX_VALUE - (int) (ranked[count - 1 - i] & Integer.MAX_VALUE);
+        }
+        return top;
+    }
+
+    private static Set<String> keysOf(Item item) {
+        Set<String> keys = new LinkedHashSet<>();
+        addKey(keys, String.join(" ", TextNormalizer.tokenize(item.getItemName())));
+        addKey(keys, String.join(" ", TextNormalizer.tokenize(item.getAuthor())));
+        addKey(keys, TextNormalizer.compact(item.getIsbn()));
+        return keys;
+    }
+
+    private static void addKey(Set<String> keys, String key) {
+        if (!key.isEmpty()) {
+            keys.add(key);
+        }
+    }
+
+    /**
+     * Trie node; the label is the edge from the parent
+     */
+    private static final class Node {
+        private char[] label;
+        private Node[] children = new Node[0];
+        private int[] items = new int[0];
+        private int[] top = new int[0];
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        private Node child(char first) {
+            for (Node child : children) {
+                if (child.label[0] == first) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        // Number of label characters matching key from offset
+        private int match(String key, int offset) {
+            int matched = 0;
+            while (matched < label.length && offset + matched < key.length()
+                    && label[matched] == key.charAt(offset + matched)) {
+                matched++;
+            }
+            return matched;
+        }
+
+        private void addChild(Node child) {
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+        }
+
+        private void removeChild(Node child) {
+            Node[] remaining = new Node[children.length - 1];
+            int index = 0;
+            for (Node existing : children) {
+                if (existing != child) {
+                    remaining[index++] = existing;
+                }
+            }
+            children = remaining;
+        }
+
+        private void replaceChild(Node child, Node replacement) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    children[i] = replacement;
+                }
+            }
+        }
+
+        private boolean addItem(int itemId) {
+            for (int existing : items) {
+                if (existing == itemId) {
+                    return false;
+                }
+            }
+            items = Arrays.copyOf(items, items.length + 1);
+            items[items.length - 1] = itemId;
+            return true;
+        }
+
+        private boolean removeItem(int itemId) {
+            for (int i = 0; i < items.length; i++) {
+                if (items[i] == itemId) {
+                    int[] remaining = new int[items.length - 1];
+                    System.arraycopy(items, 0, remaining, 0, i);
+                    System.arraycopy(items, i + 1, remaining, i, items.length - i - 1);
+                    items = remaining;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
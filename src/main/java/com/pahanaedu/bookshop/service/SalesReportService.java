@@ -0,0 +1,189 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.dao.DailySalesDAO;
+import com.pahanaedu.bookshop.dao.TransactionManager;
+import com.pahanaedu.bookshop.model.SalesSummary;
+import com.pahanaedu.bookshop.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sales reports served from the daily_sales rollup, plus the job that rebuilds it.
+ * Bill creation and cancellation keep the rollup current inside the bill transaction; the
+ * rebuild job backfills history (and fixes drift) one calendar month per transaction, so
+ * bill traffic on a given day is only blocked while that month is recomputed.
+ */
+public class SalesReportService {
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportService.class);
+
+    private static final SalesReportService INSTANCE = new SalesReportService();
+
+    private final DailySalesDAO dailySalesDAO;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor;
+    private volatile LocalDateTime lastRebuildAt;
+    private volatile String lastRebuildError;
+
+    private SalesReportService() {
+        this.dailySalesDAO = new DailySalesDAO();
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "daily-sales-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the shared report service
+     * @return Service instance
+     */
+    public static SalesReportService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get sales totals per period
+     * @param granularity Period length
+     * @param byCategory true to split each period by category
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Summaries for periods with sales, oldest first
+     * @throws ServiceException if retrieval fails
+     */
+    public List<SalesSummary> getSales(DailySalesDAO.Granularity granularity, boolean byCategory,
+                                       LocalDate startDate, LocalDate endDate) throws ServiceException {
+        try {
+            return byCategory
+                ? dailySalesDAO.findCategoryTotals(granularity, startDate, endDate)
+                : dailySalesDAO.findTotals(granularity, startDate, endDate);
+        } catch (DAOException e) {
+            logger.error("Error getting sales report: {} to {}", startDate, endDate, e);
+            throw new ServiceException("Failed to get sales report", e);
+        }
+    }
+
+    /**
+     * Rebuild the rollup for a date range now, one month per transaction
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Number of rollup rows written
+     * @throws ServiceException if rebuild fails
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) throws ServiceException {
+        try {
+            int rows = 0;
+            LocalDate from = startDate;
+            while (!from.isAfter(endDate)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new ServiceException("Daily sales rebuild interrupted");
+                }
+                LocalDate monthEnd = from.withDayOfMonth(from.lengthOfMonth());
+                LocalDate to = monthEnd.isBefore(endDate) ? monthEnd : endDate;
+                LocalDate chunkStart = from;
+                rows += TransactionManager.inTransaction(() -> dailySalesDAO.rebuild(chunkStart, to));
+                from = to.plusDays(1);
+            }
+
+            logger.info("Daily sales rebuilt: {} to {}, {} rows", startDate, endDate, rows);
+            return rows;
+
+        } catch (DAOException e) {
+            logger.error("Error rebuilding daily sales: {} to {}", startDate, endDate, e);
+            throw new ServiceException("Failed to rebuild daily sales", e);
+        }
+    }
+
+    /**
+     * Rebuild the rollup in the background
+     * @param startDate Start date, or null for the first bill date
+     * @param endDate End date, or null for the last bill date
+     * @return false if a rebuild is already running
+     */
+    public boolean startRebuild(LocalDate startDate, LocalDate endDate) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rebuildRange(startDate, endDate);
+                    lastRebuildError = null;
+                } catch (Exception e) {
+                    logger.error("Daily sales rebuild failed", e);
+                    lastRebuildError = e.getMessage();
+                } finally {
+                    lastRebuildAt = LocalDateTime.now();
+                    rebuilding.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            rebuilding.set(false);
+            return false;
+        }
+    }
+
+    /**
+     * Backfill the whole history in the background if the rollup is still empty,
+     * e.g. on first start after the table was created
+     */
+    public void start() {
+        if (!AppConfig.getBoolean("reports.sales.backfillOnStartup", true)) {
+            return;
+        }
+        try {
+            if (!dailySalesDAO.hasRows()) {
+                logger.info("Daily sales rollup is empty, starting backfill");
+                startRebuild(null, null);
+            }
+        } catch (DAOException e) {
+            logger.error("Error checking daily sales rollup", e);
+        }
+    }
+
+    /**
+     * Stop the rebuild thread; a rebuild in progress is abandoned between months
+     */
+    public void stop() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Get rebuild status for monitoring
+     * @return Map of status name to value
+     */
+    public Map<String, Object> getRebuildStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", rebuilding.get());
+        status.put("lastRebuildAt", lastRebuildAt);
+        status.put("lastError", lastRebuildError);
+        return status;
+    }
+
+    private void rebuildRange(LocalDate startDate, LocalDate endDate) throws ServiceException, DAOException {
+        if (startDate == null || endDate == null) {
+            Optional<LocalDate[]> range = dailySalesDAO.findBillDateRange();
+            if (range.isEmpty()) {
+                logger.info("No active bills, daily sales rebuild skipped");
+                return;
+            }
+            startDate = startDate != null ? startDate : range.get()[0];
+            endDate = endDate != null ? endDate : range.get()[1];
+        }
+        rebuild(startDate, endDate);
+    }
+}
@@ -0,0 +1,108 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.dao.DAOException;
+import com.pahanaedu.bookshop.dao.TableVersionDAO;
+import com.pahanaedu.bookshop.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Version tokens for tables, used to build ETags for list responses.
+ * A token is built only from the version counters in the database, so every node produces the
+ * same ETag for the same data. Versions are cached for a short TTL, so polling clients do not
+ * query them on every request; a bump drops this node's cached version, and writes on other
+ * nodes become visible once the TTL expires.
+ */
+public class TableVersionService {
+    private static final Logger logger = LoggerFactory.getLogger(TableVersionService.class);
+
+    private static final TableVersionService INSTANCE = new TableVersionService();
+
+    private final TableVersionDAO tableVersionDAO;
+    private final long ttlNanos;
+    private final Map<TableVersionDAO.Table, CachedVersion> versions = new EnumMap<>(TableVersionDAO.Table.class);
+
+    private TableVersionService() {
+        this.tableVersionDAO = new TableVersionDAO();
+        this.ttlNanos = AppConfig.getLong("http.etag.versionTtlMillis", 2000) * 1_000_000L;
+    }
+
+    /**
+     * Get the shared version service
+     * @return Service instance
+     */
+    public static TableVersionService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get a combined version token for one or more tables
+     * @param tables Tables the response is read from
+     * @return Token that changes whenever any of the tables changes
+     * @throws ServiceException if a version cannot be read
+     */
+    public String getVersion(TableVersionDAO.Table... tables) throws ServiceException {
+        StringBuilder version = new StringBuilder();
+        for (TableVersionDAO.Table table : tables) {
+            if (version.length() > 0) {
+                version.append('-');
+            }
+            version.append(getVersion(table));
+        }
+        return version.toString();
+    }
+
+    /**
+     * Record a write. Call inside the transaction that writes the tables, so the version
+     * changes when, and only if, the write commits.
+     * @param tables Tables that were written
+     * @throws DAOException if the versions cannot be updated
+     */
+    public void bump(TableVersionDAO.Table... tables) throws DAOException {
+        tableVersionDAO.bump(tables);
+        synchronized (versions) {
+            for (TableVersionDAO.Table table : tables) {
+                versions.remove(table);
+            }
+        }
+    }
+
+    private long getVersion(TableVersionDAO.Table table) throws ServiceException {
+        long now = System.nanoTime();
+        CachedVersion cached;
+        synchronized (versions) {
+            cached = versions.get(table);
+        }
+        if (cached != null && now - cached.loadedAt < ttlNanos) {
+            return cached.value;
+        }
+
+        try {
+            // Concurrent misses may both query; the result is the same
+            CachedVersion loaded = new CachedVersion(tableVersionDAO.findVersion(table), now);
+            synchronized (versions) {
+                versions.put(table, loaded);
+            }
+            return loaded.value;
+        } catch (DAOException e) {
+            logger.error("Error reading version of table: {}", table.getTableName(), e);
+            throw new ServiceException("Failed to read table version", e);
+        }
+    }
+
+    /**
+     * Version with the time it was read
+     */
+    private static final class CachedVersion {
+        private final long value;
+        private final long loadedAt;
+
+        private CachedVersion(long value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
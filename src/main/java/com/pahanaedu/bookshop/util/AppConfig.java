@@ -0,0 +1,92 @@
+package com.pahanaedu.bookshop.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Application configuration loaded from application.properties.
+ * System properties with the same key override file values.
+ */
+public class AppConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
+    private static final String CONFIG_FILE = "application.properties";
+    private static final Properties properties = loadProperties();
+
+    private static Properties loadProperties() {
+        Properties props = new Properties();
+
+        try (InputStream input = AppConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (input != null) {
+                props.load(input);
+                logger.info("Application properties loaded from {}", CONFIG_FILE);
+            } else {
+                logger.warn("Application properties file {} not found, using defaults", CONFIG_FILE);
+            }
+        } catch (IOException e) {
+            logger.warn("Error loading application properties, using defaults", e);
+        }
+
+        return props;
+    }
+
+    /**
+     * Get a string setting
+     * @param key Setting key
+     * @param defaultValue Value used when the key is not set
+     * @return Setting value
+     */
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key, properties.getProperty(key));
+        return (value != null && !value.trim().isEmpty()) ? value.trim() : defaultValue;
+    }
+
+    /**
+     * Get an integer setting
+     * @param key Setting key
+     * @param defaultValue Value used when the key is not set or invalid
+     * @return Setting value
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        try {
+            return (value != null) ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid integer for {}: '{}', using {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get a long setting
+     * @param key Setting key
+     * @param defaultValue Value used when the key is not set or invalid
+     * @return Setting value
+     */
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        try {
+            return (value != null) ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid long for {}: '{}', using {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Get a boolean setting
+     * @param key Setting key
+     * @param defaultValue Value used when the key is not set
+     * @return Setting value
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return (value != null) ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    // Private constructor to prevent instantiation
+    private AppConfig() {}
+}
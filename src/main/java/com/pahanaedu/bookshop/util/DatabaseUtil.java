@@ -8,6 +8,8 @@ import org.slf4j.LoggerFactory;
 import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Properties;
@@ -20,6 +22,9 @@ public class DatabaseUtil {
     private static HikariDataSource dataSource;
     private static final String CONFIG_FILE = "database.properties";
 
+    // Connection bound to the current thread while a transaction is open
+    private static final ThreadLocal<TransactionState> currentTransaction = new ThreadLocal<>();
+
     static {
         initializeDataSource();
     }
@@ -85,17 +90,185 @@ public class DatabaseUtil {
     }
 
     /**
-     * Get a database connection from the connection pool
+     * Get a database connection from the connection pool.
+     * If a transaction is open on the current thread, the transaction's connection is
+     * returned instead, wrapped so that close/commit/rollback/setAutoCommit calls made
+     * by DAOs do not end the surrounding transaction.
      * @return Database connection
      * @throws SQLException if connection cannot be obtained
      */
     public static Connection getConnection() throws SQLException {
+        TransactionState transaction = currentTransaction.get();
+        if (transaction != null) {
+            return transaction.participant;
+        }
+        if (dataSource == null) {
+            throw new SQLException("DataSource is not initialized");
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Get a pooled connection that never joins the current thread's transaction.
+     * Use for short independent writes (e.g. counters) that must commit on their own.
+     * @return Database connection in auto-commit mode
+     * @throws SQLException if connection cannot be obtained
+     */
+    public static Connection getIndependentConnection() throws SQLException {
         if (dataSource == null) {
             throw new SQLException("DataSource is not initialized");
         }
         return dataSource.getConnection();
     }
 
+    /**
+     * Begin a transaction bound to the current thread. Nested calls join the
+     * outermost transaction, which is the only one that commits.
+     * @throws SQLException if connection cannot be obtained
+     */
+    public static void beginTransaction() throws SQLException {
+        TransactionState transaction = currentTransaction.get();
+        if (transaction != null) {
+            transaction.depth++;
+            return;
+        }
+
+        if (dataSource == null) {
+            throw new SQLException("DataSource is not initialized");
+        }
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            closeConnection(connection);
+            throw e;
+        }
+        currentTransaction.set(new TransactionState(connection));
+    }
+
+    /**
+     * Commit the current thread's transaction and release its connection.
+     * Only the outermost call commits; nested calls just leave the transaction.
+     * @throws SQLException if commit fails (the transaction is rolled back)
+     */
+    public static void commitTransaction() throws SQLException {
+        TransactionState transaction = currentTransaction.get();
+        if (transaction == null) {
+            throw new SQLException("No transaction is active on this thread");
+        }
+        if (transaction.depth > 0) {
+            transaction.depth--;
+            return;
+        }
+
+        try {
+            if (transaction.rollbackOnly) {
+                transaction.connection.rollback();
+                throw new SQLException("Transaction was marked rollback-only by a nested scope");
+            }
+            transaction.connection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly(transaction.connection);
+            throw e;
+        } finally {
+            release(transaction);
+        }
+    }
+
+    /**
+     * Roll back the current thread's transaction and release its connection.
+     * Nested calls mark the outer transaction rollback-only instead.
+     */
+    public static void rollbackTransaction() {
+        TransactionState transaction = currentTransaction.get();
+        if (transaction == null) {
+            return;
+        }
+        if (transaction.depth > 0) {
+            transaction.depth--;
+            transaction.rollbackOnly = true;
+            return;
+        }
+
+        rollbackQuietly(transaction.connection);
+        release(transaction);
+    }
+
+    /**
+     * Check whether a transaction is open on the current thread
+     * @return true if DAO calls on this thread share a transaction
+     */
+    public static boolean isTransactionActive() {
+        return currentTransaction.get() != null;
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.error("Error rolling back transaction", e);
+        }
+    }
+
+    private static void release(TransactionState transaction) {
+        currentTransaction.remove();
+        try {
+            transaction.connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.warn("Error restoring auto-commit on pooled connection", e);
+        }
+        closeConnection(transaction.connection);
+    }
+
+    /**
+     * Wrap a transaction connection so that DAOs using try-with-resources and their own
+     * commit handling cannot close or commit it behind the transaction's back.
+     */
+    private static Connection participantConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                int argCount = (args == null) ? 0 : args.length;
+                switch (method.getName()) {
+                    case "close":
+                    case "setAutoCommit":
+                        return null;
+                    case "commit":
+                    case "rollback":
+                        if (argCount == 0) {
+                            return null;
+                        }
+                        break;
+                    case "isClosed":
+                        return connection.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    private static final class TransactionState {
+        private final Connection connection;
+        private final Connection participant;
+        private int depth;
+        private boolean rollbackOnly;
+
+        private TransactionState(Connection connection) {
+            this.connection = connection;
+            this.participant = participantConnection(connection);
+        }
+    }
+
     /**
      * Get the DataSource instance
      * @return DataSource instance
@@ -0,0 +1,171 @@
+package com.pahanaedu.bookshop.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive long keys to values, using open addressing with linear probing so
+ * lookups neither box the key nor follow entry pointers. Values must not be null.
+ * Not thread-safe: writers must be serialized by the caller. {@link #get(long)} reads each
+ * table array once, so a reader racing a writer sees a stale or missing value but never fails,
+ * which makes it usable under an optimistic read lock that is validated afterwards.
+ */
+public class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Create a map
+     * @param expectedSize Number of entries to size the table for
+     */
+    public LongObjectMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        // Keep the load factor at or below 1/2
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Get the value for a key
+     * @param key Key
+     * @return Value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = Math.min(keys.length, values.length) - 1;
+        int index = indexFor(key, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            Object value = values[index];
+            if (value == null) {
+                return null;
+            }
+            if (keys[index] == key) {
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Set the value for a key
+     * @param key Key
+     * @param value Value (not null)
+     * @return Previous value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value must not be null");
+        }
+        if ((size + 1) * 2 > values.length) {
+            resize(values.length * 2);
+        }
+
+        int mask = values.length - 1;
+        int index = indexFor(key, mask);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                Object previous = values[index];
+                values[index] = value;
+                return (V) previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Remove a key
+     * @param key Key
+     * @return Removed value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = values.length - 1;
+        int index = indexFor(key, mask);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                Object previous = values[index];
+                shiftBack(index);
+                size--;
+                return (V) previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Get the number of entries
+     * @return Entry count
+     */
+    public int size() {
+        return size;
+    }
+
+    // Close the gap left by a removed slot by moving later entries of the probe run back,
+    // so lookups never need tombstones
+    private void shiftBack(int gap) {
+        int mask = values.length - 1;
+        int index = (gap + 1) & mask;
+        while (values[index] != null) {
+            int home = indexFor(keys[index], mask);
+            // Move the entry if its home slot is not within (gap, index]
+            boolean movable = gap <= index ? home <= gap || home > index : home <= gap && home > index;
+            if (movable) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        Object[] newValues = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = indexFor(oldKeys[i], mask);
+                while (newValues[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                newKeys[index] = oldKeys[i];
+                newValues[index] = oldValues[i];
+            }
+        }
+        // A racing reader may pair old keys with new values; get() stays within both arrays
+        // and the caller's lock validation discards what it read
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static int indexFor(long key, int mask) {
+        // Spread the bits so sequential barcodes do not cluster
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,155 @@
+package com.pahanaedu.bookshop.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe, size-bounded least-recently-used cache.
+ * The bound is a total weight: by default every entry weighs 1, so the bound is an entry count.
+ */
+public class LruCache<K, V> {
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final BiConsumer<K, V> evictionListener;
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalWeight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Create a cache bounded by entry count
+     * @param maxEntries Maximum number of entries
+     */
+    public LruCache(int maxEntries) {
+        this(maxEntries, value -> 1L);
+    }
+
+    /**
+     * Create a cache bounded by total weight
+     * @param maxWeight Maximum total weight of all entries
+     * @param weigher Function giving the weight of a value
+     */
+    public LruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this(maxWeight, weigher, (key, value) -> { });
+    }
+
+    /**
+     * Create a cache bounded by total weight that reports evicted entries
+     * @param maxWeight Maximum total weight of all entries
+     * @param weigher Function giving the weight of a value
+     * @param evictionListener Called outside the cache lock for each entry evicted to make room
+     */
+    public LruCache(long maxWeight, ToLongFunction<V> weigher, BiConsumer<K, V> evictionListener) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Get a value, marking it as recently used
+     * @param key Cache key
+     * @return Cached value or null
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * Put a value, evicting least-recently-used entries beyond the bound.
+     * A value heavier than the whole bound is not cached (and is reported as evicted).
+     * @param key Cache key
+     * @param value Value to cache
+     */
+    public void put(K key, V value) {
+        List<Map.Entry<K, V>> evicted = new ArrayList<>();
+
+        synchronized (this) {
+            long weight = weigher.applyAsLong(value);
+            V previous = entries.remove(key);
+            if (previous != null) {
+                totalWeight -= weigher.applyAsLong(previous);
+            }
+
+            if (weight > maxWeight) {
+                evicted.add(Map.entry(key, value));
+                evictions++;
+            } else {
+                entries.put(key, value);
+                totalWeight += weight;
+
+                Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+                while (totalWeight > maxWeight && eldest.hasNext()) {
+                    Map.Entry<K, V> entry = eldest.next();
+                    totalWeight -= weigher.applyAsLong(entry.getValue());
+                    evicted.add(Map.entry(entry.getKey(), entry.getValue()));
+                    eldest.remove();
+                    evictions++;
+                }
+            }
+        }
+
+        for (Map.Entry<K, V> entry : evicted) {
+            evictionListener.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Remove a value
+     * @param key Cache key
+     * @return Removed value or null
+     */
+    public synchronized V remove(K key) {
+        V removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= weigher.applyAsLong(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Remove all values
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Get number of cached entries
+     * @return Entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get cache statistics
+     * @return Map of statistic name to value
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("weight", totalWeight);
+        stats.put("maxWeight", maxWeight);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        return stats;
+    }
+}
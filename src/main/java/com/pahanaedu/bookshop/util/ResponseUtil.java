@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -97,6 +98,67 @@ public class ResponseUtil {
         sendJsonResponse(response, HttpServletResponse.SC_OK, responseMap);
     }
 
+    /**
+     * Serialize a success response with data and message, for responses that are sent more than once
+     * @param data Data to include in response
+     * @param message Success message
+     * @return Serialized JSON response body
+     * @throws IOException if serialization fails
+     */
+    public static byte[] toSuccessResponseBytes(Object data, String message) throws IOException {
+        Map<String, Object> responseMap = new HashMap<>();
+        responseMap.put("success", true);
+        responseMap.put("data", data);
+        responseMap.put("message", message);
+        responseMap.put("timestamp", System.currentTimeMillis());
+
+        try {
+            return objectMapper.writeValueAsBytes(responseMap);
+        } catch (Exception e) {
+            logger.error("Error converting response to JSON", e);
+            throw new IOException("JSON serialization failed", e);
+        }
+    }
+
+    /**
+     * Send an already serialized JSON response
+     * @param response HttpServletResponse
+     * @param statusCode HTTP status code
+     * @param body Serialized JSON body
+     * @throws IOException if writing response fails
+     */
+    public static void sendJsonBytes(HttpServletResponse response, int statusCode, byte[] body) throws IOException {
+        response.setStatus(statusCode);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        // Add CORS headers
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.getOutputStream().flush();
+    }
+
+    /**
+     * Send success response with data that is already serialized, e.g. prebuilt for a hot path
+     * @param response HttpServletResponse
+     * @param data Serialized JSON of the data
+     * @throws IOException if writing response fails
+     */
+    public static void sendSuccessJsonBytes(HttpServletResponse response, byte[] data) throws IOException {
+        byte[] prefix = "{\"success\":true,\"data\":".getBytes(StandardCharsets.UTF_8);
+        byte[] suffix = (",\"timestamp\":" + System.currentTimeMillis() + "}").getBytes(StandardCharsets.UTF_8);
+
+        byte[] body = new byte[prefix.length + data.length + suffix.length];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        System.arraycopy(data, 0, body, prefix.length, data.length);
+        System.arraycopy(suffix, 0, body, prefix.length + data.length, suffix.length);
+        sendJsonBytes(response, HttpServletResponse.SC_OK, body);
+    }
+
     /**
      * Send error response
      * @param response HttpServletResponse
@@ -207,6 +269,57 @@ public class ResponseUtil {
         sendJsonResponse(response, HttpServletResponse.SC_OK, responseMap);
     }
 
+    /**
+     * Send cursor-paginated response
+     * @param response HttpServletResponse
+     * @param data List of data items
+     * @param pageSize Number of items per page
+     * @param nextCursor Continuation token for the next page, or null on the last page
+     * @throws IOException if writing response fails
+     */
+    public static void sendCursorPaginatedResponse(HttpServletResponse response, Object data, int pageSize, String nextCursor) throws IOException {
+        Map<String, Object> responseMap = new HashMap<>();
+        responseMap.put("success", true);
+        responseMap.put("data", data);
+
+        Map<String, Object> pagination = new HashMap<>();
+        pagination.put("pageSize", pageSize);
+        pagination.put("nextCursor", nextCursor);
+        pagination.put("hasNext", nextCursor != null);
+
+        responseMap.put("pagination", pagination);
+        responseMap.put("timestamp", System.currentTimeMillis());
+
+        sendJsonResponse(response, HttpServletResponse.SC_OK, responseMap);
+    }
+
+    /**
+     * Send cursor-paginated response with the total number of items in the listing
+     * @param response HttpServletResponse
+     * @param data List of data items
+     * @param pageSize Number of items per page
+     * @param nextCursor Continuation token for the next page, or null on the last page
+     * @param totalItems Total number of items across all pages
+     * @throws IOException if writing response fails
+     */
+    public static void sendCursorPaginatedResponse(HttpServletResponse response, Object data, int pageSize, String nextCursor,
+                                                   long totalItems) throws IOException {
+        Map<String, Object> responseMap = new HashMap<>();
+        responseMap.put("success", true);
+        responseMap.put("data", data);
+
+        Map<String, Object> pagination = new HashMap<>();
+        pagination.put("pageSize", pageSize);
+        pagination.put("nextCursor", nextCursor);
+        pagination.put("hasNext", nextCursor != null);
+        pagination.put("totalItems", totalItems);
+
+        responseMap.put("pagination", pagination);
+        responseMap.put("timestamp", System.currentTimeMillis());
+
+        sendJsonResponse(response, HttpServletResponse.SC_OK, responseMap);
+    }
+
     /**
      * Parse JSON request body
      * @param requestBody JSON string
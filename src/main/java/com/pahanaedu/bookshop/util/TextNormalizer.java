@@ -0,0 +1,66 @@
+package com.pahanaedu.bookshop.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for folding text into search terms: case-folded, accent-folded (accented letters
+ * match their base letter) and split on anything that is not a letter or digit
+ */
+public class TextNormalizer {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Case- and accent-fold text
+     * @param text Text (may be null)
+     * @return Folded text, empty if text is null
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Split text into folded terms
+     * @param text Text (may be null)
+     * @return Terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        String folded = fold(text);
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < folded.length(); i++) {
+            if (Character.isLetterOrDigit(folded.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                terms.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            terms.add(folded.substring(start));
+        }
+        return terms;
+    }
+
+    /**
+     * Fold an identifier such as an item code or ISBN into one term with separators removed,
+     * so "978-0-13-468599-1" also matches "9780134685991"
+     * @param text Identifier (may be null)
+     * @return Compact term, empty if there are no letters or digits
+     */
+    public static String compact(String text) {
+        return String.join("", tokenize(text));
+    }
+}
@@ -0,0 +1,58 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.model.Bill;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link BillCursor}
+ */
+class BillCursorTest {
+
+    @Test
+    void roundTripsCreatedAtAndBillId() {
+        assertRoundTrip(LocalDateTime.of(2024, 3, 15, 10, 30, 45, 123_456_000), 42);
+        assertRoundTrip(LocalDateTime.of(2024, 3, 15, 10, 30), Integer.MAX_VALUE);
+        assertRoundTrip(LocalDateTime.of(2024, 12, 31, 23, 59, 59, 999_999_999), 1);
+    }
+
+    @Test
+    void encodesUrlSafeToken() {
+        String token = cursor(LocalDateTime.of(2024, 3, 15, 10, 30, 45), 7).encode();
+
+        assertFalse(token.contains("+") || token.contains("/") || token.contains("="));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> BillCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> BillCursor.decode(token("2024-03-15T10:30")));
+        assertThrows(IllegalArgumentException.class, () -> BillCursor.decode(token("yesterday|5")));
+        assertThrows(IllegalArgumentException.class, () -> BillCursor.decode(token("2024-03-15T10:30|five")));
+    }
+
+    private static void assertRoundTrip(LocalDateTime createdAt, int billId) {
+        BillCursor decoded = BillCursor.decode(cursor(createdAt, billId).encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(billId, decoded.getBillId());
+    }
+
+    private static BillCursor cursor(LocalDateTime createdAt, int billId) {
+        Bill bill = new Bill();
+        bill.setBillId(billId);
+        bill.setCreatedAt(createdAt);
+        return BillCursor.after(bill);
+    }
+
+    private static String token(String value) {
+        return Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
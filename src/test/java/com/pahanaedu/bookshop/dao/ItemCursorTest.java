@@ -0,0 +1,72 @@
+package com.pahanaedu.bookshop.dao;
+
+import com.pahanaedu.bookshop.model.Item;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link ItemCursor}
+ */
+class ItemCursorTest {
+
+    @Test
+    void roundTripsEverySort() {
+        Item item = new Item();
+        item.setItemId(17);
+        item.setItemName("Clean Code");
+        item.setPrice(new BigDecimal("1250.50"));
+        item.setCreatedAt(LocalDateTime.of(2024, 3, 15, 10, 30, 45, 500_000_000));
+        item.setTotalSold(321);
+
+        assertRoundTrip(item, ItemDAO.BrowseSort.NAME, "Clean Code");
+        assertRoundTrip(item, ItemDAO.BrowseSort.PRICE, new BigDecimal("1250.50"));
+        assertRoundTrip(item, ItemDAO.BrowseSort.NEWEST, LocalDateTime.of(2024, 3, 15, 10, 30, 45, 500_000_000));
+        assertRoundTrip(item, ItemDAO.BrowseSort.BESTSELLING, 321);
+    }
+
+    @Test
+    void keepsSeparatorsAndUnicodeInNames() {
+        Item item = new Item();
+        item.setItemId(3);
+        item.setItemName("Either|Or — Kierkegaard");
+
+        assertRoundTrip(item, ItemDAO.BrowseSort.NAME, "Either|Or — Kierkegaard");
+    }
+
+    @Test
+    void treatsMissingSalesAsZero() {
+        Item item = new Item();
+        item.setItemId(3);
+
+        assertRoundTrip(item, ItemDAO.BrowseSort.BESTSELLING, 0);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(token("name|5")));
+        assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(token("rating|5|5")));
+        assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(token("price|cheap|5")));
+        assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(token("newest|today|5")));
+        assertThrows(IllegalArgumentException.class, () -> ItemCursor.decode(token("name|Dune|five")));
+    }
+
+    private static void assertRoundTrip(Item item, ItemDAO.BrowseSort sort, Object expectedValue) {
+        ItemCursor decoded = ItemCursor.decode(ItemCursor.after(item, sort).encode());
+
+        assertEquals(sort, decoded.getSort());
+        assertEquals(item.getItemId(), decoded.getItemId());
+        assertEquals(expectedValue, decoded.getTypedValue());
+    }
+
+    private static String token(String value) {
+        return Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
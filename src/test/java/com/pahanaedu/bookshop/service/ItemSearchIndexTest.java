@@ -0,0 +1,144 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.model.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ItemSearchIndex}
+ */
+class ItemSearchIndexTest {
+    private final Map<Integer, Item> items = new HashMap<>();
+    private final ItemSearchIndex index = new ItemSearchIndex();
+
+    @Test
+    void intersectsEveryCompleteTerm() {
+        put(item(1, "Clean Code", 0));
+        put(item(2, "Clean Architecture", 0));
+        put(item(3, "The Clean Coder", 0));
+        put(item(4, "Code Complete", 0));
+
+        assertEquals(List.of(1), ids(search("clean code ")));
+        assertEquals(List.of(1), ids(search("code clean ")));
+        assertEquals(List.of(), ids(search("clean missing ")));
+    }
+
+    @Test
+    void matchesLastTermAsPrefix() {
+        put(item(1, "Clean Code", 0));
+        put(item(2, "Clean Architecture", 0));
+        put(item(3, "The Clean Coder", 0));
+
+        // Whole-term match ranks above the prefix match
+        assertEquals(List.of(1, 3), ids(search("clean code")));
+        assertEquals(List.of(2), ids(search("arch")));
+        assertEquals(List.of(2), ids(search("clean arch")));
+    }
+
+    @Test
+    void treatsSingleCharacterPrefixAsWholeTerm() {
+        put(item(1, "C Programming", 0));
+        put(item(2, "Clean Code", 0));
+
+        assertEquals(List.of(1), ids(search("c")));
+    }
+
+    @Test
+    void ranksByFieldThenUnitsSold() {
+        Item byAuthor = item(1, "Refactoring", 100);
+        byAuthor.setAuthor("Martin Fowler");
+        Item inName = item(2, "Martin Chuzzlewit", 0);
+        Item bestSeller = item(3, "Martin Eden", 50);
+        put(byAuthor);
+        put(inName);
+        put(bestSeller);
+
+        assertEquals(List.of(3, 2, 1), ids(search("martin ")));
+    }
+
+    @Test
+    void matchesIsbnAcrossSeparators() {
+        Item item = item(1, "Effective Java", 0);
+        item.setIsbn("978-0-13-468599-1");
+        put(item);
+        put(item(2, "Java Concurrency", 0));
+
+        assertEquals(List.of(1), ids(search("9780134685991 ")));
+        assertEquals(List.of(1), ids(search("978 0134685991 ")));
+        assertEquals(List.of(1), ids(search("978-0-13-468599-1")));
+        assertEquals(List.of(1), ids(search("97801346")));
+    }
+
+    @Test
+    void matchesAccentFoldedTerms() {
+        put(item(1, "Les Misérables", 0));
+
+        assertEquals(List.of(1), ids(search("MISERABLES ")));
+        assertEquals(List.of(1), ids(search("misé")));
+    }
+
+    @Test
+    void pagesRankedResults() {
+        for (int id = 1; id <= 5; id++) {
+            put(item(id, "Atlas " + id, id * 10));
+        }
+
+        assertEquals(List.of(5, 4), ids(index.search("atlas ", 0, 2, items::get)));
+        assertEquals(List.of(3, 2), ids(index.search("atlas ", 2, 2, items::get)));
+        assertEquals(List.of(1), ids(index.search("atlas ", 4, 2, items::get)));
+        assertEquals(List.of(), ids(index.search("atlas ", 0, 0, items::get)));
+    }
+
+    @Test
+    void putReplacesEarlierVersion() {
+        put(item(1, "Old Title", 0));
+        int terms = index.termCount();
+
+        put(item(1, "New Title", 0));
+
+        assertEquals(List.of(), ids(search("old ")));
+        assertEquals(List.of(1), ids(search("new ")));
+        assertEquals(terms, index.termCount());
+    }
+
+    @Test
+    void removeDropsItemAndUnusedTerms() {
+        put(item(1, "Solaris", 0));
+        put(item(2, "Solaris Stories", 0));
+
+        index.remove(1);
+        assertEquals(List.of(2), ids(search("solaris ")));
+
+        index.remove(2);
+        index.remove(3);
+        assertTrue(search("sol").isEmpty());
+        assertEquals(0, index.termCount());
+    }
+
+    private List<Item> search(String query) {
+        return index.search(query, 0, 10, items::get);
+    }
+
+    private void put(Item item) {
+        items.put(item.getItemId(), item);
+        index.put(item);
+    }
+
+    private static Item item(int itemId, String name, int totalSold) {
+        Item item = new Item();
+        item.setItemId(itemId);
+        item.setItemName(name);
+        item.setTotalSold(totalSold);
+        return item;
+    }
+
+    private static List<Integer> ids(List<Item> results) {
+        return results.stream().map(Item::getItemId).toList();
+    }
+}
@@ -0,0 +1,168 @@
+package com.pahanaedu.bookshop.service;
+
+import com.pahanaedu.bookshop.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link ItemSuggestIndex}
+ */
+class ItemSuggestIndexTest {
+    private final Map<Integer, Long> sold = new HashMap<>();
+    private ItemSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemSuggestIndex(10, itemId -> sold.getOrDefault(itemId, 0L));
+    }
+
+    @Test
+    void suggestsMostPopularFirst() {
+        put(1, "Harry Potter", 5);
+        put(2, "Harry Houdini", 9);
+        put(3, "Hardy Boys", 1);
+
+        assertArrayEquals(new int[] {2, 1, 3}, index.suggest("har", 10));
+        assertArrayEquals(new int[] {2, 1}, index.suggest("Harr", 10));
+        assertArrayEquals(new int[] {1}, index.suggest("harry p", 10));
+        assertArrayEquals(new int[] {2}, index.suggest("har", 1));
+    }
+
+    @Test
+    void breaksPopularityTiesByLowerId() {
+        put(7, "Dune", 3);
+        put(4, "Dune Messiah", 3);
+
+        assertArrayEquals(new int[] {4, 7}, index.suggest("dune", 10));
+    }
+
+    @Test
+    void keepsOnlyTopKPerNode() {
+        index = new ItemSuggestIndex(2, itemId -> sold.getOrDefault(itemId, 0L));
+        put(1, "Atlas A", 1);
+        put(2, "Atlas B", 2);
+        put(3, "Atlas C", 3);
+
+        assertArrayEquals(new int[] {3, 2}, index.suggest("atlas", 10));
+        assertArrayEquals(new int[] {1}, index.suggest("atlas a", 10));
+    }
+
+    @Test
+    void splitsEdgesAndRejectsDivergingPrefixes() {
+        put(1, "Harry Potter", 1);
+        put(2, "Hard Times", 2);
+
+        assertArrayEquals(new int[] {2}, index.suggest("hard", 10));
+        assertArrayEquals(new int[] {1}, index.suggest("harry", 10));
+        assertArrayEquals(new int[0], index.suggest("harx", 10));
+        assertArrayEquals(new int[0], index.suggest("harry potters", 10));
+        assertArrayEquals(new int[0], index.suggest("  ", 10));
+    }
+
+    @Test
+    void normalizesPrefixLikeKeys() {
+        put(1, "Les Misérables", 1);
+
+        assertArrayEquals(new int[] {1}, index.suggest("LES  MISER", 10));
+        assertArrayEquals(new int[] {1}, index.suggest("les-mis", 10));
+    }
+
+    @Test
+    void matchesAuthorAndHyphenatedIsbn() {
+        Item item = item(1, "Effective Java", 1);
+        item.setAuthor("Joshua Bloch");
+        item.setIsbn("978-0-13-468599-1");
+        index.put(item);
+
+        assertArrayEquals(new int[] {1}, index.suggest("josh", 10));
+        assertArrayEquals(new int[0], index.suggest("josh", 0));
+        // Keys match from the start of the whole name, not from any word
+        assertArrayEquals(new int[0], index.suggest("bloch", 10));
+        assertArrayEquals(new int[] {1}, index.suggest("joshua b", 10));
+        assertArrayEquals(new int[] {1}, index.suggest("978-0-13", 10));
+        assertArrayEquals(new int[] {1}, index.suggest("97801346", 10));
+        assertEquals(3, index.keyCount());
+    }
+
+    @Test
+    void removePrunesLeavesAndMergesPassThroughNodes() {
+        Item hard = put(1, "Hard Times", 1);
+        put(2, "Harry Potter", 2);
+        put(3, "Harvest", 3);
+
+        index.remove(hard);
+
+        assertEquals(2, index.keyCount());
+        assertArrayEquals(new int[0], index.suggest("hard", 10));
+        assertArrayEquals(new int[] {3, 2}, index.suggest("har", 10));
+        assertArrayEquals(new int[] {2}, index.suggest("harry", 10));
+
+        // "harry" and "harvest" now share the merged "har" node; removing one merges again
+        index.remove(item(3, "Harvest", 3));
+        assertArrayEquals(new int[] {2}, index.suggest("h", 10));
+        assertArrayEquals(new int[0], index.suggest("harv", 10));
+
+        // Splitting the merged edge again still works
+        put(1, "Hard Times", 1);
+        assertArrayEquals(new int[] {2, 1}, index.suggest("har", 10));
+        assertArrayEquals(new int[] {1}, index.suggest("hard", 10));
+    }
+
+    @Test
+    void keepsKeySharedByOtherItemsOnRemove() {
+        Item first = put(1, "Emma", 1);
+        put(2, "Emma", 2);
+        put(3, "Emmanuel", 3);
+
+        index.remove(first);
+
+        assertArrayEquals(new int[] {3, 2}, index.suggest("emma", 10));
+        assertArrayEquals(new int[] {3}, index.suggest("emman", 10));
+    }
+
+    @Test
+    void ignoresDuplicatePutsAndUnknownRemoves() {
+        Item item = put(1, "Ulysses", 1);
+        index.put(item);
+        index.remove(item(2, "Ulysses", 0));
+        index.remove(item(3, "Odyssey", 0));
+
+        assertEquals(1, index.keyCount());
+        assertArrayEquals(new int[] {1}, index.suggest("uly", 10));
+    }
+
+    @Test
+    void emptiesCompletelyWhenEverythingIsRemoved() {
+        Item a = put(1, "Alpha", 1);
+        Item b = put(2, "Alphabet", 2);
+        Item c = put(3, "Beta", 3);
+
+        index.remove(b);
+        index.remove(a);
+        index.remove(c);
+
+        assertEquals(0, index.keyCount());
+        assertArrayEquals(new int[0], index.suggest("a", 10));
+        assertArrayEquals(new int[0], index.suggest("b", 10));
+    }
+
+    private Item put(int itemId, String name, long unitsSold) {
+        Item item = item(itemId, name, unitsSold);
+        index.put(item);
+        return item;
+    }
+
+    private Item item(int itemId, String name, long unitsSold) {
+        sold.put(itemId, unitsSold);
+        Item item = new Item();
+        item.setItemId(itemId);
+        item.setItemName(name);
+        return item;
+    }
+}
@@ -0,0 +1,110 @@
+package com.pahanaedu.bookshop.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link LongObjectMap}
+ */
+class LongObjectMapTest {
+
+    @Test
+    void putReplacesAndReturnsPreviousValue() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+
+        assertNull(map.put(9780134685991L, "a"));
+        assertEquals("a", map.put(9780134685991L, "b"));
+        assertEquals("b", map.get(9780134685991L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void handlesZeroNegativeAndExtremeKeys() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        long[] keys = {0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE};
+        for (long key : keys) {
+            map.put(key, "v" + key);
+        }
+
+        for (long key : keys) {
+            assertEquals("v" + key, map.get(key));
+        }
+        assertNull(map.get(1L));
+    }
+
+    @Test
+    void removeAbsentKeyReturnsNull() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        map.put(1L, "a");
+
+        assertNull(map.remove(2L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void rejectsNullValues() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(1L, null));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        LongObjectMap<Long> map = new LongObjectMap<>(0);
+        for (long key = 0; key < 10_000; key++) {
+            map.put(4_000_000_000L + key, key);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long key = 0; key < 10_000; key++) {
+            assertEquals(key, map.get(4_000_000_000L + key));
+        }
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        map.put(1L, "a");
+        map.put(2L, "b");
+
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertNull(map.get(1L));
+        map.put(1L, "c");
+        assertEquals("c", map.get(1L));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        // At most eight live keys keep the table at its minimum of 16 slots, so probe runs are
+        // long and wrap around the end, and removals exercise every branch of the backward shift
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            long[] pool = random.longs(8).toArray();
+            LongObjectMap<Integer> map = new LongObjectMap<>(0);
+            Map<Long, Integer> expected = new HashMap<>();
+
+            for (int op = 0; op < 500; op++) {
+                long key = pool[random.nextInt(pool.length)];
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), map.remove(key));
+                } else {
+                    assertEquals(expected.put(key, op), map.put(key, op));
+                }
+
+                assertEquals(expected.size(), map.size());
+                for (long probe : pool) {
+                    assertEquals(expected.get(probe), map.get(probe), "round " + round + ", op " + op);
+                }
+            }
+        }
+    }
+}